@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generators of realistic version strings for benchmarks.
+ */
+public enum Corpus {
+  /**
+   * Maven styled versions like 2.3.1-SNAPSHOT or 5.4.2.Final.
+   */
+  MAVEN {
+    @Override
+    String make(final Random rnd) {
+      final String[] qualifiers = {"", "", "", "-SNAPSHOT", ".Final", "-RC1", "-beta-2", "-jre"};
+      return rnd.nextInt(30) + "." + rnd.nextInt(20) + '.' + rnd.nextInt(50) + qualifiers[rnd.nextInt(qualifiers.length)];
+    }
+  },
+  /**
+   * Semantic versions like 1.4.0-rc.1+build.15.
+   */
+  SEMVER {
+    @Override
+    String make(final Random rnd) {
+      final String[] qualifiers = {"", "", "-alpha", "-rc.1", "-beta.3+build.15", "+sha.5114f85"};
+      return rnd.nextInt(10) + "." + rnd.nextInt(30) + '.' + rnd.nextInt(100) + qualifiers[rnd.nextInt(qualifiers.length)];
+    }
+  },
+  /**
+   * Operating system package versions like 1:2.30-0ubuntu0.1 or 4.18.0-348.el8.
+   */
+  OS_PACKAGE {
+    @Override
+    String make(final Random rnd) {
+      return rnd.nextBoolean()
+          ? rnd.nextInt(3) + ":" + rnd.nextInt(10) + '.' + rnd.nextInt(40) + '-' + rnd.nextInt(5) + "ubuntu0." + rnd.nextInt(5)
+          : rnd.nextInt(6) + "." + rnd.nextInt(20) + '.' + rnd.nextInt(10) + '-' + rnd.nextInt(500) + ".el" + (7 + rnd.nextInt(3));
+    }
+  },
+  /**
+   * Versions with prefixes like v-1.2.3-beta or idea-2021.3.1.
+   */
+  PREFIXED {
+    @Override
+    String make(final Random rnd) {
+      final String[] prefixes = {"v", "idea", "netbeans", "release", "jdk"};
+      final String[] postfixes = {"", "-beta", "-dev", "-alpha-2"};
+      return prefixes[rnd.nextInt(prefixes.length)] + '-' + (2000 + rnd.nextInt(25)) + '.' + rnd.nextInt(4) + '.' + rnd.nextInt(10) + postfixes[rnd.nextInt(postfixes.length)];
+    }
+  };
+
+  abstract String make(Random rnd);
+
+  /**
+   * Generate deterministic array of version strings.
+   *
+   * @param size number of strings
+   * @param seed seed of random generator
+   * @return generated strings
+   */
+  public String[] generate(final int size, final long seed) {
+    final Random rnd = new Random(seed);
+    final String[] result = new String[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = this.make(rnd);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionValidator;
+import com.igormaznitsa.commons.version.operators.DefaultExpressionParser;
+import com.igormaznitsa.commons.version.operators.StrictExpressionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Parsing of validator expressions and validation of versions for expressions of different size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+  static final int SIZE = 1024;
+
+  @Param({"1", "10", "100"})
+  public int ranges;
+
+  private String expression;
+  private VersionValidator validator;
+  private VersionValidator compiled;
+  private Predicate<Version> predicate;
+  private Version[] versions;
+  private boolean[] results;
+
+  @Setup
+  public void setup() {
+    final StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < this.ranges; i++) {
+      if (i > 0) {
+        buffer.append(';');
+      }
+      buffer.append(">=").append(i * 2).append(".0,<").append(i * 2 + 1).append(".0,!=").append(i * 2).append(".5");
+    }
+    this.expression = buffer.toString();
+    this.validator = new VersionValidator(this.expression);
+    this.compiled = this.validator.compile();
+    this.predicate = this.validator.toPredicate();
+
+    final Random rnd = new Random(3L);
+    this.versions = new Version[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      this.versions[i] = new Version(rnd.nextInt(this.ranges * 2 + 2), rnd.nextInt(10));
+    }
+    this.results = new boolean[SIZE];
+  }
+
+  @Benchmark
+  public Object parseDefault() {
+    return new DefaultExpressionParser().parse(this.expression);
+  }
+
+  @Benchmark
+  public Object parseStrict() {
+    return new StrictExpressionParser().parse(this.expression);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void isValidTree(final Blackhole blackhole) {
+    for (final Version version : this.versions) {
+      blackhole.consume(this.validator.isValid(version));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void isValidCompiled(final Blackhole blackhole) {
+    for (final Version version : this.versions) {
+      blackhole.consume(this.compiled.isValid(version));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void isValidPredicate(final Blackhole blackhole) {
+    for (final Version version : this.versions) {
+      blackhole.consume(this.predicate.test(version));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public boolean[] validateAllLoopTree() {
+    for (int i = 0; i < SIZE; i++) {
+      this.results[i] = this.validator.isValid(this.versions[i]);
+    }
+    return this.results;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public boolean[] validateAllBatchTree() {
+    this.validator.validateAll(this.versions, this.results);
+    return this.results;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public boolean[] validateAllLoopCompiled() {
+    for (int i = 0; i < SIZE; i++) {
+      this.results[i] = this.compiled.isValid(this.versions[i]);
+    }
+    return this.results;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public boolean[] validateAllBatchCompiled() {
+    this.compiled.validateAll(this.versions, this.results);
+    return this.results;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionSet;
+import com.igormaznitsa.commons.version.VersionValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search of the latest version accepted by validator in list of published versions, by linear scan against {@link VersionSet}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+
+  @Param({"5000"})
+  public int size;
+
+  @Param({">=10.0,<12.0", ">=5.0,<25.0,!=20.1.1;=3.3.3"})
+  public String expression;
+
+  private Version[] versions;
+  private VersionSet set;
+  private VersionValidator validator;
+  private VersionValidator compiled;
+
+  @Setup
+  public void setup() {
+    final String[] texts = Corpus.MAVEN.generate(this.size, 7L);
+    this.versions = new Version[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.versions[i] = new Version(texts[i]);
+    }
+    this.set = VersionSet.of(this.versions);
+    this.validator = new VersionValidator(this.expression);
+    this.compiled = this.validator.compile();
+  }
+
+  @Benchmark
+  public Version linearScan() {
+    Version result = null;
+    for (final Version version : this.versions) {
+      if (this.validator.isValid(version) && (result == null || version.compareTo(result) > 0)) {
+        result = version;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  public Version maxSatisfying() {
+    return this.set.maxSatisfying(this.validator);
+  }
+
+  @Benchmark
+  public Version maxSatisfyingCompiled() {
+    return this.set.maxSatisfying(this.compiled);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import com.igormaznitsa.commons.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison, hashing and text representation of versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionCompareBenchmark {
+
+  static final int SIZE = 1024;
+
+  @Param({"MAVEN", "SEMVER", "OS_PACKAGE", "PREFIXED"})
+  public Corpus corpus;
+
+  private String[] texts;
+  private Version[] versions;
+  private Version[] copies;
+
+  @Setup
+  public void setup() {
+    this.texts = this.corpus.generate(SIZE, 2L);
+    this.versions = new Version[SIZE];
+    this.copies = new Version[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      this.versions[i] = new Version(this.texts[i]);
+      this.copies[i] = new Version(this.texts[(i * 7) % SIZE]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void compareTo(final Blackhole blackhole) {
+    for (int i = 0; i < SIZE; i++) {
+      blackhole.consume(this.versions[i].compareTo(this.copies[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void equalsTo(final Blackhole blackhole) {
+    for (int i = 0; i < SIZE; i++) {
+      blackhole.consume(this.versions[i].equals(this.copies[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void hashCodeOfNew(final Blackhole blackhole) {
+    for (final String text : this.texts) {
+      blackhole.consume(new Version(text).hashCode());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void toStringOfNew(final Blackhole blackhole) {
+    for (final String text : this.texts) {
+      blackhole.consume(new Version(text).toString());
+    }
+  }
+
+  @Benchmark
+  public Version[] sort() {
+    final Version[] array = this.versions.clone();
+    Arrays.sort(array);
+    return array;
+  }
+}
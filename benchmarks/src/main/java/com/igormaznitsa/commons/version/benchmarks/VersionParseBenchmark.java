@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of version strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionParseBenchmark {
+
+  static final int SIZE = 1024;
+
+  @Param({"MAVEN", "SEMVER", "OS_PACKAGE", "PREFIXED"})
+  public Corpus corpus;
+
+  private String[] texts;
+  private byte[] buffer;
+  private int[] offsets;
+  private VersionCache cache;
+  private String[] prefixes;
+  private long[][] parts;
+  private String[] postfixes;
+
+  @Setup
+  public void setup() {
+    this.texts = this.corpus.generate(SIZE, 1L);
+    final StringBuilder joined = new StringBuilder();
+    this.offsets = new int[SIZE + 1];
+    for (int i = 0; i < SIZE; i++) {
+      this.offsets[i] = joined.length();
+      joined.append(this.texts[i]);
+    }
+    this.offsets[SIZE] = joined.length();
+    this.buffer = joined.toString().getBytes(StandardCharsets.US_ASCII);
+    this.cache = VersionCache.newLruCache(SIZE * 4);
+    this.prefixes = new String[SIZE];
+    this.parts = new long[SIZE][];
+    this.postfixes = new String[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      final Version version = new Version(this.texts[i]);
+      this.prefixes[i] = version.getPrefix();
+      this.parts[i] = new long[version.getNumericPartCount()];
+      for (int p = 0; p < this.parts[i].length; p++) {
+        this.parts[i][p] = version.getNumericPartAtPosition(p);
+      }
+      this.postfixes[i] = version.getPostfix();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void constructor(final Blackhole blackhole) {
+    for (final String text : this.texts) {
+      blackhole.consume(new Version(text));
+    }
+  }
+
+  /**
+   * Construction from already decomposed parts, there is no parsing so that allocation rate shows cost of the version instance itself.
+   */
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void constructorFromParts(final Blackhole blackhole) {
+    for (int i = 0; i < SIZE; i++) {
+      blackhole.consume(new Version(this.prefixes[i], this.parts[i], this.postfixes[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void parseBytes(final Blackhole blackhole) {
+    for (int i = 0; i < SIZE; i++) {
+      blackhole.consume(Version.parse(this.buffer, this.offsets[i], this.offsets[i + 1] - this.offsets[i]));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SIZE)
+  public void cached(final Blackhole blackhole) {
+    for (final String text : this.texts) {
+      blackhole.consume(this.cache.get(text));
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.benchmarks;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.Versions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting of version arrays by {@link Arrays} against {@link Versions}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionSortBenchmark {
+
+  @Param({"MAVEN", "SEMVER", "OS_PACKAGE", "PREFIXED"})
+  public Corpus corpus;
+
+  @Param({"10000", "1000000"})
+  public int size;
+
+  private Version[] versions;
+
+  @Setup
+  public void setup() {
+    final String[] texts = this.corpus.generate(this.size, 5L);
+    this.versions = new Version[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.versions[i] = new Version(texts[i]);
+    }
+  }
+
+  @Benchmark
+  public Version[] arraysSort() {
+    final Version[] array = this.versions.clone();
+    Arrays.sort(array);
+    return array;
+  }
+
+  @Benchmark
+  public Version[] versionsSort() {
+    final Version[] array = this.versions.clone();
+    Versions.sort(array);
+    return array;
+  }
+
+  @Benchmark
+  public Version[] arraysParallelSort() {
+    final Version[] array = this.versions.clone();
+    Arrays.parallelSort(array);
+    return array;
+  }
+
+  @Benchmark
+  public Version[] versionsParallelSort() {
+    final Version[] array = this.versions.clone();
+    Versions.parallelSort(array);
+    return array;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Internal read-only char sequence view over ASCII bytes of a buffer. It doesn't copy the bytes, only sub-sequences are materialized as strings.
+ *
+ * @since 1.0.1
+ */
+final class AsciiCharSequence implements CharSequence {
+
+  private final ByteBuffer buffer;
+  private final int offset;
+  private final int length;
+
+  /**
+   * Constructor.
+   *
+   * @param buffer buffer contains only ASCII bytes in the area, must not be null
+   * @param offset absolute index of the first byte in the buffer
+   * @param length number of bytes in the area
+   */
+  AsciiCharSequence(final ByteBuffer buffer, final int offset, final int length) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Check that all bytes in the buffer area are ASCII ones.
+   *
+   * @param buffer buffer to be checked, must not be null
+   * @param offset absolute index of the first byte
+   * @param length number of bytes to check
+   * @return true if all bytes are less than 0x80, false otherwise
+   */
+  static boolean isAscii(final ByteBuffer buffer, final int offset, final int length) {
+    final int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      if (buffer.get(i) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int length() {
+    return this.length;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    return (char) this.buffer.get(this.offset + index);
+  }
+
+  @Override
+  public CharSequence subSequence(final int start, final int end) {
+    if (this.buffer.hasArray()) {
+      return new String(this.buffer.array(), this.buffer.arrayOffset() + this.offset + start, end - start, StandardCharsets.US_ASCII);
+    } else {
+      final char[] chars = new char[end - start];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = this.charAt(start + i);
+      }
+      return new String(chars);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.subSequence(0, this.length).toString();
+  }
+}
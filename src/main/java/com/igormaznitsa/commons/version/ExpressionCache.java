@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.DefaultExpressionParser;
+import com.igormaznitsa.commons.version.operators.ExpressionParser;
+import com.igormaznitsa.commons.version.operators.Operator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe size-bounded cache of parsed expression trees. Operator trees made by the library parsers are immutable, so that one tree can be shared by all validators made for the same expression text.
+ * Reading of cached expression doesn't take locks, a lock is taken only to add parsed expression and to evict old ones. LRU cache is approximate, it is CLOCK (second chance) algorithm: reading only marks expression as used and an expression marked since the previous eviction pass is kept once more.
+ * Expressions which can't be parsed are not cached.
+ *
+ * @see VersionValidator#of(String)
+ * @since 1.0.1
+ */
+public final class ExpressionCache {
+
+  private final ExpressionParser parser;
+  private final int maxEntries;
+  private final boolean accessOrder;
+  private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+  private final Deque<Entry> queue = new ArrayDeque<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private ExpressionCache(final int maxEntries, final boolean accessOrder, final ExpressionParser parser) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Max entries must be positive : " + maxEntries);
+    }
+    if (parser == null) {
+      throw new NullPointerException("Parser must not be null");
+    }
+    this.parser = parser;
+    this.maxEntries = maxEntries;
+    this.accessOrder = accessOrder;
+  }
+
+  /**
+   * Make cache which evicts approximately the least recently used expression.
+   *
+   * @param maxEntries max number of expressions kept in the cache, must be positive
+   * @return new cache with {@link DefaultExpressionParser}, must not be null
+   * @throws IllegalArgumentException if max number of entries is not positive
+   * @since 1.0.1
+   */
+  public static ExpressionCache newLruCache(final int maxEntries) {
+    return newLruCache(maxEntries, new DefaultExpressionParser());
+  }
+
+  /**
+   * Make cache which evicts approximately the least recently used expression.
+   *
+   * @param maxEntries max number of expressions kept in the cache, must be positive
+   * @param parser     parser of expressions, must not be null
+   * @return new cache, must not be null
+   * @throws IllegalArgumentException if max number of entries is not positive
+   * @since 1.0.1
+   */
+  public static ExpressionCache newLruCache(final int maxEntries, final ExpressionParser parser) {
+    return new ExpressionCache(maxEntries, true, parser);
+  }
+
+  /**
+   * Make cache which evicts the earliest added expression, reading doesn't change order of expressions so that it is cheaper than LRU cache for stable sets of expressions.
+   *
+   * @param maxEntries max number of expressions kept in the cache, must be positive
+   * @return new cache with {@link DefaultExpressionParser}, must not be null
+   * @throws IllegalArgumentException if max number of entries is not positive
+   * @since 1.0.1
+   */
+  public static ExpressionCache newFifoCache(final int maxEntries) {
+    return newFifoCache(maxEntries, new DefaultExpressionParser());
+  }
+
+  /**
+   * Make cache which evicts the earliest added expression.
+   *
+   * @param maxEntries max number of expressions kept in the cache, must be positive
+   * @param parser     parser of expressions, must not be null
+   * @return new cache, must not be null
+   * @throws IllegalArgumentException if max number of entries is not positive
+   * @since 1.0.1
+   */
+  public static ExpressionCache newFifoCache(final int maxEntries, final ExpressionParser parser) {
+    return new ExpressionCache(maxEntries, false, parser);
+  }
+
+  /**
+   * Get parsed expression tree for text, the text is parsed only if it is not in the cache.
+   *
+   * @param expression text of expression, must not be null
+   * @return root of parsed expression tree, it is shared
+   * @throws IllegalArgumentException if the expression can't be parsed
+   * @since 1.0.1
+   */
+  public Operator get(final String expression) {
+    final Operator result;
+    final Entry found = this.map.get(expression);
+    if (found == null) {
+      this.misses.increment();
+      // parsing is made outside of lock, concurrently parsed trees are equivalent
+      final Operator parsed = this.parser.parse(expression);
+      if (parsed == null) {
+        result = null;
+      } else {
+        final Entry entry = new Entry(expression, parsed);
+        synchronized (this.queue) {
+          final Entry previous = this.map.putIfAbsent(expression, entry);
+          if (previous == null) {
+            this.queue.addLast(entry);
+            this.evict();
+            result = parsed;
+          } else {
+            result = previous.operator;
+          }
+        }
+      }
+    } else {
+      this.hits.increment();
+      if (this.accessOrder && !found.used) {
+        found.used = true;
+      }
+      result = found.operator;
+    }
+    return result;
+  }
+
+  /**
+   * Remove entries over the limit, must be called under lock of queue.
+   */
+  private void evict() {
+    while (this.map.size() > this.maxEntries) {
+      final Entry eldest = this.queue.pollFirst();
+      if (eldest == null) {
+        break;
+      }
+      if (eldest.used) {
+        eldest.used = false;
+        this.queue.addLast(eldest);
+      } else if (this.map.remove(eldest.expression, eldest)) {
+        this.evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Get number of requests served from the cache.
+   *
+   * @return number of hits
+   * @since 1.0.1
+   */
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Get number of requests which required parsing of expression.
+   *
+   * @return number of misses
+   * @since 1.0.1
+   */
+  public long getMissCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Get number of expressions removed from the cache to keep its size.
+   *
+   * @return number of evictions
+   * @since 1.0.1
+   */
+  public long getEvictionCount() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * Get current number of expressions in the cache.
+   *
+   * @return number of entries
+   * @since 1.0.1
+   */
+  public int size() {
+    return this.map.size();
+  }
+
+  /**
+   * Remove all entries from the cache, counters are not changed.
+   *
+   * @since 1.0.1
+   */
+  public void clear() {
+    synchronized (this.queue) {
+      this.map.clear();
+      this.queue.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "[size=" + this.size() + ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + ", evictions=" + this.getEvictionCount() + ']';
+  }
+
+  private static final class Entry {
+
+    private final String expression;
+    private final Operator operator;
+    private volatile boolean used;
+
+    private Entry(final String expression, final Operator operator) {
+      this.expression = expression;
+      this.operator = operator;
+    }
+  }
+}
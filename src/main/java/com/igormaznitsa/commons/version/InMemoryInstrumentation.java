@@ -0,0 +1,474 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation keeping counters and histograms in memory, it has no dependencies and can be exposed through JMX.
+ * Evaluations are counted for every expression text, so that validators made separately for the same text share one counter. Number of tracked expressions is limited and evaluations of other expressions are counted together.
+ *
+ * @see Version#setInstrumentation(Instrumentation)
+ * @since 1.0.1
+ */
+public final class InMemoryInstrumentation implements Instrumentation, InMemoryInstrumentationMBean {
+
+  /**
+   * Default max number of expressions which evaluations are counted separately.
+   *
+   * @since 1.0.1
+   */
+  public static final int DEFAULT_MAX_TRACKED_EXPRESSIONS = 1024;
+
+  /**
+   * Name used by {@link #registerMBean()}.
+   *
+   * @since 1.0.1
+   */
+  public static final String DEFAULT_MBEAN_NAME = "com.igormaznitsa.commons.version:type=Instrumentation";
+
+  private final int maxTrackedExpressions;
+  private final Histogram versionParse = new Histogram();
+  private final Histogram expressionParse = new Histogram();
+  private final Histogram validation = new Histogram();
+  private final Histogram batchValidation = new Histogram();
+  private final LongAdder batchVersions = new LongAdder();
+  private final Histogram leafChecks = new Histogram();
+  private final Histogram treeDepth = new Histogram();
+  private final LongAdder lenientParses = new LongAdder();
+  private final LongAdder unknownConditions = new LongAdder();
+  private final LongAdder untrackedEvaluations = new LongAdder();
+  private final ConcurrentHashMap<String, LongAdder> evaluations = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor with default number of tracked expressions.
+   *
+   * @since 1.0.1
+   */
+  public InMemoryInstrumentation() {
+    this(DEFAULT_MAX_TRACKED_EXPRESSIONS);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxTrackedExpressions max number of expressions which evaluations are counted separately, must not be negative
+   * @throws IllegalArgumentException if the number is negative
+   * @since 1.0.1
+   */
+  public InMemoryInstrumentation(final int maxTrackedExpressions) {
+    if (maxTrackedExpressions < 0) {
+      throw new IllegalArgumentException("Number of tracked expressions must not be negative : " + maxTrackedExpressions);
+    }
+    this.maxTrackedExpressions = maxTrackedExpressions;
+  }
+
+  @Override
+  public void versionParsed(final long nanos) {
+    this.versionParse.record(nanos);
+  }
+
+  @Override
+  public void expressionParsed(final String expression, final Operator root, final boolean lenient, final long nanos) {
+    this.expressionParse.record(nanos);
+    if (lenient) {
+      this.lenientParses.increment();
+    }
+    int depth = 0;
+    boolean unknown = false;
+    if (root != null) {
+      final Deque<Map.Entry<Operator, Integer>> stack = new ArrayDeque<>();
+      stack.push(new AbstractMap.SimpleImmutableEntry<>(root, 1));
+      while (!stack.isEmpty()) {
+        final Map.Entry<Operator, Integer> next = stack.pop();
+        final Operator operator = next.getKey();
+        depth = Math.max(depth, next.getValue());
+        final List<Operator> operands = operator instanceof OperatorAnd ? ((OperatorAnd) operator).getOperands() : operator instanceof OperatorOr ? ((OperatorOr) operator).getOperands() : null;
+        if (operands != null) {
+          for (final Operator operand : operands) {
+            stack.push(new AbstractMap.SimpleImmutableEntry<>(operand, next.getValue() + 1));
+          }
+        } else if (operator instanceof OperatorLeaf && ((OperatorLeaf) operator).getCondition() == Condition.UNKNOWN) {
+          unknown = true;
+        }
+      }
+    }
+    this.treeDepth.record(depth);
+    if (unknown) {
+      this.unknownConditions.increment();
+    }
+  }
+
+  @Override
+  public void versionValidated(final VersionValidator validator, final boolean result, final int leafChecks, final long nanos) {
+    this.validation.record(nanos);
+    this.leafChecks.record(leafChecks);
+    this.countEvaluations(validator, 1);
+  }
+
+  @Override
+  public void versionsValidated(final VersionValidator validator, final int versions, final int accepted, final long nanos) {
+    this.batchValidation.record(nanos);
+    this.batchVersions.add(versions);
+    this.countEvaluations(validator, versions);
+  }
+
+  private void countEvaluations(final VersionValidator validator, final int count) {
+    final String key = validator.getExpressionRoot() == null ? null : validator.getExpressionText();
+    LongAdder counter = key == null ? null : this.evaluations.get(key);
+    if (counter == null && key != null && this.evaluations.size() < this.maxTrackedExpressions) {
+      counter = this.evaluations.computeIfAbsent(key, text -> new LongAdder());
+    }
+    (counter == null ? this.untrackedEvaluations : counter).add(count);
+  }
+
+  /**
+   * Get histogram of version parse times in nanoseconds.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getVersionParseHistogram() {
+    return this.versionParse;
+  }
+
+  /**
+   * Get histogram of expression parse times in nanoseconds.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getExpressionParseHistogram() {
+    return this.expressionParse;
+  }
+
+  /**
+   * Get histogram of validation times in nanoseconds.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getValidationHistogram() {
+    return this.validation;
+  }
+
+  /**
+   * Get histogram of batch validation times in nanoseconds, one value per batch.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getBatchValidationHistogram() {
+    return this.batchValidation;
+  }
+
+  /**
+   * Get histogram of numbers of leaf checks per validation.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getLeafCheckHistogram() {
+    return this.leafChecks;
+  }
+
+  /**
+   * Get histogram of depths of parsed operator trees.
+   *
+   * @return the histogram, must not be null
+   * @since 1.0.1
+   */
+  public Histogram getTreeDepthHistogram() {
+    return this.treeDepth;
+  }
+
+  /**
+   * Get number of evaluations of expressions which are not tracked separately.
+   *
+   * @return number of evaluations
+   * @since 1.0.1
+   */
+  public long getUntrackedEvaluationCount() {
+    return this.untrackedEvaluations.sum();
+  }
+
+  /**
+   * Get the most evaluated expressions, versions checked in batches are counted too. Expressions are identified by text of their trees, so that validators made for the same expression text share one counter.
+   *
+   * @param limit max number of expressions
+   * @return list of expression texts with their evaluation counts, in descending order of count
+   * @since 1.0.1
+   */
+  public List<Map.Entry<String, Long>> getTopExpressions(final int limit) {
+    final List<Map.Entry<String, Long>> result = new ArrayList<>();
+    for (final Map.Entry<String, LongAdder> entry : this.evaluations.entrySet()) {
+      result.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+    }
+    result.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+    return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+  }
+
+  @Override
+  public String[] topExpressions(final int limit) {
+    final List<Map.Entry<String, Long>> top = this.getTopExpressions(limit);
+    final String[] result = new String[top.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = top.get(i).getValue() + " " + top.get(i).getKey();
+    }
+    return result;
+  }
+
+  @Override
+  public long getVersionParseCount() {
+    return this.versionParse.getCount();
+  }
+
+  @Override
+  public long getVersionParseTotalNanos() {
+    return this.versionParse.getSum();
+  }
+
+  @Override
+  public long getExpressionParseCount() {
+    return this.expressionParse.getCount();
+  }
+
+  @Override
+  public long getExpressionParseTotalNanos() {
+    return this.expressionParse.getSum();
+  }
+
+  @Override
+  public long getLenientParseCount() {
+    return this.lenientParses.sum();
+  }
+
+  @Override
+  public long getUnknownConditionCount() {
+    return this.unknownConditions.sum();
+  }
+
+  @Override
+  public long getMaxTreeDepth() {
+    return this.treeDepth.getMax();
+  }
+
+  @Override
+  public long getValidationCount() {
+    return this.validation.getCount();
+  }
+
+  @Override
+  public long getValidationTotalNanos() {
+    return this.validation.getSum();
+  }
+
+  @Override
+  public long getLeafCheckCount() {
+    return this.leafChecks.getSum();
+  }
+
+  @Override
+  public long getBatchValidationCount() {
+    return this.batchValidation.getCount();
+  }
+
+  @Override
+  public long getBatchValidatedVersionCount() {
+    return this.batchVersions.sum();
+  }
+
+  @Override
+  public long getBatchValidationTotalNanos() {
+    return this.batchValidation.getSum();
+  }
+
+  @Override
+  public void reset() {
+    this.versionParse.reset();
+    this.expressionParse.reset();
+    this.validation.reset();
+    this.batchValidation.reset();
+    this.batchVersions.reset();
+    this.leafChecks.reset();
+    this.treeDepth.reset();
+    this.lenientParses.reset();
+    this.unknownConditions.reset();
+    this.untrackedEvaluations.reset();
+    this.evaluations.clear();
+  }
+
+  /**
+   * Register the instrumentation in the platform MBean server with {@link #DEFAULT_MBEAN_NAME}.
+   *
+   * @return name of the registered bean
+   * @throws JMException if the bean can't be registered
+   * @since 1.0.1
+   */
+  public ObjectName registerMBean() throws JMException {
+    return this.registerMBean(new ObjectName(DEFAULT_MBEAN_NAME));
+  }
+
+  /**
+   * Register the instrumentation in the platform MBean server.
+   *
+   * @param name name of the bean, must not be null
+   * @return name of the registered bean
+   * @throws JMException if the bean can't be registered
+   * @since 1.0.1
+   */
+  public ObjectName registerMBean(final ObjectName name) throws JMException {
+    return ManagementFactory.getPlatformMBeanServer().registerMBean(this, name).getObjectName();
+  }
+
+  /**
+   * Histogram of not negative values with buckets for powers of two, bucket {@code i} contains values from {@code 2^(i-1)} to {@code 2^i-1}, the zero bucket contains zero. Values are recorded without locks.
+   *
+   * @since 1.0.1
+   */
+  public static final class Histogram {
+
+    private static final int BUCKETS = 65;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    private Histogram() {
+    }
+
+    private void record(final long value) {
+      final long normalized = Math.max(0L, value);
+      this.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(normalized));
+      this.count.increment();
+      this.sum.add(normalized);
+      this.max.accumulate(normalized);
+    }
+
+    private void reset() {
+      for (int i = 0; i < BUCKETS; i++) {
+        this.buckets.set(i, 0L);
+      }
+      this.count.reset();
+      this.sum.reset();
+      this.max.reset();
+    }
+
+    /**
+     * Get number of recorded values.
+     *
+     * @return number of values
+     * @since 1.0.1
+     */
+    public long getCount() {
+      return this.count.sum();
+    }
+
+    /**
+     * Get sum of recorded values.
+     *
+     * @return sum of values
+     * @since 1.0.1
+     */
+    public long getSum() {
+      return this.sum.sum();
+    }
+
+    /**
+     * Get the greatest recorded value.
+     *
+     * @return the greatest value, 0 if there are no values
+     * @since 1.0.1
+     */
+    public long getMax() {
+      return this.max.get();
+    }
+
+    /**
+     * Get mean of recorded values.
+     *
+     * @return mean value, 0 if there are no values
+     * @since 1.0.1
+     */
+    public double getMean() {
+      final long values = this.getCount();
+      return values == 0L ? 0.0d : (double) this.getSum() / values;
+    }
+
+    /**
+     * Get numbers of values in buckets.
+     *
+     * @return array of 65 counters, counter {@code i} is number of values from {@code 2^(i-1)} to {@code 2^i-1}
+     * @since 1.0.1
+     */
+    public long[] getBuckets() {
+      final long[] result = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        result[i] = this.buckets.get(i);
+      }
+      return result;
+    }
+
+    /**
+     * Get estimation of percentile, it is the upper bound of bucket containing the percentile but not greater than the greatest value.
+     *
+     * @param percentile percentile from 0 to 100
+     * @return estimated value, 0 if there are no values
+     * @throws IllegalArgumentException if the percentile is out of range
+     * @since 1.0.1
+     */
+    public long getPercentile(final double percentile) {
+      if (percentile < 0.0d || percentile > 100.0d) {
+        throw new IllegalArgumentException("Percentile must be in 0..100 : " + percentile);
+      }
+      final long[] counters = this.getBuckets();
+      long total = 0L;
+      for (final long counter : counters) {
+        total += counter;
+      }
+      final long rank = (long) Math.ceil(total * percentile / 100.0d);
+      long result = 0L;
+      long seen = 0L;
+      for (int i = 0; i < BUCKETS && total > 0L; i++) {
+        seen += counters[i];
+        if (seen >= rank && counters[i] > 0L) {
+          result = i == 0 ? 0L : i == 64 ? Long.MAX_VALUE : (1L << i) - 1L;
+          break;
+        }
+      }
+      return Math.min(result, this.getMax());
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+/**
+ * Management interface of {@link InMemoryInstrumentation}, all times are in nanoseconds.
+ *
+ * @since 1.0.1
+ */
+public interface InMemoryInstrumentationMBean {
+
+  /**
+   * Get number of parsed versions.
+   *
+   * @return number of parsed versions
+   * @since 1.0.1
+   */
+  long getVersionParseCount();
+
+  /**
+   * Get total time of version parsing.
+   *
+   * @return time in nanoseconds
+   * @since 1.0.1
+   */
+  long getVersionParseTotalNanos();
+
+  /**
+   * Get number of parsed expressions.
+   *
+   * @return number of parsed expressions
+   * @since 1.0.1
+   */
+  long getExpressionParseCount();
+
+  /**
+   * Get total time of expression parsing.
+   *
+   * @return time in nanoseconds
+   * @since 1.0.1
+   */
+  long getExpressionParseTotalNanos();
+
+  /**
+   * Get number of malformed expressions parsed in lenient way.
+   *
+   * @return number of malformed expressions
+   * @since 1.0.1
+   */
+  long getLenientParseCount();
+
+  /**
+   * Get number of parsed expressions containing leaves with {@link com.igormaznitsa.commons.version.operators.Condition#UNKNOWN} condition.
+   *
+   * @return number of expressions with unknown conditions
+   * @since 1.0.1
+   */
+  long getUnknownConditionCount();
+
+  /**
+   * Get the greatest depth of parsed operator trees, a single leaf has depth 1.
+   *
+   * @return the greatest depth, 0 if no expression was parsed
+   * @since 1.0.1
+   */
+  long getMaxTreeDepth();
+
+  /**
+   * Get number of validated versions.
+   *
+   * @return number of validations
+   * @since 1.0.1
+   */
+  long getValidationCount();
+
+  /**
+   * Get total time of validations.
+   *
+   * @return time in nanoseconds
+   * @since 1.0.1
+   */
+  long getValidationTotalNanos();
+
+  /**
+   * Get total number of leaf checks made during validations.
+   *
+   * @return number of leaf checks
+   * @since 1.0.1
+   */
+  long getLeafCheckCount();
+
+  /**
+   * Get number of validated batches of versions.
+   *
+   * @return number of batches
+   * @since 1.0.1
+   */
+  long getBatchValidationCount();
+
+  /**
+   * Get total number of versions checked in batches.
+   *
+   * @return number of versions
+   * @since 1.0.1
+   */
+  long getBatchValidatedVersionCount();
+
+  /**
+   * Get total time of batch validations.
+   *
+   * @return time in nanoseconds
+   * @since 1.0.1
+   */
+  long getBatchValidationTotalNanos();
+
+  /**
+   * Get the most evaluated expressions.
+   *
+   * @param limit max number of expressions
+   * @return lines in format {@code count expression} in descending order of count
+   * @since 1.0.1
+   */
+  String[] topExpressions(int limit);
+
+  /**
+   * Reset all counters and histograms.
+   *
+   * @since 1.0.1
+   */
+  void reset();
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+
+/**
+ * Listener of parsing and validation events, it is installed by {@link Version#setInstrumentation(Instrumentation)}. If no instrumentation is installed then the library doesn't measure time and doesn't count anything.
+ * Methods are called from threads where events happen, so that implementations must be thread-safe and fast. All methods do nothing by default.
+ *
+ * @see InMemoryInstrumentation
+ * @since 1.0.1
+ */
+public interface Instrumentation {
+
+  /**
+   * Called after a version is parsed from text, versions got from cache are not parsed.
+   *
+   * @param nanos time spent to parse the version, in nanoseconds
+   * @since 1.0.1
+   */
+  default void versionParsed(final long nanos) {
+  }
+
+  /**
+   * Called after an expression is parsed by {@link com.igormaznitsa.commons.version.operators.DefaultExpressionParser}.
+   *
+   * @param expression the parsed expression, it can be null
+   * @param root       root of the parsed operator tree, it can be null
+   * @param lenient    true if the expression is malformed and it was parsed in lenient way, false if it is well-formed
+   * @param nanos      time spent to parse the expression, in nanoseconds
+   * @since 1.0.1
+   */
+  default void expressionParsed(final String expression, final Operator root, final boolean lenient, final long nanos) {
+  }
+
+  /**
+   * Called after a single version is checked by {@link VersionValidator#isValid(Version)} or {@link VersionValidator#isValid(VersionView)}.
+   *
+   * @param validator  the validator, must not be null
+   * @param result     result of the check
+   * @param leafChecks number of checked leaves of the expression tree, an operator of other type (for instance compiled intervals) is counted as one leaf
+   * @param nanos      time spent to check the version, in nanoseconds
+   * @since 1.0.1
+   */
+  default void versionValidated(final VersionValidator validator, final boolean result, final int leafChecks, final long nanos) {
+  }
+
+  /**
+   * Called after a batch of versions is checked by validator, for instance by {@link VersionValidator#validateAll(java.util.List)}, {@link VersionValidator#filter(java.util.Collection)} or {@link VersionSet#maxSatisfying(VersionValidator)}. Versions of a batch are not reported one by one.
+   *
+   * @param validator the validator, must not be null
+   * @param versions  number of checked versions, for version sets it is number of visited versions
+   * @param accepted  number of accepted versions
+   * @param nanos     time spent to check the batch, in nanoseconds
+   * @since 1.0.1
+   */
+  default void versionsValidated(final VersionValidator validator, final int versions, final int accepted, final long nanos) {
+  }
+}
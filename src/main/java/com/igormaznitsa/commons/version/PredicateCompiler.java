@@ -0,0 +1,260 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorConstant;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compiler of operator trees into predicates. The base version of every leaf is decomposed into prefix, numeric parts, postfix and packed form and the condition is turned into bit mask of accepted comparison results, so that a check doesn't dispatch by condition.
+ * AND and OR operators which contain only leaves are compiled into nodes calling the leaves directly, so that the JIT can inline the whole check. Operators which are unknown for the compiler, like {@link com.igormaznitsa.commons.version.operators.OperatorIntervals} or user ones, are called as they are.
+ * A compiled predicate gives the same results as the operator tree.
+ *
+ * @see VersionValidator#toPredicate()
+ * @since 1.0.1
+ */
+public final class PredicateCompiler {
+
+  private static final Predicate<Version> ALWAYS_FALSE = version -> false;
+  private static final Predicate<Version> NOT_NULL = version -> version != null;
+
+  private static final int BASE_LESS = 1;
+  private static final int BASE_EQUAL = 2;
+  private static final int BASE_GREAT = 4;
+
+  private PredicateCompiler() {
+  }
+
+  /**
+   * Compile operator tree into predicate.
+   *
+   * @param root root of the operator tree, it can be null
+   * @return predicate which gives the same results as {@link Operator#isValid(Version)} of the root, for null root it rejects all versions
+   * @since 1.0.1
+   */
+  public static Predicate<Version> compile(final Operator root) {
+    final Predicate<Version> result;
+    if (root == null || root == OperatorConstant.FALSE) {
+      result = ALWAYS_FALSE;
+    } else if (root == OperatorConstant.TRUE) {
+      result = NOT_NULL;
+    } else if (root instanceof OperatorLeaf) {
+      final Leaf leaf = compileLeaf((OperatorLeaf) root);
+      result = leaf == null ? version -> root.isValid(version) : leaf;
+    } else if (root instanceof OperatorAnd) {
+      final List<Operator> operands = ((OperatorAnd) root).getOperands();
+      final Leaf[] leaves = compileLeaves(operands);
+      result = leaves == null ? new And(compileAll(operands)) : new LeafAnd(leaves);
+    } else if (root instanceof OperatorOr) {
+      final List<Operator> operands = ((OperatorOr) root).getOperands();
+      final Leaf[] leaves = compileLeaves(operands);
+      result = leaves == null ? new Or(compileAll(operands)) : new LeafOr(leaves);
+    } else {
+      result = version -> root.isValid(version);
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Predicate<Version>[] compileAll(final List<Operator> operands) {
+    final Predicate<Version>[] result = (Predicate<Version>[]) new Predicate<?>[operands.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = compile(operands.get(i));
+    }
+    return result;
+  }
+
+  private static Leaf[] compileLeaves(final List<Operator> operands) {
+    final Leaf[] result = new Leaf[operands.size()];
+    for (int i = 0; i < result.length; i++) {
+      final Operator operand = operands.get(i);
+      result[i] = operand instanceof OperatorLeaf ? compileLeaf((OperatorLeaf) operand) : null;
+      if (result[i] == null) {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compile leaf.
+   *
+   * @return compiled leaf or null if the condition is unknown
+   */
+  private static Leaf compileLeaf(final OperatorLeaf leaf) {
+    final int accepted;
+    switch (leaf.getCondition()) {
+      case EQU:
+        accepted = BASE_EQUAL;
+        break;
+      case NOT_EQU:
+        accepted = BASE_LESS | BASE_GREAT;
+        break;
+      case LESS:
+        accepted = BASE_GREAT;
+        break;
+      case GREAT:
+        accepted = BASE_LESS;
+        break;
+      case LESS_OR_EQU:
+        accepted = BASE_GREAT | BASE_EQUAL;
+        break;
+      case GREAT_OR_EQU:
+        accepted = BASE_LESS | BASE_EQUAL;
+        break;
+      default:
+        accepted = 0;
+        break;
+    }
+    return accepted == 0 ? null : new Leaf(leaf.getBase(), accepted);
+  }
+
+  private static final class Leaf implements Predicate<Version> {
+
+    private final String prefix;
+    private final long[] parts;
+    private final String postfix;
+    private final boolean packedForm;
+    private final long packed;
+    private final int accepted;
+
+    private Leaf(final Version base, final int accepted) {
+      this.prefix = base.getPrefix();
+      this.parts = base.getNumericParts();
+      this.postfix = base.getPostfix();
+      this.packedForm = base.isPacked();
+      this.packed = base.getPacked();
+      this.accepted = accepted;
+    }
+
+    private boolean accepts(final Version version) {
+      final int compare = this.packedForm && version.isPacked() ? Long.compareUnsigned(this.packed, version.getPacked()) : this.compare(version);
+      return (this.accepted & (compare < 0 ? BASE_LESS : compare == 0 ? BASE_EQUAL : BASE_GREAT)) != 0;
+    }
+
+    private int compare(final Version version) {
+      int result = this.prefix.compareTo(version.getPrefix());
+      if (result == 0) {
+        final long[] thatParts = version.getNumericParts();
+        final int max = Math.max(this.parts.length, thatParts.length);
+        for (int i = 0; i < max && result == 0; i++) {
+          result = Long.compare(i < this.parts.length ? this.parts[i] : 0L, i < thatParts.length ? thatParts[i] : 0L);
+        }
+        if (result == 0) {
+          result = this.postfix.compareTo(version.getPostfix());
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public boolean test(final Version version) {
+      return version != null && this.accepts(version);
+    }
+  }
+
+  private static final class LeafAnd implements Predicate<Version> {
+
+    private final Leaf[] leaves;
+
+    private LeafAnd(final Leaf[] leaves) {
+      this.leaves = leaves;
+    }
+
+    @Override
+    public boolean test(final Version version) {
+      if (version == null) {
+        return false;
+      }
+      for (final Leaf leaf : this.leaves) {
+        if (!leaf.accepts(version)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class LeafOr implements Predicate<Version> {
+
+    private final Leaf[] leaves;
+
+    private LeafOr(final Leaf[] leaves) {
+      this.leaves = leaves;
+    }
+
+    @Override
+    public boolean test(final Version version) {
+      if (version != null) {
+        for (final Leaf leaf : this.leaves) {
+          if (leaf.accepts(version)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class And implements Predicate<Version> {
+
+    private final Predicate<Version>[] operands;
+
+    private And(final Predicate<Version>[] operands) {
+      this.operands = operands;
+    }
+
+    @Override
+    public boolean test(final Version version) {
+      if (version == null) {
+        return false;
+      }
+      for (final Predicate<Version> operand : this.operands) {
+        if (!operand.test(version)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Or implements Predicate<Version> {
+
+    private final Predicate<Version>[] operands;
+
+    private Or(final Predicate<Version>[] operands) {
+      this.operands = operands;
+    }
+
+    @Override
+    public boolean test(final Version version) {
+      if (version != null) {
+        for (final Predicate<Version> operand : this.operands) {
+          if (operand.test(version)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -15,7 +15,14 @@
  */
 package com.igormaznitsa.commons.version;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -25,18 +32,38 @@ import java.util.regex.Pattern;
 /**
  * It represents a version and allows getting access to its information parts. The Representer can be created from text representation of a version or through providing version fields directly.
  * Format of version is : {prefix-}?{ddd.ddd.ddd...ddd}?{-postfix}?
+ * Text is parsed by a char-by-char scanner, the regular expression is used only for text containing line terminators.
  *
  * @since 1.0.0
  */
-public final class Version implements Comparable<Version>, Serializable {
+public final class Version implements Comparable<Version>, VersionView, Serializable {
 
   private static final Pattern EXTRACTOR = Pattern.compile("^([^\\d.]+)-|\\.?([\\d]+)|-?(.*)$");
   private static final long serialVersionUID = -4409642391893263592L;
+  /**
+   * Serialized form of 1.0.0, the hash field is written for old readers which use it as hash code.
+   */
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("numericParts", long[].class),
+      new ObjectStreamField("prefix", String.class),
+      new ObjectStreamField("postfix", String.class),
+      new ObjectStreamField("hash", int.class)
+  };
+
+  private static final int PACKED_PARTS = 4;
+  private static final int PACKED_PART_BITS = 16;
+  private static final long PACKED_PART_MASK = (1L << PACKED_PART_BITS) - 1L;
+  private static final int DEFAULT_CACHE_SIZE = 8192;
+  private static volatile VersionCache cache = VersionCache.newLruCache(DEFAULT_CACHE_SIZE);
+  private static volatile Instrumentation instrumentation;
 
   private final long[] numericParts;
   private final String prefix;
   private final String postfix;
-  private final int hash;
+  private transient boolean packedForm;
+  private transient long packed;
+  private transient int hash;
+  private transient String text;
 
   /**
    * Create instance from a string.
@@ -45,37 +72,196 @@ public final class Version implements Comparable<Version>, Serializable {
    * @since 1.0.0
    */
   public Version(final String string) {
-    if (string == null) {
+    this(string, 0, string == null ? 0 : string.length());
+  }
+
+  private Version(final CharSequence text, final int from, final int to) {
+    final Instrumentation listener = instrumentation;
+    final long started = listener == null ? 0L : System.nanoTime();
+    if (text == null) {
       this.prefix = "";
       this.postfix = "";
       this.numericParts = new long[0];
     } else {
-      final List<Long> detectedDigits = new ArrayList<>();
-      final Matcher matcher = EXTRACTOR.matcher(string.trim());
-      String tail = "";
-      String start = "";
-      while (matcher.find()) {
-        final String grpStart = matcher.group(1);
-        final String grpNum = matcher.group(2);
-        final String grpTail = matcher.group(3);
-        if (grpStart != null) {
-          start = grpStart;
-        } else if (grpNum != null) {
-          detectedDigits.add(Long.parseLong(grpNum));
-        } else if (grpTail != null) {
-          tail = grpTail;
-          break;
+      final int start = VersionScanner.trimStart(text, from, to);
+      final int end = VersionScanner.trimEnd(text, start, to);
+      if (VersionScanner.hasLineTerminator(text, start, end)) {
+        final List<Long> detectedDigits = new ArrayList<>();
+        final Matcher matcher = EXTRACTOR.matcher(text).region(start, end);
+        String tail = "";
+        String begin = "";
+        while (matcher.find()) {
+          final String grpStart = matcher.group(1);
+          final String grpNum = matcher.group(2);
+          final String grpTail = matcher.group(3);
+          if (grpStart != null) {
+            begin = grpStart;
+          } else if (grpNum != null) {
+            detectedDigits.add(Long.parseLong(grpNum));
+          } else if (grpTail != null) {
+            tail = grpTail;
+            break;
+          }
         }
+        this.numericParts = new long[detectedDigits.size()];
+        for (int i = 0; i < detectedDigits.size(); i++) {
+          this.numericParts[i] = detectedDigits.get(i);
+        }
+        this.postfix = tail;
+        this.prefix = begin;
+      } else {
+        final int separator = VersionScanner.findPrefixSeparator(text, start, end);
+        int position = start;
+        if (separator < 0) {
+          this.prefix = "";
+        } else {
+          this.prefix = text.subSequence(start, separator).toString();
+          position = separator + 1;
+        }
+        this.numericParts = new long[VersionScanner.countNumericParts(text, position, end)];
+        position = VersionScanner.findPostfixStart(text, VersionScanner.readNumericParts(text, position, end, this.numericParts), end);
+        this.postfix = position == end ? "" : text.subSequence(position, end).toString();
       }
-      this.numericParts = new long[detectedDigits.size()];
-      for (int i = 0; i < detectedDigits.size(); i++) {
-        this.numericParts[i] = detectedDigits.get(i);
-      }
-      this.postfix = tail;
-      this.prefix = start;
     }
+    this.pack();
+    if (listener != null) {
+      listener.versionParsed(System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Get canonical version for text through the current version cache. Equal versions got through the method are the same instance.
+   *
+   * @param text text representation of version, it can be null
+   * @return canonical version, must not be null
+   * @see #setCache(VersionCache)
+   * @since 1.0.1
+   */
+  public static Version of(final String text) {
+    return cache.get(text);
+  }
+
+  /**
+   * Get the cache used by {@link #of(String)}. By default it is LRU cache for 8192 entries.
+   *
+   * @return the current cache, must not be null
+   * @since 1.0.1
+   */
+  public static VersionCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Replace the cache used by {@link #of(String)}.
+   *
+   * @param newCache new cache, must not be null
+   * @see VersionCache#newLruCache(int)
+   * @see VersionCache#newWeakCache()
+   * @since 1.0.1
+   */
+  public static void setCache(final VersionCache newCache) {
+    if (newCache == null) {
+      throw new NullPointerException("Cache must not be null");
+    }
+    cache = newCache;
+  }
+
+  /**
+   * Get the current instrumentation.
+   *
+   * @return the instrumentation or null if it is not installed
+   * @since 1.0.1
+   */
+  public static Instrumentation getInstrumentation() {
+    return instrumentation;
+  }
+
+  /**
+   * Install instrumentation to listen parsing and validation events of the library. Without instrumentation the library neither measures time nor counts events.
+   *
+   * @param newInstrumentation new instrumentation, null to remove the current one
+   * @see InMemoryInstrumentation
+   * @since 1.0.1
+   */
+  public static void setInstrumentation(final Instrumentation newInstrumentation) {
+    instrumentation = newInstrumentation;
+  }
 
-    this.hash = this.toString().hashCode();
+  /**
+   * Parse version from a range of a char sequence. Only prefix and postfix of the result are copied from the text.
+   *
+   * @param text  the source text, must not be null
+   * @param start start index of the range, inclusive
+   * @param end   end index of the range, exclusive
+   * @return parsed version, must not be null
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @since 1.0.1
+   */
+  public static Version parse(final CharSequence text, final int start, final int end) {
+    checkRange(text.length(), start, end - start);
+    return new Version(text, start, end);
+  }
+
+  /**
+   * Parse version from an area of a char array. Only prefix and postfix of the result are copied from the array.
+   *
+   * @param chars  the source chars, must not be null
+   * @param offset index of the first char
+   * @param length number of chars in the area
+   * @return parsed version, must not be null
+   * @throws IndexOutOfBoundsException if the area is out of the array
+   * @since 1.0.1
+   */
+  public static Version parse(final char[] chars, final int offset, final int length) {
+    checkRange(chars.length, offset, length);
+    return new Version(CharBuffer.wrap(chars), offset, offset + length);
+  }
+
+  /**
+   * Parse version from an area of UTF-8 (or ASCII) encoded bytes. ASCII text is parsed directly over the array, text containing other chars is decoded before parsing.
+   *
+   * @param utf8   the source bytes, must not be null
+   * @param offset index of the first byte
+   * @param length number of bytes in the area
+   * @return parsed version, must not be null
+   * @throws IndexOutOfBoundsException if the area is out of the array
+   * @since 1.0.1
+   */
+  public static Version parse(final byte[] utf8, final int offset, final int length) {
+    checkRange(utf8.length, offset, length);
+    return parse(ByteBuffer.wrap(utf8), offset, length);
+  }
+
+  /**
+   * Parse version from an area of a buffer contains UTF-8 (or ASCII) encoded bytes. Position and limit of the buffer are neither used nor changed. ASCII text is parsed directly over the buffer, text containing other chars is decoded before parsing.
+   *
+   * @param utf8   the source buffer, must not be null
+   * @param offset absolute index of the first byte in the buffer
+   * @param length number of bytes in the area
+   * @return parsed version, must not be null
+   * @throws IndexOutOfBoundsException if the area is out of the buffer capacity
+   * @since 1.0.1
+   */
+  public static Version parse(final ByteBuffer utf8, final int offset, final int length) {
+    checkRange(utf8.capacity(), offset, length);
+    // absolute reads are bounded by limit, so that the area is read through a duplicate opened up to capacity
+    final ByteBuffer area = utf8.duplicate();
+    area.limit(area.capacity());
+    final Version result;
+    if (AsciiCharSequence.isAscii(area, offset, length)) {
+      result = new Version(new AsciiCharSequence(area, offset, length), 0, length);
+    } else {
+      area.limit(offset + length).position(offset);
+      final CharBuffer decoded = StandardCharsets.UTF_8.decode(area);
+      result = new Version(decoded, 0, decoded.length());
+    }
+    return result;
+  }
+
+  private static void checkRange(final int size, final int offset, final int length) {
+    if (offset < 0 || length < 0 || offset > size - length) {
+      throw new IndexOutOfBoundsException("Wrong range [offset=" + offset + ", length=" + length + ", size=" + size + ']');
+    }
   }
 
   /**
@@ -106,8 +292,78 @@ public final class Version implements Comparable<Version>, Serializable {
         this.numericParts[i] = Math.abs(numericParts[i]);
       }
     }
+    this.pack();
+  }
+
+  private Version(final long[] numericParts, final String prefix, final String postfix) {
+    this.prefix = prefix;
+    this.postfix = postfix;
+    this.numericParts = numericParts;
+    this.pack();
+  }
 
-    this.hash = this.toString().hashCode();
+  /**
+   * Make version from already prepared components without trimming and copying, it is used to restore versions from internal storages.
+   *
+   * @param prefix       the prefix, must not be null
+   * @param numericParts the numeric parts, must not be null and must not be changed after the call
+   * @param postfix      the postfix, must not be null
+   * @return version which keeps the provided components
+   */
+  static Version makeRaw(final String prefix, final long[] numericParts, final String postfix) {
+    return new Version(numericParts, prefix, postfix);
+  }
+
+  /**
+   * Make packed form of the version if it has empty prefix and postfix and no more than four numeric parts where every part fits 16 bits.
+   * Packed parts are placed from the highest bits to the lowest ones, missing trailing parts are zeros, so that unsigned comparison of packed values gives the same order as comparison of versions.
+   */
+  private void pack() {
+    boolean packable = this.prefix.isEmpty() && this.postfix.isEmpty() && this.numericParts.length <= PACKED_PARTS;
+    long value = 0L;
+    for (int i = 0; packable && i < PACKED_PARTS; i++) {
+      final long part = i < this.numericParts.length ? this.numericParts[i] : 0L;
+      if ((part & ~PACKED_PART_MASK) == 0L) {
+        value = (value << PACKED_PART_BITS) | part;
+      } else {
+        packable = false;
+      }
+    }
+    this.packedForm = packable;
+    this.packed = packable ? value : 0L;
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("numericParts", this.numericParts);
+    fields.put("prefix", this.prefix);
+    fields.put("postfix", this.postfix);
+    fields.put("hash", this.toString().hashCode());
+    out.writeFields();
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.hash = 0;
+    this.pack();
+  }
+
+  /**
+   * Check that the version has packed form to be compared as primitive value.
+   *
+   * @return true if the version is packed, false otherwise
+   */
+  boolean isPacked() {
+    return this.packedForm;
+  }
+
+  /**
+   * Get packed form of the version.
+   *
+   * @return packed form, it is meaningful only if {@link #isPacked()} returns true
+   */
+  long getPacked() {
+    return this.packed;
   }
 
   /**
@@ -150,16 +406,49 @@ public final class Version implements Comparable<Version>, Serializable {
    * @return the numeric part, if it is not presented then 0 will be returned
    * @since 1.0.0
    */
+  @Override
   public long getNumericPartAtPosition(final int position) {
     return position < 0 || position >= this.numericParts.length ? 0L : this.numericParts[position];
   }
 
+  /**
+   * Get number of numeric parts.
+   *
+   * @return number of numeric parts
+   * @since 1.0.1
+   */
+  @Override
+  public int getNumericPartCount() {
+    return this.numericParts.length;
+  }
+
+  /**
+   * Get the version itself.
+   *
+   * @return the version
+   * @since 1.0.1
+   */
+  @Override
+  public Version toVersion() {
+    return this;
+  }
+
+  /**
+   * Get internal array of numeric parts without copying, it must not be changed.
+   *
+   * @return internal array of numeric parts
+   */
+  long[] getNumericParts() {
+    return this.numericParts;
+  }
+
   /**
    * Get the prefix part.
    *
    * @return the prefix, it is not null
    * @since 1.0.0
    */
+  @Override
   public String getPrefix() {
     return this.prefix;
   }
@@ -170,6 +459,7 @@ public final class Version implements Comparable<Version>, Serializable {
    * @return the postfix part, it is not null
    * @since 1.0.0
    */
+  @Override
   public String getPostfix() {
     return this.postfix;
   }
@@ -206,7 +496,12 @@ public final class Version implements Comparable<Version>, Serializable {
 
   @Override
   public int hashCode() {
-    return this.hash;
+    int result = this.hash;
+    if (result == 0) {
+      result = (31 * this.prefix.hashCode() + Arrays.hashCode(this.numericParts)) * 31 + this.postfix.hashCode();
+      this.hash = result;
+    }
+    return result;
   }
 
   @Override
@@ -217,13 +512,26 @@ public final class Version implements Comparable<Version>, Serializable {
     boolean result = false;
     if (obj instanceof Version) {
       final Version that = (Version) obj;
-      result = this.prefix.equals(that.prefix) && Arrays.equals(this.numericParts, that.numericParts) && this.postfix.equals(that.postfix);
+      if (this.packedForm || that.packedForm) {
+        result = this.packedForm == that.packedForm && this.packed == that.packed && this.numericParts.length == that.numericParts.length;
+      } else {
+        result = this.prefix.equals(that.prefix) && Arrays.equals(this.numericParts, that.numericParts) && this.postfix.equals(that.postfix);
+      }
     }
     return result;
   }
 
   @Override
   public String toString() {
+    String result = this.text;
+    if (result == null) {
+      result = this.makeText();
+      this.text = result;
+    }
+    return result;
+  }
+
+  private String makeText() {
     final StringBuilder result = new StringBuilder();
     if (!this.prefix.isEmpty()) {
       result.append(this.prefix);
@@ -253,6 +561,10 @@ public final class Version implements Comparable<Version>, Serializable {
 
   @Override
   public int compareTo(final Version version) {
+    if (this.packedForm && version.packedForm) {
+      return Long.compareUnsigned(this.packed, version.packed);
+    }
+
     final long[] thatNumbers = version.numericParts;
 
     final int comparePrefix = this.prefix.compareTo(version.prefix);
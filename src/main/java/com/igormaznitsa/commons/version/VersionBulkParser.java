@@ -0,0 +1,431 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Parser of big amounts of versions, one version per line. Lines are split into chunks and chunks are parsed in parallel on fork/join pool, every line is parsed by the same rules as {@link Version#Version(String)}.
+ * Lines are separated by {@code \n}, {@code \r} or {@code \r\n}, the same as for {@link BufferedReader#readLine()}. The class is immutable and thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionBulkParser {
+
+  /**
+   * Default number of lines in a chunk.
+   *
+   * @since 1.0.1
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+  /**
+   * Handler of lines which can't be parsed.
+   *
+   * @since 1.0.1
+   */
+  public interface ErrorHandler {
+
+    /**
+     * Process line which can't be parsed, the method can be called from different threads concurrently.
+     *
+     * @param lineNumber number of the line, the first line is 1
+     * @param line       text of the line, must not be null
+     * @param error      error thrown during parsing, must not be null
+     * @return version to be placed into the result instead of the line, or null if the line must be skipped
+     * @throws RuntimeException to stop parsing
+     * @since 1.0.1
+     */
+    Version onError(long lineNumber, String line, RuntimeException error);
+  }
+
+  /**
+   * Error handler stops parsing by {@link IllegalArgumentException}.
+   *
+   * @since 1.0.1
+   */
+  public static final ErrorHandler FAIL = (lineNumber, line, error) -> {
+    throw new IllegalArgumentException("Can't parse version at line " + lineNumber + " : " + line, error);
+  };
+
+  /**
+   * Error handler skips wrong lines.
+   *
+   * @since 1.0.1
+   */
+  public static final ErrorHandler SKIP = (lineNumber, line, error) -> null;
+
+  private final int chunkSize;
+  private final ForkJoinPool pool;
+  private final ErrorHandler errorHandler;
+
+  /**
+   * Constructor of parser with default chunk size, common fork/join pool and {@link #FAIL} error handler.
+   *
+   * @since 1.0.1
+   */
+  public VersionBulkParser() {
+    this(DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(), FAIL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param chunkSize    number of lines in a chunk parsed by one task, must be positive
+   * @param pool         pool to execute tasks, must not be null
+   * @param errorHandler handler of lines which can't be parsed, must not be null
+   * @throws IllegalArgumentException if chunk size is not positive
+   * @since 1.0.1
+   */
+  public VersionBulkParser(final int chunkSize, final ForkJoinPool pool, final ErrorHandler errorHandler) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive : " + chunkSize);
+    }
+    if (pool == null || errorHandler == null) {
+      throw new NullPointerException("Pool and error handler must not be null");
+    }
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+    this.errorHandler = errorHandler;
+  }
+
+  /**
+   * Parse all lines of text.
+   *
+   * @param text text to be parsed, must not be null
+   * @return parsed versions in order of lines, must not be null
+   * @since 1.0.1
+   */
+  public Version[] parse(final CharSequence text) {
+    try {
+      return this.parseAll(new TextLines(text, this.chunkSize));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Parse all lines of stream, the stream is not closed.
+   *
+   * @param in      stream to be parsed, must not be null
+   * @param charset charset of the stream, must not be null
+   * @return parsed versions in order of lines, must not be null
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public Version[] parse(final InputStream in, final Charset charset) throws IOException {
+    return this.parseAll(new ReaderLines(new BufferedReader(new InputStreamReader(in, charset)), this.chunkSize));
+  }
+
+  /**
+   * Parse all lines of UTF-8 text file.
+   *
+   * @param file file to be parsed, must not be null
+   * @return parsed versions in order of lines, must not be null
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public Version[] parse(final Path file) throws IOException {
+    try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return this.parseAll(new ReaderLines(reader, this.chunkSize));
+    }
+  }
+
+  /**
+   * Make spliterator of versions parsed from lines of text, it is split by chunks so that it can be used for parallel streams.
+   *
+   * @param text text to be parsed, must not be null
+   * @return ordered spliterator of versions, must not be null
+   * @see java.util.stream.StreamSupport#stream(Spliterator, boolean)
+   * @since 1.0.1
+   */
+  public Spliterator<Version> spliterator(final CharSequence text) {
+    return new ChunkSpliterator(new TextLines(text, this.chunkSize), null, 0, 0, this.errorHandler);
+  }
+
+  /**
+   * Make spliterator of versions parsed from lines of reader, it is split by chunks so that it can be used for parallel streams. Chunks are read from the reader by thread which splits the spliterator. The reader is not closed.
+   *
+   * @param reader reader to be parsed, must not be null
+   * @return ordered spliterator of versions, must not be null, it throws {@link UncheckedIOException} for transport errors
+   * @since 1.0.1
+   */
+  public Spliterator<Version> spliterator(final Reader reader) {
+    final BufferedReader buffered = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    return new ChunkSpliterator(new ReaderLines(buffered, this.chunkSize), null, 0, 0, this.errorHandler);
+  }
+
+  private Version[] parseAll(final Lines lines) throws IOException {
+    final Chunk first = lines.next();
+    if (first == null) {
+      return new Version[0];
+    }
+    final Chunk second = lines.next();
+    if (second == null) {
+      return first.parse(this.errorHandler);
+    }
+
+    final List<ForkJoinTask<Version[]>> tasks = new ArrayList<>();
+    try {
+      Chunk chunk = first;
+      while (chunk != null) {
+        final Chunk current = chunk;
+        tasks.add(this.pool.submit(() -> current.parse(this.errorHandler)));
+        chunk = chunk == first ? second : lines.next();
+      }
+
+      final Version[][] parts = new Version[tasks.size()][];
+      int total = 0;
+      for (int i = 0; i < parts.length; i++) {
+        parts[i] = tasks.get(i).join();
+        total += parts[i].length;
+      }
+      final Version[] result = new Version[total];
+      int offset = 0;
+      for (final Version[] part : parts) {
+        System.arraycopy(part, 0, result, offset, part.length);
+        offset += part.length;
+      }
+      return result;
+    } catch (IOException | RuntimeException ex) {
+      for (final ForkJoinTask<Version[]> task : tasks) {
+        task.cancel(false);
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Lines of text placed in one char sequence, every line is a range of the sequence.
+   */
+  private static final class Chunk {
+
+    private final long firstLine;
+    private final CharSequence text;
+    private final int[] bounds;
+    private final int lines;
+
+    private Chunk(final long firstLine, final CharSequence text, final int[] bounds, final int lines) {
+      this.firstLine = firstLine;
+      this.text = text;
+      this.bounds = bounds;
+      this.lines = lines;
+    }
+
+    private Version parseLine(final int index, final ErrorHandler errorHandler) {
+      final int start = this.bounds[index * 2];
+      final int end = this.bounds[index * 2 + 1];
+      try {
+        return Version.parse(this.text, start, end);
+      } catch (RuntimeException ex) {
+        return errorHandler.onError(this.firstLine + index, this.text.subSequence(start, end).toString(), ex);
+      }
+    }
+
+    private Version[] parse(final ErrorHandler errorHandler) {
+      final Version[] result = new Version[this.lines];
+      int count = 0;
+      for (int i = 0; i < this.lines; i++) {
+        final Version version = this.parseLine(i, errorHandler);
+        if (version != null) {
+          result[count++] = version;
+        }
+      }
+      return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+  }
+
+  /**
+   * Source of line chunks, not thread-safe.
+   */
+  private abstract static class Lines {
+
+    protected final int chunkSize;
+    protected long lineNumber = 1L;
+
+    private Lines(final int chunkSize) {
+      this.chunkSize = chunkSize;
+    }
+
+    abstract Chunk next() throws IOException;
+  }
+
+  private static final class TextLines extends Lines {
+
+    private final CharSequence text;
+    private int position;
+
+    private TextLines(final CharSequence text, final int chunkSize) {
+      super(chunkSize);
+      this.text = text;
+    }
+
+    @Override
+    Chunk next() {
+      final int length = this.text.length();
+      if (this.position >= length) {
+        return null;
+      }
+      int[] bounds = new int[Math.min(this.chunkSize, 1024) * 2];
+      int lines = 0;
+      while (lines < this.chunkSize && this.position < length) {
+        final int start = this.position;
+        int end = start;
+        while (end < length && this.text.charAt(end) != '\n' && this.text.charAt(end) != '\r') {
+          end++;
+        }
+        this.position = end + 1;
+        if (end < length && this.text.charAt(end) == '\r' && this.position < length && this.text.charAt(this.position) == '\n') {
+          this.position++;
+        }
+        if (lines * 2 == bounds.length) {
+          bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[lines * 2] = start;
+        bounds[lines * 2 + 1] = end;
+        lines++;
+      }
+      final Chunk result = new Chunk(this.lineNumber, this.text, bounds, lines);
+      this.lineNumber += lines;
+      return result;
+    }
+  }
+
+  private static final class ReaderLines extends Lines {
+
+    private final BufferedReader reader;
+
+    private ReaderLines(final BufferedReader reader, final int chunkSize) {
+      super(chunkSize);
+      this.reader = reader;
+    }
+
+    @Override
+    Chunk next() throws IOException {
+      final StringBuilder buffer = new StringBuilder();
+      int[] bounds = new int[Math.min(this.chunkSize, 1024) * 2];
+      int lines = 0;
+      String line;
+      while (lines < this.chunkSize && (line = this.reader.readLine()) != null) {
+        if (lines * 2 == bounds.length) {
+          bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[lines * 2] = buffer.length();
+        buffer.append(line);
+        bounds[lines * 2 + 1] = buffer.length();
+        lines++;
+      }
+      final Chunk result = lines == 0 ? null : new Chunk(this.lineNumber, buffer.toString(), bounds, lines);
+      this.lineNumber += lines;
+      return result;
+    }
+  }
+
+  /**
+   * Spliterator reads chunks from source of lines and gives them away during splitting, every chunk is parsed by the thread which consumes it.
+   */
+  private static final class ChunkSpliterator implements Spliterator<Version> {
+
+    private final Lines source;
+    private final ErrorHandler errorHandler;
+    private Chunk chunk;
+    private int index;
+    private int end;
+
+    private ChunkSpliterator(final Lines source, final Chunk chunk, final int index, final int end, final ErrorHandler errorHandler) {
+      this.source = source;
+      this.chunk = chunk;
+      this.index = index;
+      this.end = end;
+      this.errorHandler = errorHandler;
+    }
+
+    private Chunk nextChunk() {
+      try {
+        return this.source == null ? null : this.source.next();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Version> action) {
+      while (true) {
+        if (this.index >= this.end) {
+          this.chunk = this.nextChunk();
+          if (this.chunk == null) {
+            return false;
+          }
+          this.index = 0;
+          this.end = this.chunk.lines;
+        }
+        final Version version = this.chunk.parseLine(this.index++, this.errorHandler);
+        if (version != null) {
+          action.accept(version);
+          return true;
+        }
+      }
+    }
+
+    @Override
+    public Spliterator<Version> trySplit() {
+      final Spliterator<Version> result;
+      if (this.source == null) {
+        if (this.end - this.index < 2) {
+          result = null;
+        } else {
+          final int middle = (this.index + this.end) >>> 1;
+          result = new ChunkSpliterator(null, this.chunk, this.index, middle, this.errorHandler);
+          this.index = middle;
+        }
+      } else if (this.index < this.end) {
+        // the rest of current chunk goes before all other lines
+        result = new ChunkSpliterator(null, this.chunk, this.index, this.end, this.errorHandler);
+        this.index = this.end;
+      } else {
+        final Chunk next = this.nextChunk();
+        result = next == null ? null : new ChunkSpliterator(null, next, 0, next.lines, this.errorHandler);
+      }
+      return result;
+    }
+
+    @Override
+    public long estimateSize() {
+      return this.source == null ? this.end - this.index : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL | IMMUTABLE;
+    }
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe canonicalizing cache of parsed versions. It returns the same instance for the same text and also for texts which are parsed into equal versions, so that memory is shared and comparison by equals can be finished by identity check.
+ *
+ * @see Version#of(String)
+ * @since 1.0.1
+ */
+public abstract class VersionCache {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Only internal implementations are allowed.
+   */
+  VersionCache() {
+  }
+
+  /**
+   * Make cache which keeps limited number of approximately the most recently used texts and versions. Reading from the cache doesn't take locks.
+   *
+   * @param maxEntries max number of texts and versions kept in the cache, must be positive
+   * @return new cache, must not be null
+   * @throws IllegalArgumentException if max number of entries is not positive
+   * @since 1.0.1
+   */
+  public static VersionCache newLruCache(final int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Max entries must be positive : " + maxEntries);
+    }
+    return new LruCache(maxEntries);
+  }
+
+  /**
+   * Make cache which keeps versions through weak references, a version is removed from the cache when it is not referenced anymore from outside.
+   *
+   * @return new cache, must not be null
+   * @since 1.0.1
+   */
+  public static VersionCache newWeakCache() {
+    return new WeakCache();
+  }
+
+  /**
+   * Get canonical version for text. Null is processed as empty text.
+   *
+   * @param text text representation of version, it can be null
+   * @return canonical instance of the parsed version, must not be null
+   * @since 1.0.1
+   */
+  public final Version get(final String text) {
+    final String key = text == null ? "" : text;
+    Version result = this.findByText(key);
+    if (result == null) {
+      this.misses.increment();
+      result = this.store(key, new Version(key));
+    } else {
+      this.hits.increment();
+    }
+    return result;
+  }
+
+  /**
+   * Get number of requests served from the cache.
+   *
+   * @return number of hits
+   * @since 1.0.1
+   */
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Get number of requests which required parsing of text.
+   *
+   * @return number of misses
+   * @since 1.0.1
+   */
+  public long getMissCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Get current number of entries in the cache, every text and every canonical version are counted.
+   *
+   * @return number of entries
+   * @since 1.0.1
+   */
+  public abstract int size();
+
+  /**
+   * Remove all entries from the cache, counters are not changed.
+   *
+   * @since 1.0.1
+   */
+  public abstract void clear();
+
+  abstract Version findByText(String text);
+
+  abstract Version store(String text, Version parsed);
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "[size=" + this.size() + ", hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + ']';
+  }
+
+  /**
+   * Approximate LRU cache made by CLOCK (second chance) algorithm. Reading doesn't take locks and only marks entry as used, a lock is taken to add parsed version and to evict old entries.
+   * A canonical version and all texts parsed into it are kept in one entry and evicted together, so that a text never points to a version which is not canonical anymore.
+   */
+  private static final class LruCache extends VersionCache {
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<Object, Entry> map = new ConcurrentHashMap<>();
+    private final Deque<Entry> queue = new ArrayDeque<>();
+
+    private LruCache(final int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    @Override
+    Version findByText(final String text) {
+      final Entry found = this.map.get(text);
+      Version result = null;
+      if (found != null) {
+        if (!found.used) {
+          found.used = true;
+        }
+        result = found.version;
+      }
+      return result;
+    }
+
+    @Override
+    Version store(final String text, final Version parsed) {
+      synchronized (this.queue) {
+        Entry entry = this.map.get(text);
+        if (entry == null) {
+          entry = this.map.get(parsed);
+          if (entry == null) {
+            entry = new Entry(parsed);
+            this.map.put(parsed, entry);
+            this.queue.addLast(entry);
+          } else {
+            entry.used = true;
+          }
+          this.map.put(text, entry);
+          entry.texts.add(text);
+          this.evict(entry);
+        }
+        return entry.version;
+      }
+    }
+
+    /**
+     * Remove entries over the limit, must be called under lock of queue.
+     *
+     * @param stored entry which has been just stored, it is evicted only if it is the last one
+     */
+    private void evict(final Entry stored) {
+      while (this.map.size() > this.maxEntries) {
+        final Entry eldest = this.queue.pollFirst();
+        if (eldest == null) {
+          break;
+        }
+        if (eldest.used || eldest == stored && !this.queue.isEmpty()) {
+          eldest.used = false;
+          this.queue.addLast(eldest);
+        } else {
+          for (final String text : eldest.texts) {
+            this.map.remove(text, eldest);
+          }
+          this.map.remove(eldest.version, eldest);
+        }
+      }
+    }
+
+    @Override
+    public int size() {
+      return this.map.size();
+    }
+
+    @Override
+    public void clear() {
+      synchronized (this.queue) {
+        this.map.clear();
+        this.queue.clear();
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final Version version;
+    private final List<String> texts = new ArrayList<>(2);
+    private volatile boolean used;
+
+    private Entry(final Version version) {
+      this.version = version;
+    }
+  }
+
+  private static final class WeakCache extends VersionCache {
+
+    private final Map<Object, VersionReference> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Version> queue = new ReferenceQueue<>();
+
+    private void purge() {
+      VersionReference ref;
+      while ((ref = (VersionReference) this.queue.poll()) != null) {
+        this.map.remove(ref.textKey, ref);
+        this.map.remove(ref.versionKey, ref);
+      }
+    }
+
+    @Override
+    Version findByText(final String text) {
+      this.purge();
+      final VersionReference ref = this.map.get(text);
+      return ref == null ? null : ref.get();
+    }
+
+    @Override
+    Version store(final String text, final Version parsed) {
+      this.purge();
+      final VersionKey versionKey = new VersionKey(parsed);
+      while (true) {
+        final VersionReference found = this.map.get(versionKey);
+        final Version canonical = found == null ? null : found.get();
+        if (canonical != null) {
+          this.map.put(text, new VersionReference(canonical, text, found.versionKey, this.queue));
+          return canonical;
+        }
+        final VersionReference ref = new VersionReference(parsed, text, versionKey, this.queue);
+        final boolean stored = found == null ? this.map.putIfAbsent(versionKey, ref) == null : this.map.replace(versionKey, found, ref);
+        if (stored) {
+          this.map.put(text, ref);
+          return parsed;
+        }
+      }
+    }
+
+    @Override
+    public int size() {
+      this.purge();
+      return this.map.size();
+    }
+
+    @Override
+    public void clear() {
+      this.map.clear();
+      this.purge();
+    }
+  }
+
+  private static final class VersionReference extends WeakReference<Version> {
+
+    private final String textKey;
+    private final VersionKey versionKey;
+
+    private VersionReference(final Version version, final String textKey, final VersionKey versionKey, final ReferenceQueue<Version> queue) {
+      super(version, queue);
+      this.textKey = textKey;
+      this.versionKey = versionKey;
+    }
+  }
+
+  /**
+   * Key made from components of a version, it doesn't reference the version so that the version can be collected.
+   */
+  private static final class VersionKey {
+
+    private final String prefix;
+    private final long[] numericParts;
+    private final String postfix;
+    private final int hash;
+
+    private VersionKey(final Version version) {
+      this.prefix = version.getPrefix();
+      this.numericParts = version.getNumericParts();
+      this.postfix = version.getPostfix();
+      this.hash = version.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      boolean result = obj == this;
+      if (!result && obj instanceof VersionKey) {
+        final VersionKey that = (VersionKey) obj;
+        result = this.prefix.equals(that.prefix) && Arrays.equals(this.numericParts, that.numericParts) && this.postfix.equals(that.postfix);
+      }
+      return result;
+    }
+  }
+}
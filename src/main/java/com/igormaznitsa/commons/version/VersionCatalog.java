@@ -0,0 +1,605 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorIntervals;
+import com.igormaznitsa.commons.version.operators.VersionInterval;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only catalog of (artifact, version) entries kept in a memory-mapped file.
+ * Entries are sorted in order of {@link Version#compareTo(Version)} and kept as fixed-width records, every record contains indexes of prefix, postfix and artifact in sorted table of unique strings and numeric parts padded by zeros to the greatest number of parts in the catalog.
+ * Every numeric part column has its own width, it is the smallest number of bytes for the greatest value in the column or 8 bytes if the column contains negative values, so that a single long version adds only narrow columns filled by zeros to other records.
+ * Lookups are made by binary search directly over the mapped buffers, objects are created only for entries which are read by caller.
+ * <pre>
+ * header  : int magic, int format, int entries, int width, int strings, int record size, long strings offset, byte[width] column widths padded to 8 bytes
+ * records : entries * (int prefix, int postfix, int artifact, int number of parts, parts in big-endian columns)
+ * strings : int[strings + 1] offsets of UTF-8 texts, UTF-8 texts
+ * </pre>
+ * The class is thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionCatalog implements Closeable {
+
+  private static final int MAGIC = 0x56434154;
+  private static final int FORMAT = 2;
+  private static final int HEADER_SIZE = 32;
+  private static final int RECORD_HEADER_SIZE = 16;
+
+  private static final Comparator<Map.Entry<String, Version>> ENTRY_ORDER = (a, b) -> {
+    int result = a.getValue().compareTo(b.getValue());
+    if (result == 0) {
+      result = Integer.compare(a.getValue().getNumericPartCount(), b.getValue().getNumericPartCount());
+      if (result == 0) {
+        result = a.getKey().compareTo(b.getKey());
+      }
+    }
+    return result;
+  };
+
+  private final FileChannel channel;
+  private final int size;
+  private final int width;
+  private final int[] columnWidths;
+  private final int[] columnOffsets;
+  private final int recordSize;
+  private final int recordsPerSegment;
+  private final ByteBuffer[] segments;
+  private final int stringCount;
+  private final ByteBuffer stringOffsets;
+  private final ByteBuffer stringBytes;
+
+  private VersionCatalog(final FileChannel channel) throws IOException {
+    this.channel = channel;
+    final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+    if (header.getInt(0) != MAGIC) {
+      throw new StreamCorruptedException("Wrong catalog header");
+    }
+    if (header.getInt(4) != FORMAT) {
+      throw new StreamCorruptedException("Unsupported catalog format : " + header.getInt(4));
+    }
+    this.size = header.getInt(8);
+    this.width = header.getInt(12);
+    this.stringCount = header.getInt(16);
+    this.recordSize = header.getInt(20);
+    final long stringsOffset = header.getLong(24);
+
+    final int headerSize = HEADER_SIZE + alignedColumns(this.width);
+    final ByteBuffer columns = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, this.width);
+    this.columnWidths = new int[this.width];
+    this.columnOffsets = new int[this.width];
+    int columnOffset = RECORD_HEADER_SIZE;
+    for (int i = 0; i < this.width; i++) {
+      this.columnWidths[i] = columns.get(i);
+      this.columnOffsets[i] = columnOffset;
+      columnOffset += this.columnWidths[i];
+    }
+    if (columnOffset != this.recordSize) {
+      throw new StreamCorruptedException("Wrong record size : " + this.recordSize);
+    }
+
+    this.recordsPerSegment = Integer.MAX_VALUE / this.recordSize;
+    final int segmentCount = this.size == 0 ? 0 : (this.size - 1) / this.recordsPerSegment + 1;
+    this.segments = new ByteBuffer[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      final long records = Math.min(this.recordsPerSegment, this.size - (long) i * this.recordsPerSegment);
+      this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, headerSize + (long) i * this.recordsPerSegment * this.recordSize, records * this.recordSize);
+    }
+
+    final long offsetsSize = (this.stringCount + 1L) * 4L;
+    this.stringOffsets = channel.map(FileChannel.MapMode.READ_ONLY, stringsOffset, offsetsSize);
+    this.stringBytes = channel.map(FileChannel.MapMode.READ_ONLY, stringsOffset + offsetsSize, this.stringOffsets.getInt(this.stringCount * 4));
+  }
+
+  /**
+   * Open catalog file.
+   *
+   * @param file catalog file made by {@link #write(Path, Iterable)} or {@link #writeSorted(Path, Iterator)}, must not be null
+   * @return opened catalog, must not be null
+   * @throws IOException if any transport error or wrong file format
+   * @since 1.0.1
+   */
+  public static VersionCatalog open(final Path file) throws IOException {
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new VersionCatalog(channel);
+    } catch (IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  private static int alignedColumns(final int width) {
+    return (width + 7) & ~7;
+  }
+
+  /**
+   * Write catalog file, entries are collected and sorted in heap, so that the method is suitable only for catalogs which can be kept in memory.
+   *
+   * @param file    target file, must not be null, it will be overwritten
+   * @param entries pairs of artifact and version, must not be null and must not contain null keys or values
+   * @throws IOException if any transport error or too big catalog
+   * @see #writeSorted(Path, Iterator)
+   * @since 1.0.1
+   */
+  public static void write(final Path file, final Iterable<? extends Map.Entry<String, Version>> entries) throws IOException {
+    final List<Map.Entry<String, Version>> sorted = new ArrayList<>();
+    for (final Map.Entry<String, Version> entry : entries) {
+      sorted.add(entry);
+    }
+    sorted.sort(ENTRY_ORDER);
+    writeSorted(file, sorted.iterator());
+  }
+
+  /**
+   * Write catalog file from already sorted entries, entries are streamed and only unique strings are kept in heap. Records are collected in temporary file placed near the target file, so that the method needs free disk space about twice the catalog size.
+   * Entries must be sorted by version in order of {@link Version#compareTo(Version)}, then by number of numeric parts and then by artifact, for instance by {@link VersionSorter} for every artifact.
+   *
+   * @param file    target file, must not be null, it will be overwritten
+   * @param entries sorted pairs of artifact and version, must not be null and must not contain null keys or values
+   * @throws IOException              if any transport error or too big catalog
+   * @throws IllegalArgumentException if entries are not sorted
+   * @since 1.0.1
+   */
+  public static void writeSorted(final Path file, final Iterator<? extends Map.Entry<String, Version>> entries) throws IOException {
+    final Path parent = file.toAbsolutePath().getParent();
+    final Path temp = Files.createTempFile(parent, "catalog", ".tmp");
+    try {
+      final Map<String, Integer> ids = new HashMap<>();
+      final List<String> strings = new ArrayList<>();
+      long[] columnMax = new long[0];
+      int width = 0;
+      long count = 0L;
+
+      try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+        Map.Entry<String, Version> previous = null;
+        while (entries.hasNext()) {
+          final Map.Entry<String, Version> entry = entries.next();
+          if (previous != null && ENTRY_ORDER.compare(previous, entry) > 0) {
+            throw new IllegalArgumentException("Entries are not sorted : " + previous + " > " + entry);
+          }
+          previous = entry;
+
+          final Version version = entry.getValue();
+          final long[] parts = version.getNumericParts();
+          if (parts.length > columnMax.length) {
+            columnMax = Arrays.copyOf(columnMax, parts.length);
+          }
+          width = Math.max(width, parts.length);
+          for (int i = 0; i < parts.length; i++) {
+            columnMax[i] = parts[i] < 0L || columnMax[i] < 0L ? -1L : Math.max(columnMax[i], parts[i]);
+          }
+
+          out.writeInt(idOf(ids, strings, version.getPrefix()));
+          out.writeInt(idOf(ids, strings, version.getPostfix()));
+          out.writeInt(idOf(ids, strings, entry.getKey()));
+          out.writeInt(parts.length);
+          for (final long part : parts) {
+            out.writeLong(part);
+          }
+          count++;
+        }
+      }
+      if (count > Integer.MAX_VALUE) {
+        throw new IOException("Too many entries : " + count);
+      }
+
+      final String[] sortedStrings = strings.toArray(new String[0]);
+      Arrays.sort(sortedStrings);
+      final int[] remap = new int[sortedStrings.length];
+      final byte[][] texts = new byte[sortedStrings.length][];
+      long textSize = 0L;
+      for (int i = 0; i < sortedStrings.length; i++) {
+        remap[ids.get(sortedStrings[i])] = i;
+        texts[i] = sortedStrings[i].getBytes(StandardCharsets.UTF_8);
+        textSize += texts[i].length;
+      }
+      if (textSize > Integer.MAX_VALUE) {
+        throw new IOException("Too big string table : " + textSize);
+      }
+
+      final int[] columnWidths = new int[width];
+      int recordSize = RECORD_HEADER_SIZE;
+      for (int i = 0; i < width; i++) {
+        columnWidths[i] = columnMax[i] < 0L ? 8 : (64 - Long.numberOfLeadingZeros(columnMax[i]) + 7) / 8;
+        recordSize += columnWidths[i];
+      }
+      final long headerSize = HEADER_SIZE + alignedColumns(width);
+
+      try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(temp), 1 << 16));
+           final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeInt((int) count);
+        out.writeInt(width);
+        out.writeInt(texts.length);
+        out.writeInt(recordSize);
+        out.writeLong(headerSize + count * recordSize);
+        for (int i = 0; i < alignedColumns(width); i++) {
+          out.writeByte(i < width ? columnWidths[i] : 0);
+        }
+
+        for (long i = 0L; i < count; i++) {
+          out.writeInt(remap[in.readInt()]);
+          out.writeInt(remap[in.readInt()]);
+          out.writeInt(remap[in.readInt()]);
+          final int parts = in.readInt();
+          out.writeInt(parts);
+          for (int c = 0; c < width; c++) {
+            final long part = c < parts ? in.readLong() : 0L;
+            for (int b = columnWidths[c] - 1; b >= 0; b--) {
+              out.writeByte((int) (part >>> (b * 8)));
+            }
+          }
+        }
+
+        int offset = 0;
+        out.writeInt(offset);
+        for (final byte[] text : texts) {
+          offset += text.length;
+          out.writeInt(offset);
+        }
+        for (final byte[] text : texts) {
+          out.write(text);
+        }
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static int idOf(final Map<String, Integer> ids, final List<String> strings, final String text) {
+    Integer result = ids.get(text);
+    if (result == null) {
+      result = strings.size();
+      ids.put(text, result);
+      strings.add(text);
+    }
+    return result;
+  }
+
+  /**
+   * Get number of entries.
+   *
+   * @return number of entries in the catalog
+   * @since 1.0.1
+   */
+  public int size() {
+    return this.size;
+  }
+
+  private void checkIndex(final int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index : " + index);
+    }
+  }
+
+  private ByteBuffer segmentOf(final int index) {
+    return this.segments[index / this.recordsPerSegment];
+  }
+
+  private int offsetOf(final int index) {
+    return (index % this.recordsPerSegment) * this.recordSize;
+  }
+
+  private long partAt(final ByteBuffer segment, final int offset, final int column) {
+    final int position = offset + this.columnOffsets[column];
+    final int bytes = this.columnWidths[column];
+    long result;
+    if (bytes == 8) {
+      result = segment.getLong(position);
+    } else {
+      result = 0L;
+      for (int i = 0; i < bytes; i++) {
+        result = (result << 8) | (segment.get(position + i) & 0xFFL);
+      }
+    }
+    return result;
+  }
+
+  private String stringAt(final int id) {
+    final int start = this.stringOffsets.getInt(id * 4);
+    final int end = this.stringOffsets.getInt(id * 4 + 4);
+    final byte[] bytes = new byte[end - start];
+    final ByteBuffer view = this.stringBytes.duplicate();
+    view.position(start);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Get artifact of entry.
+   *
+   * @param index position of entry in the catalog
+   * @return the artifact, must not be null
+   * @throws IndexOutOfBoundsException if there is no such position
+   * @since 1.0.1
+   */
+  public String getArtifact(final int index) {
+    this.checkIndex(index);
+    return this.stringAt(this.segmentOf(index).getInt(this.offsetOf(index) + 8));
+  }
+
+  /**
+   * Get version of entry.
+   *
+   * @param index position of entry in the catalog
+   * @return the version, must not be null
+   * @throws IndexOutOfBoundsException if there is no such position
+   * @since 1.0.1
+   */
+  public Version getVersion(final int index) {
+    this.checkIndex(index);
+    final ByteBuffer segment = this.segmentOf(index);
+    final int offset = this.offsetOf(index);
+    final long[] parts = new long[segment.getInt(offset + 12)];
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = this.partAt(segment, offset, i);
+    }
+    return Version.makeRaw(this.stringAt(segment.getInt(offset)), parts, this.stringAt(segment.getInt(offset + 4)));
+  }
+
+  /**
+   * Get entry.
+   *
+   * @param index position of entry in the catalog
+   * @return pair of artifact and version, must not be null
+   * @throws IndexOutOfBoundsException if there is no such position
+   * @since 1.0.1
+   */
+  public Map.Entry<String, Version> get(final int index) {
+    return new AbstractMap.SimpleImmutableEntry<>(this.getArtifact(index), this.getVersion(index));
+  }
+
+  /**
+   * Compare string of the table with text in order of {@link String#compareTo(String)} without decoding the string, UTF-8 bytes are decoded char by char over the mapped table.
+   */
+  private int compareString(final int id, final String text) {
+    final int end = this.stringOffsets.getInt(id * 4 + 4);
+    int position = this.stringOffsets.getInt(id * 4);
+    int index = 0;
+    int result = 0;
+    while (result == 0 && position < end && index < text.length()) {
+      final int first = this.stringBytes.get(position) & 0xFF;
+      final int codePoint;
+      if (first < 0x80) {
+        codePoint = first;
+        position++;
+      } else if (first < 0xE0) {
+        codePoint = (first & 0x1F) << 6 | this.stringBytes.get(position + 1) & 0x3F;
+        position += 2;
+      } else if (first < 0xF0) {
+        codePoint = (first & 0x0F) << 12 | (this.stringBytes.get(position + 1) & 0x3F) << 6 | this.stringBytes.get(position + 2) & 0x3F;
+        position += 3;
+      } else {
+        codePoint = (first & 0x07) << 18 | (this.stringBytes.get(position + 1) & 0x3F) << 12 | (this.stringBytes.get(position + 2) & 0x3F) << 6 | this.stringBytes.get(position + 3) & 0x3F;
+        position += 4;
+      }
+      if (Character.isBmpCodePoint(codePoint)) {
+        result = Character.compare((char) codePoint, text.charAt(index++));
+      } else {
+        result = Character.compare(Character.highSurrogate(codePoint), text.charAt(index++));
+        if (result == 0) {
+          result = index < text.length() ? Character.compare(Character.lowSurrogate(codePoint), text.charAt(index++)) : 1;
+        }
+      }
+    }
+    if (result == 0) {
+      result = position < end ? 1 : index < text.length() ? -1 : 0;
+    }
+    return result;
+  }
+
+  /**
+   * Rank of string in the table, for not presented string it is position between table strings, so that ranks have the same order as strings.
+   */
+  private int rankOf(final String text) {
+    int low = 0;
+    int high = this.stringCount - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final int compare = this.compareString(middle, text);
+      if (compare < 0) {
+        low = middle + 1;
+      } else if (compare > 0) {
+        high = middle - 1;
+      } else {
+        return middle * 2 + 1;
+      }
+    }
+    return low * 2;
+  }
+
+  private int compareAt(final int index, final int prefixRank, final long[] parts, final int postfixRank) {
+    final ByteBuffer segment = this.segmentOf(index);
+    final int offset = this.offsetOf(index);
+    int result = Integer.compare(segment.getInt(offset) * 2 + 1, prefixRank);
+    if (result == 0) {
+      final int max = Math.max(this.width, parts.length);
+      for (int i = 0; i < max && result == 0; i++) {
+        result = Long.compare(i < this.width ? this.partAt(segment, offset, i) : 0L, i < parts.length ? parts[i] : 0L);
+      }
+      if (result == 0) {
+        result = Integer.compare(segment.getInt(offset + 4) * 2 + 1, postfixRank);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the first position where the stored version is greater than the version or, if inclusive, not less than it.
+   */
+  private int search(final Version version, final boolean inclusive) {
+    final int prefixRank = this.rankOf(version.getPrefix());
+    final int postfixRank = this.rankOf(version.getPostfix());
+    final long[] parts = version.getNumericParts();
+    int low = 0;
+    int high = this.size;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      final int compare = this.compareAt(middle, prefixRank, parts, postfixRank);
+      if (compare < 0 || (compare == 0 && !inclusive)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Find all entries which versions are accepted by validator.
+   *
+   * @param validator the validator, must not be null
+   * @return list of found entries sorted by version, must not be null
+   * @see #select(Operator)
+   * @since 1.0.1
+   */
+  public List<Map.Entry<String, Version>> select(final VersionValidator validator) {
+    return this.select(validator.getExpressionRoot());
+  }
+
+  /**
+   * Find all entries which versions are accepted by operator. If the operator can be presented as version intervals then only bounds of found ranges are looked up, and entries of the returned list are read from the file only when they are requested.
+   *
+   * @param operator the operator, it can be null
+   * @return list of found entries sorted by version, empty for null operator
+   * @since 1.0.1
+   */
+  public List<Map.Entry<String, Version>> select(final Operator operator) {
+    final int[] ranges;
+    if (operator == null) {
+      ranges = new int[0];
+    } else {
+      final List<VersionInterval> intervals = OperatorIntervals.toIntervals(operator);
+      if (intervals == null) {
+        ranges = this.scan(operator);
+      } else {
+        final int[] found = new int[intervals.size() * 2];
+        int count = 0;
+        for (final VersionInterval interval : intervals) {
+          final int start = interval.getLower() == null ? 0 : this.search(interval.getLower(), interval.isLowerInclusive());
+          final int end = interval.getUpper() == null ? this.size : this.search(interval.getUpper(), !interval.isUpperInclusive());
+          if (start < end) {
+            found[count++] = start;
+            found[count++] = end;
+          }
+        }
+        ranges = Arrays.copyOf(found, count);
+      }
+    }
+    return new Selection(ranges);
+  }
+
+  /**
+   * Count entries which versions are accepted by validator without reading them.
+   *
+   * @param validator the validator, must not be null
+   * @return number of accepted entries
+   * @since 1.0.1
+   */
+  public int count(final VersionValidator validator) {
+    return this.select(validator).size();
+  }
+
+  private int[] scan(final Operator operator) {
+    int[] result = new int[16];
+    int count = 0;
+    for (int i = 0; i < this.size; i++) {
+      if (operator.isValid(this.getVersion(i))) {
+        if (count > 0 && result[count - 1] == i) {
+          result[count - 1] = i + 1;
+        } else {
+          if (count == result.length) {
+            result = Arrays.copyOf(result, count * 2);
+          }
+          result[count++] = i;
+          result[count++] = i + 1;
+        }
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Close the catalog file. Mapped buffers are released by garbage collector, so the catalog must not be used after closing.
+   *
+   * @throws IOException if any transport error
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * List of entries over ranges of catalog positions, every range is pair of inclusive start and exclusive end.
+   */
+  private final class Selection extends AbstractList<Map.Entry<String, Version>> {
+
+    private final int[] ranges;
+    private final int[] before;
+
+    private Selection(final int[] ranges) {
+      this.ranges = ranges;
+      this.before = new int[ranges.length / 2 + 1];
+      for (int i = 0; i < ranges.length; i += 2) {
+        this.before[i / 2 + 1] = this.before[i / 2] + ranges[i + 1] - ranges[i];
+      }
+    }
+
+    @Override
+    public Map.Entry<String, Version> get(final int index) {
+      if (index < 0 || index >= this.size()) {
+        throw new IndexOutOfBoundsException("Index : " + index);
+      }
+      // ranges are never empty so that counts are strictly increasing
+      int range = Arrays.binarySearch(this.before, index);
+      if (range < 0) {
+        range = -range - 2;
+      }
+      return VersionCatalog.this.get(this.ranges[range * 2] + index - this.before[range]);
+    }
+
+    @Override
+    public int size() {
+      return this.before[this.before.length - 1];
+    }
+  }
+}
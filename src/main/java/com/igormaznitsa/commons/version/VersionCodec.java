@@ -0,0 +1,503 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorConstant;
+import com.igormaznitsa.commons.version.operators.OperatorIntervals;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
+import com.igormaznitsa.commons.version.operators.VersionInterval;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for versions, operator trees and validators.
+ * <ul>
+ * <li>numeric parts are written as unsigned variable-length integers, 7 bits per byte</li>
+ * <li>prefixes and postfixes are written through a string dictionary, the first occurrence of a string is written as UTF-8 text and later ones as index in the dictionary</li>
+ * <li>operator trees are written in pre-order, every node starts with a tag byte, AND and OR nodes are followed by number of operands</li>
+ * </ul>
+ * Every call of static methods uses its own dictionary, {@link VersionWriter} and {@link VersionReader} share one dictionary for whole stream.
+ *
+ * @since 1.0.1
+ */
+public final class VersionCodec {
+
+  private static final int TAG_NULL = 0;
+  private static final int TAG_AND = 1;
+  private static final int TAG_OR = 2;
+  private static final int TAG_LEAF = 3;
+  private static final int TAG_INTERVALS = 4;
+  private static final int TAG_TRUE = 5;
+  private static final int TAG_FALSE = 6;
+
+  private static final int FLAG_LOWER = 1;
+  private static final int FLAG_LOWER_INCLUSIVE = 2;
+  private static final int FLAG_UPPER = 4;
+  private static final int FLAG_UPPER_INCLUSIVE = 8;
+
+  /**
+   * Max number of array elements allocated before they are read, lengths from stream can be corrupted so that bigger arrays grow while elements are read.
+   */
+  private static final int READ_CHUNK = 1024;
+
+  private static final Condition[] CONDITIONS = Condition.values();
+
+  /**
+   * Marker of null child because {@link ArrayDeque} doesn't allow null elements.
+   */
+  private static final Operator NULL_OPERATOR = version -> false;
+
+  private final Map<String, Integer> writeDictionary = new HashMap<>();
+  private final List<String> readDictionary = new ArrayList<>();
+
+  /**
+   * Only internal instances keep dictionaries of streams.
+   */
+  VersionCodec() {
+  }
+
+  /**
+   * Write version.
+   *
+   * @param out     target output, must not be null
+   * @param version version to be written, must not be null
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public static void write(final DataOutput out, final Version version) throws IOException {
+    new VersionCodec().writeVersion(out, version);
+  }
+
+  /**
+   * Read version written by {@link #write(DataOutput, Version)}.
+   *
+   * @param in source input, must not be null
+   * @return read version, must not be null
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public static Version readVersion(final DataInput in) throws IOException {
+    return new VersionCodec().readVersion(in, in.readUnsignedByte());
+  }
+
+  /**
+   * Write operator tree.
+   *
+   * @param out      target output, must not be null
+   * @param operator root of operator tree, it can be null
+   * @throws IOException              if any transport error
+   * @throws IllegalArgumentException if the tree contains unsupported operator
+   * @since 1.0.1
+   */
+  public static void write(final DataOutput out, final Operator operator) throws IOException {
+    new VersionCodec().writeOperator(out, operator);
+  }
+
+  /**
+   * Read operator tree written by {@link #write(DataOutput, Operator)}.
+   *
+   * @param in source input, must not be null
+   * @return root of read operator tree, it can be null
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public static Operator readOperator(final DataInput in) throws IOException {
+    return new VersionCodec().readOperatorTree(in);
+  }
+
+  /**
+   * Write validator as its expression tree.
+   *
+   * @param out       target output, must not be null
+   * @param validator validator to be written, must not be null
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public static void write(final DataOutput out, final VersionValidator validator) throws IOException {
+    write(out, validator.getExpressionRoot());
+  }
+
+  /**
+   * Read validator written by {@link #write(DataOutput, VersionValidator)}.
+   *
+   * @param in source input, must not be null
+   * @return read validator, must not be null
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public static VersionValidator readValidator(final DataInput in) throws IOException {
+    return new VersionValidator(readOperator(in));
+  }
+
+  /**
+   * Write version into buffer from its current position.
+   *
+   * @param buffer  target buffer, must not be null
+   * @param version version to be written, must not be null
+   * @throws java.nio.BufferOverflowException if there is no enough space in the buffer
+   * @since 1.0.1
+   */
+  public static void write(final ByteBuffer buffer, final Version version) {
+    try {
+      write(new DataOutputStream(new BufferOutputStream(buffer)), version);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unexpected IO exception", ex);
+    }
+  }
+
+  /**
+   * Read version from buffer from its current position.
+   *
+   * @param buffer source buffer, must not be null
+   * @return read version, must not be null
+   * @throws java.nio.BufferUnderflowException if there is no enough data in the buffer
+   * @throws IllegalArgumentException          if wrong data format
+   * @since 1.0.1
+   */
+  public static Version readVersion(final ByteBuffer buffer) {
+    try {
+      return readVersion(new DataInputStream(new BufferInputStream(buffer)));
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Wrong data format", ex);
+    }
+  }
+
+  /**
+   * Write operator tree into buffer from its current position.
+   *
+   * @param buffer   target buffer, must not be null
+   * @param operator root of operator tree, it can be null
+   * @throws java.nio.BufferOverflowException if there is no enough space in the buffer
+   * @since 1.0.1
+   */
+  public static void write(final ByteBuffer buffer, final Operator operator) {
+    try {
+      write(new DataOutputStream(new BufferOutputStream(buffer)), operator);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unexpected IO exception", ex);
+    }
+  }
+
+  /**
+   * Read operator tree from buffer from its current position.
+   *
+   * @param buffer source buffer, must not be null
+   * @return root of read operator tree, it can be null
+   * @throws java.nio.BufferUnderflowException if there is no enough data in the buffer
+   * @throws IllegalArgumentException          if wrong data format
+   * @since 1.0.1
+   */
+  public static Operator readOperator(final ByteBuffer buffer) {
+    try {
+      return readOperator(new DataInputStream(new BufferInputStream(buffer)));
+    } catch (IOException ex) {
+      throw new IllegalArgumentException("Wrong data format", ex);
+    }
+  }
+
+  static void writeVarLong(final DataOutput out, final long value) throws IOException {
+    long rest = value;
+    while ((rest & ~0x7FL) != 0L) {
+      out.writeByte((int) (rest & 0x7FL) | 0x80);
+      rest >>>= 7;
+    }
+    out.writeByte((int) rest);
+  }
+
+  static long readVarLong(final DataInput in, final int firstByte) throws IOException {
+    long result = firstByte & 0x7FL;
+    int current = firstByte;
+    int shift = 7;
+    while ((current & 0x80) != 0) {
+      if (shift > 63) {
+        throw new StreamCorruptedException("Too long variable-length number");
+      }
+      current = in.readUnsignedByte();
+      result |= (current & 0x7FL) << shift;
+      shift += 7;
+    }
+    return result;
+  }
+
+  private static int readVarInt(final DataInput in, final int firstByte) throws IOException {
+    final long result = readVarLong(in, firstByte);
+    if (result > Integer.MAX_VALUE) {
+      throw new StreamCorruptedException("Too big number : " + result);
+    }
+    return (int) result;
+  }
+
+  /**
+   * String reference: 0 is empty string, odd value is new string which text follows, even value is index of known string plus one multiplied by two.
+   */
+  private void writeString(final DataOutput out, final String text) throws IOException {
+    if (text.isEmpty()) {
+      out.writeByte(0);
+    } else {
+      final Integer index = this.writeDictionary.get(text);
+      if (index == null) {
+        this.writeDictionary.put(text, this.writeDictionary.size());
+        out.writeByte(1);
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+      } else {
+        writeVarLong(out, (index + 1L) << 1);
+      }
+    }
+  }
+
+  private String readString(final DataInput in, final int firstByte) throws IOException {
+    final int reference = readVarInt(in, firstByte);
+    final String result;
+    if (reference == 0) {
+      result = "";
+    } else if ((reference & 1) != 0) {
+      final int length = readVarInt(in, in.readUnsignedByte());
+      byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+      for (int read = 0; read < length; ) {
+        if (read == bytes.length) {
+          bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+        }
+        in.readFully(bytes, read, bytes.length - read);
+        read = bytes.length;
+      }
+      result = new String(bytes, StandardCharsets.UTF_8);
+      this.readDictionary.add(result);
+    } else {
+      final int index = (reference >>> 1) - 1;
+      if (index >= this.readDictionary.size()) {
+        throw new StreamCorruptedException("Unknown string index : " + index);
+      }
+      result = this.readDictionary.get(index);
+    }
+    return result;
+  }
+
+  void writeVersion(final DataOutput out, final Version version) throws IOException {
+    final long[] parts = version.getNumericParts();
+    this.writeString(out, version.getPrefix());
+    writeVarLong(out, parts.length);
+    for (final long part : parts) {
+      writeVarLong(out, part);
+    }
+    this.writeString(out, version.getPostfix());
+  }
+
+  Version readVersion(final DataInput in, final int firstByte) throws IOException {
+    final String prefix = this.readString(in, firstByte);
+    final int count = readVarInt(in, in.readUnsignedByte());
+    long[] parts = new long[Math.min(count, READ_CHUNK)];
+    for (int i = 0; i < count; i++) {
+      if (i == parts.length) {
+        parts = Arrays.copyOf(parts, (int) Math.min(count, parts.length * 2L));
+      }
+      parts[i] = readVarLong(in, in.readUnsignedByte());
+    }
+    final String postfix = this.readString(in, in.readUnsignedByte());
+    return Version.makeRaw(prefix, parts, postfix);
+  }
+
+  private void writeOptionalVersion(final DataOutput out, final Version version) throws IOException {
+    if (version != null) {
+      this.writeVersion(out, version);
+    }
+  }
+
+  void writeOperator(final DataOutput out, final Operator root) throws IOException {
+    final Deque<Operator> stack = new ArrayDeque<>();
+    Operator next = root;
+    while (true) {
+      if (next == null) {
+        out.writeByte(TAG_NULL);
+      } else if (next instanceof OperatorAnd) {
+        out.writeByte(TAG_AND);
+        pushOperands(out, ((OperatorAnd) next).getOperands(), stack);
+      } else if (next instanceof OperatorOr) {
+        out.writeByte(TAG_OR);
+        pushOperands(out, ((OperatorOr) next).getOperands(), stack);
+      } else if (next instanceof OperatorLeaf) {
+        final OperatorLeaf leaf = (OperatorLeaf) next;
+        out.writeByte(TAG_LEAF);
+        out.writeByte(leaf.getCondition().ordinal());
+        this.writeVersion(out, leaf.getBase());
+      } else if (next instanceof OperatorIntervals) {
+        final List<VersionInterval> intervals = ((OperatorIntervals) next).getIntervals();
+        out.writeByte(TAG_INTERVALS);
+        writeVarLong(out, intervals.size());
+        for (final VersionInterval interval : intervals) {
+          out.writeByte((interval.getLower() == null ? 0 : FLAG_LOWER) | (interval.isLowerInclusive() ? FLAG_LOWER_INCLUSIVE : 0)
+              | (interval.getUpper() == null ? 0 : FLAG_UPPER) | (interval.isUpperInclusive() ? FLAG_UPPER_INCLUSIVE : 0));
+          this.writeOptionalVersion(out, interval.getLower());
+          this.writeOptionalVersion(out, interval.getUpper());
+        }
+      } else if (next instanceof OperatorConstant) {
+        out.writeByte(next == OperatorConstant.TRUE ? TAG_TRUE : TAG_FALSE);
+      } else if (next != NULL_OPERATOR) {
+        throw new IllegalArgumentException("Unsupported operator : " + next.getClass().getName());
+      } else {
+        out.writeByte(TAG_NULL);
+      }
+      if (stack.isEmpty()) {
+        break;
+      }
+      next = stack.pop();
+    }
+  }
+
+  private static void pushOperands(final DataOutput out, final List<Operator> operands, final Deque<Operator> stack) throws IOException {
+    writeVarLong(out, operands.size());
+    for (int i = operands.size() - 1; i >= 0; i--) {
+      final Operator operand = operands.get(i);
+      stack.push(operand == null ? NULL_OPERATOR : operand);
+    }
+  }
+
+  Operator readOperatorTree(final DataInput in) throws IOException {
+    final Deque<Frame> stack = new ArrayDeque<>();
+    while (true) {
+      final int tag = in.readUnsignedByte();
+      Operator value;
+      switch (tag) {
+        case TAG_NULL:
+          value = null;
+          break;
+        case TAG_AND:
+        case TAG_OR: {
+          final int count = readVarInt(in, in.readUnsignedByte());
+          if (count < 2) {
+            throw new StreamCorruptedException("Wrong number of operands : " + count);
+          }
+          stack.push(new Frame(tag, count));
+        }
+        continue;
+        case TAG_LEAF: {
+          final int condition = in.readUnsignedByte();
+          if (condition >= CONDITIONS.length) {
+            throw new StreamCorruptedException("Unknown condition : " + condition);
+          }
+          value = new OperatorLeaf(CONDITIONS[condition], this.readVersion(in, in.readUnsignedByte()));
+        }
+        break;
+        case TAG_INTERVALS: {
+          final int size = readVarInt(in, in.readUnsignedByte());
+          final List<VersionInterval> intervals = new ArrayList<>(Math.min(size, READ_CHUNK));
+          for (int i = 0; i < size; i++) {
+            final int flags = in.readUnsignedByte();
+            final Version lower = (flags & FLAG_LOWER) == 0 ? null : this.readVersion(in, in.readUnsignedByte());
+            final Version upper = (flags & FLAG_UPPER) == 0 ? null : this.readVersion(in, in.readUnsignedByte());
+            intervals.add(new VersionInterval(lower, (flags & FLAG_LOWER_INCLUSIVE) != 0, upper, (flags & FLAG_UPPER_INCLUSIVE) != 0));
+          }
+          value = OperatorIntervals.of(intervals);
+        }
+        break;
+        case TAG_TRUE:
+          value = OperatorConstant.TRUE;
+          break;
+        case TAG_FALSE:
+          value = OperatorConstant.FALSE;
+          break;
+        default:
+          throw new StreamCorruptedException("Unknown operator tag : " + tag);
+      }
+
+      while (true) {
+        final Frame frame = stack.peek();
+        if (frame == null) {
+          return value;
+        }
+        frame.operands.add(value);
+        if (frame.operands.size() < frame.count) {
+          break;
+        }
+        stack.pop();
+        value = frame.tag == TAG_AND ? new OperatorAnd(frame.operands) : new OperatorOr(frame.operands);
+      }
+    }
+  }
+
+  private static final class Frame {
+
+    private final int tag;
+    private final int count;
+    private final List<Operator> operands;
+
+    private Frame(final int tag, final int count) {
+      this.tag = tag;
+      this.count = count;
+      this.operands = new ArrayList<>(Math.min(count, READ_CHUNK));
+    }
+  }
+
+  private static final class BufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    private BufferOutputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(final int value) {
+      this.buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(final byte[] array, final int offset, final int length) {
+      this.buffer.put(array, offset, length);
+    }
+  }
+
+  private static final class BufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private BufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return this.buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] array, final int offset, final int length) {
+      this.buffer.get(array, offset, length);
+      return length;
+    }
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Byte-comparable sort keys of versions. Unsigned lexicographic comparison of keys gives the same order as {@link Version#compareTo(Version)}, versions which are compared as equal ones (like 1.0 and 1) have equal keys.
+ * No key is prefix of another key, so that keys can be concatenated with other keys and they can be compared as arrays of big-endian longs padded by zeros.
+ * <p>
+ * Key format:
+ * <ul>
+ * <li>prefix, every char is one byte {@code char+1} for chars less than {@code 0x7F} or three bytes {@code 0x80|char>>12, char>>6&0x3F, char&0x3F} for other chars, then {@code 0x00}</li>
+ * <li>numeric parts without trailing zeros, zero parts are counted and placed into the next not-zero part:
+ * <ul>
+ * <li>negative part: {@code 0x01}, number of zeros before it (4 bytes), the part with inverted sign bit (8 bytes)</li>
+ * <li>positive part after zeros: {@code 0x03}, inverted number of zeros before it (4 bytes), number of bytes {@code N} (1 byte), the part (N bytes)</li>
+ * <li>positive part without zeros before it: {@code 0x03+N}, the part (N bytes)</li>
+ * </ul>
+ * then {@code 0x02}</li>
+ * <li>postfix in the same format as prefix</li>
+ * </ul>
+ * All numbers are big-endian.
+ *
+ * @since 1.0.1
+ */
+public final class VersionKeys {
+
+  /**
+   * Comparator of keys made by {@link #toBytes(Version)}.
+   *
+   * @since 1.0.1
+   */
+  public static final Comparator<byte[]> BYTES_ORDER = VersionKeys::compare;
+
+  /**
+   * Comparator of keys made by {@link #toLongs(Version)}.
+   *
+   * @since 1.0.1
+   */
+  public static final Comparator<long[]> LONGS_ORDER = VersionKeys::compare;
+
+  private static final int TEXT_END = 0x00;
+  private static final int NEGATIVE = 0x01;
+  private static final int NUMBERS_END = 0x02;
+  private static final int POSITIVE_AFTER_ZEROS = 0x03;
+
+  private VersionKeys() {
+  }
+
+  /**
+   * Make byte-comparable key of version.
+   *
+   * @param version the version, must not be null
+   * @return key of the version, must not be null
+   * @since 1.0.1
+   */
+  public static byte[] toBytes(final Version version) {
+    final Buffer buffer = new Buffer(version.getPrefix().length() + version.getPostfix().length() + version.getNumericPartCount() * 3 + 4);
+    writeText(buffer, version.getPrefix());
+
+    final long[] parts = version.getNumericParts();
+    int length = parts.length;
+    while (length > 0 && parts[length - 1] == 0L) {
+      length--;
+    }
+    int zeros = 0;
+    for (int i = 0; i < length; i++) {
+      final long part = parts[i];
+      if (part == 0L) {
+        zeros++;
+      } else {
+        if (part < 0L) {
+          buffer.write(NEGATIVE);
+          buffer.writeBytes(zeros, 4);
+          buffer.writeBytes(part ^ Long.MIN_VALUE, 8);
+        } else {
+          final int size = 8 - Long.numberOfLeadingZeros(part) / 8;
+          if (zeros == 0) {
+            buffer.write(POSITIVE_AFTER_ZEROS + size);
+          } else {
+            buffer.write(POSITIVE_AFTER_ZEROS);
+            buffer.writeBytes(~zeros, 4);
+            buffer.write(size);
+          }
+          buffer.writeBytes(part, size);
+        }
+        zeros = 0;
+      }
+    }
+    buffer.write(NUMBERS_END);
+
+    writeText(buffer, version.getPostfix());
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Make key of version as array of longs, it is the byte key packed into big-endian longs and padded by zeros.
+   *
+   * @param version the version, must not be null
+   * @return key of the version, must not be null
+   * @see #toBytes(Version)
+   * @since 1.0.1
+   */
+  public static long[] toLongs(final Version version) {
+    final byte[] bytes = toBytes(version);
+    final long[] result = new long[(bytes.length + 7) / 8];
+    for (int i = 0; i < bytes.length; i++) {
+      result[i >> 3] |= (bytes[i] & 0xFFL) << (56 - ((i & 7) << 3));
+    }
+    return result;
+  }
+
+  /**
+   * Compare two keys as unsigned bytes in lexicographic order.
+   *
+   * @param a the first key, must not be null
+   * @param b the second key, must not be null
+   * @return negative value, zero or positive value if the first key is less, equal or greater than the second one
+   * @since 1.0.1
+   */
+  public static int compare(final byte[] a, final byte[] b) {
+    final int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      if (a[i] != b[i]) {
+        return (a[i] & 0xFF) - (b[i] & 0xFF);
+      }
+    }
+    return a.length - b.length;
+  }
+
+  /**
+   * Compare two keys as unsigned longs in lexicographic order.
+   *
+   * @param a the first key, must not be null
+   * @param b the second key, must not be null
+   * @return negative value, zero or positive value if the first key is less, equal or greater than the second one
+   * @since 1.0.1
+   */
+  public static int compare(final long[] a, final long[] b) {
+    final int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      if (a[i] != b[i]) {
+        return Long.compareUnsigned(a[i], b[i]);
+      }
+    }
+    return Integer.compare(a.length, b.length);
+  }
+
+  private static void writeText(final Buffer buffer, final String text) {
+    for (int i = 0; i < text.length(); i++) {
+      final char chr = text.charAt(i);
+      if (chr < 0x7F) {
+        buffer.write(chr + 1);
+      } else {
+        buffer.write(0x80 | (chr >> 12));
+        buffer.write((chr >> 6) & 0x3F);
+        buffer.write(chr & 0x3F);
+      }
+    }
+    buffer.write(TEXT_END);
+  }
+
+  private static final class Buffer {
+
+    private byte[] data;
+    private int size;
+
+    private Buffer(final int capacity) {
+      this.data = new byte[Math.max(capacity, 16)];
+    }
+
+    private void write(final int value) {
+      if (this.size == this.data.length) {
+        this.data = Arrays.copyOf(this.data, this.data.length * 2);
+      }
+      this.data[this.size++] = (byte) value;
+    }
+
+    private void writeBytes(final long value, final int bytes) {
+      for (int i = bytes - 1; i >= 0; i--) {
+        this.write((int) (value >>> (i * 8)));
+      }
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(this.data, this.size);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.util.Arrays;
+
+/**
+ * Reusable mutable parse target for hot loops where parsed versions are only checked and dropped. Text is parsed by the same rules as {@link Version#Version(String)}, numeric parts are kept in an internal buffer and prefix and postfix are kept as ranges of the source text, so that parsing and checking by {@link VersionValidator#isValid(VersionView)} don't make garbage.
+ * The source text is referenced by the parser and must not be changed until the next parsing. The buffer grows if a version contains more numeric parts than its capacity. The class is not thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionParser implements VersionView {
+
+  /**
+   * Default capacity of the numeric part buffer.
+   *
+   * @since 1.0.1
+   */
+  public static final int DEFAULT_CAPACITY = 8;
+
+  private final TextRange prefix = new TextRange();
+  private final TextRange postfix = new TextRange();
+  private long[] parts;
+  private int partCount;
+
+  /**
+   * Constructor of parser with default capacity.
+   *
+   * @since 1.0.1
+   */
+  public VersionParser() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param capacity initial capacity of the numeric part buffer, must not be negative
+   * @throws IllegalArgumentException if the capacity is negative
+   * @since 1.0.1
+   */
+  public VersionParser(final int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative : " + capacity);
+    }
+    this.parts = new long[capacity];
+  }
+
+  /**
+   * Parse text, the previous content is dropped.
+   *
+   * @param text text to be parsed, it can be null
+   * @return the parser
+   * @throws NumberFormatException if a numeric part is too big
+   * @since 1.0.1
+   */
+  public VersionParser parse(final CharSequence text) {
+    return text == null ? this.parse("", 0, 0) : this.parse(text, 0, text.length());
+  }
+
+  /**
+   * Parse range of text, the previous content is dropped.
+   *
+   * @param text  the source text, must not be null
+   * @param start start index of the range, inclusive
+   * @param end   end index of the range, exclusive
+   * @return the parser
+   * @throws IndexOutOfBoundsException if the range is out of the text
+   * @throws NumberFormatException     if a numeric part is too big
+   * @since 1.0.1
+   */
+  public VersionParser parse(final CharSequence text, final int start, final int end) {
+    Versions.checkRange(text.length(), start, end);
+    this.partCount = 0;
+    this.prefix.set("", 0, 0);
+    this.postfix.set("", 0, 0);
+
+    final int from = VersionScanner.trimStart(text, start, end);
+    final int to = VersionScanner.trimEnd(text, from, end);
+    if (VersionScanner.hasLineTerminator(text, from, to)) {
+      // rare case processed by regular expression of the version class
+      final Version version = Version.parse(text, from, to);
+      this.ensureCapacity(version.getNumericPartCount());
+      System.arraycopy(version.getNumericParts(), 0, this.parts, 0, version.getNumericPartCount());
+      this.partCount = version.getNumericPartCount();
+      this.prefix.set(version.getPrefix(), 0, version.getPrefix().length());
+      this.postfix.set(version.getPostfix(), 0, version.getPostfix().length());
+    } else {
+      final int separator = VersionScanner.findPrefixSeparator(text, from, to);
+      int position = from;
+      if (separator >= 0) {
+        this.prefix.set(text, from, separator);
+        position = separator + 1;
+      }
+      final int count = VersionScanner.countNumericParts(text, position, to);
+      this.ensureCapacity(count);
+      position = VersionScanner.findPostfixStart(text, VersionScanner.readNumericParts(text, position, to, this.parts), to);
+      this.partCount = count;
+      this.postfix.set(text, position, to);
+    }
+    return this;
+  }
+
+  private void ensureCapacity(final int count) {
+    if (count > this.parts.length) {
+      this.parts = Arrays.copyOf(this.parts, Math.max(count, this.parts.length * 2));
+    }
+  }
+
+  /**
+   * Get the prefix as view over the source text, the view is reused and changed by the next parsing.
+   *
+   * @return the prefix, must not be null
+   */
+  @Override
+  public CharSequence getPrefix() {
+    return this.prefix;
+  }
+
+  /**
+   * Get the postfix as view over the source text, the view is reused and changed by the next parsing.
+   *
+   * @return the postfix, must not be null
+   */
+  @Override
+  public CharSequence getPostfix() {
+    return this.postfix;
+  }
+
+  @Override
+  public int getNumericPartCount() {
+    return this.partCount;
+  }
+
+  @Override
+  public long getNumericPartAtPosition(final int position) {
+    return position < 0 || position >= this.partCount ? 0L : this.parts[position];
+  }
+
+  @Override
+  public Version toVersion() {
+    return Version.makeRaw(this.prefix.toString(), Arrays.copyOf(this.parts, this.partCount), this.postfix.toString());
+  }
+
+  @Override
+  public String toString() {
+    return this.toVersion().toString();
+  }
+
+  /**
+   * Mutable range of a char sequence.
+   */
+  private static final class TextRange implements CharSequence {
+
+    private CharSequence text;
+    private int start;
+    private int length;
+
+    private void set(final CharSequence text, final int start, final int end) {
+      this.text = text;
+      this.start = start;
+      this.length = end - start;
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      if (index < 0 || index >= this.length) {
+        throw new IndexOutOfBoundsException("Index : " + index);
+      }
+      return this.text.charAt(this.start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+      return this.toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return this.text.subSequence(this.start, this.start + this.length).toString();
+    }
+  }
+}
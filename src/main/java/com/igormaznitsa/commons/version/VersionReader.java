@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * Reader of stream made by {@link VersionWriter}, records are read one by one so that bulk files can be processed without loading them into memory. The class is not thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionReader implements Closeable {
+
+  private static final Object NULL_RECORD = new Object();
+
+  private final DataInputStream in;
+  private final VersionCodec codec = new VersionCodec();
+  private Object next;
+  private boolean nextRead;
+
+  /**
+   * Constructor, it reads and checks stream header immediately.
+   *
+   * @param in source stream, must not be null, it will be closed together with the reader
+   * @throws IOException if any transport error or the stream is not in expected format
+   * @since 1.0.1
+   */
+  public VersionReader(final InputStream in) throws IOException {
+    this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    final int magic = this.in.readUnsignedShort();
+    if (magic != VersionWriter.MAGIC) {
+      throw new StreamCorruptedException("Wrong stream header");
+    }
+    final int format = this.in.readUnsignedByte();
+    if (format != VersionWriter.FORMAT) {
+      throw new StreamCorruptedException("Unsupported format : " + format);
+    }
+  }
+
+  private boolean fetch() throws IOException {
+    if (!this.nextRead) {
+      final int type = this.in.read();
+      switch (type) {
+        case -1:
+          this.next = null;
+          break;
+        case VersionWriter.RECORD_VERSION:
+          this.next = this.codec.readVersion(this.in, this.in.readUnsignedByte());
+          break;
+        case VersionWriter.RECORD_OPERATOR: {
+          final Operator operator = this.codec.readOperatorTree(this.in);
+          this.next = operator == null ? NULL_RECORD : operator;
+        }
+        break;
+        default:
+          throw new StreamCorruptedException("Unknown record type : " + type);
+      }
+      this.nextRead = true;
+    }
+    return this.next != null;
+  }
+
+  private Object take() {
+    final Object result = this.next;
+    this.next = null;
+    this.nextRead = false;
+    return result == NULL_RECORD ? null : result;
+  }
+
+  /**
+   * Check that there is one more record in the stream.
+   *
+   * @return true if there is a record, false if end of stream
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public boolean hasNext() throws IOException {
+    return this.fetch();
+  }
+
+  /**
+   * Check that the next record is a version.
+   *
+   * @return true if there is a record and it is a version, false otherwise
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public boolean hasNextVersion() throws IOException {
+    return this.fetch() && this.next instanceof Version;
+  }
+
+  /**
+   * Read the next version.
+   *
+   * @return read version or null if end of stream
+   * @throws IOException if any transport error, wrong data format or the next record is not a version
+   * @since 1.0.1
+   */
+  public Version readVersion() throws IOException {
+    if (!this.fetch()) {
+      return null;
+    }
+    if (!(this.next instanceof Version)) {
+      throw new StreamCorruptedException("Next record is not a version");
+    }
+    return (Version) this.take();
+  }
+
+  /**
+   * Read the next operator tree.
+   *
+   * @return root of read operator tree, it can be null
+   * @throws IOException if any transport error, wrong data format or the next record is not an operator tree
+   * @since 1.0.1
+   */
+  public Operator readOperator() throws IOException {
+    if (!this.fetch()) {
+      throw new EOFException();
+    }
+    if (this.next instanceof Version) {
+      throw new StreamCorruptedException("Next record is not an operator tree");
+    }
+    return (Operator) this.take();
+  }
+
+  /**
+   * Read the next validator.
+   *
+   * @return read validator, must not be null
+   * @throws IOException if any transport error, wrong data format or the next record is not an operator tree
+   * @since 1.0.1
+   */
+  public VersionValidator readValidator() throws IOException {
+    return new VersionValidator(this.readOperator());
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.in.close();
+  }
+}
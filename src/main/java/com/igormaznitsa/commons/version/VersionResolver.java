@@ -0,0 +1,365 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Resolver of batches of queries against the same snapshot of artifact versions, every query asks for the greatest version of an artifact accepted by an expression.
+ * Queries of a batch are grouped by artifacts and groups are resolved in parallel on fork/join pool. Versions of every artifact are placed into {@link VersionSet} during the first query for the artifact and the set is shared by all next batches, every distinct expression of a batch is compiled once (parsed trees are shared through {@link VersionValidator#of(String)}) and resolved once for every artifact.
+ * The class is thread-safe.
+ *
+ * @see VersionSet#maxSatisfying(VersionValidator)
+ * @since 1.0.1
+ */
+public final class VersionResolver {
+
+  private final Map<String, Collection<? extends Version>> repository;
+  private final ConcurrentHashMap<String, VersionSet> candidates = new ConcurrentHashMap<>();
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor of resolver with common fork/join pool.
+   *
+   * @param repository versions of artifacts, must not be null, the map and collections must not be changed while the resolver is in use
+   * @since 1.0.1
+   */
+  public VersionResolver(final Map<String, ? extends Collection<? extends Version>> repository) {
+    this(repository, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param repository versions of artifacts, must not be null, the map and collections must not be changed while the resolver is in use
+   * @param pool       pool to execute tasks, must not be null
+   * @since 1.0.1
+   */
+  public VersionResolver(final Map<String, ? extends Collection<? extends Version>> repository, final ForkJoinPool pool) {
+    if (repository == null || pool == null) {
+      throw new NullPointerException("Repository and pool must not be null");
+    }
+    this.repository = new HashMap<>(repository);
+    this.pool = pool;
+  }
+
+  /**
+   * Get sorted set of versions of artifact, the set is made once and shared.
+   *
+   * @param artifact the artifact, it can be null
+   * @return sorted set of versions, empty for unknown artifact
+   * @since 1.0.1
+   */
+  public VersionSet getCandidates(final String artifact) {
+    final Collection<? extends Version> versions = artifact == null ? null : this.repository.get(artifact);
+    return versions == null ? VersionSet.of() : this.candidates.computeIfAbsent(artifact, key -> VersionSet.of(versions));
+  }
+
+  /**
+   * Resolve one query.
+   *
+   * @param artifact   the artifact, it can be null
+   * @param expression expression of needed versions, it can be null
+   * @return the greatest accepted version or null if there is no such one
+   * @since 1.0.1
+   */
+  public Version resolve(final String artifact, final String expression) {
+    return this.getCandidates(artifact).maxSatisfying(VersionValidator.of(expression));
+  }
+
+  /**
+   * Resolve batch of queries.
+   *
+   * @param queries queries, must not be null and must not contain null
+   * @return results in order of queries and metrics of the batch, must not be null
+   * @since 1.0.1
+   */
+  public Result resolve(final List<Query> queries) {
+    final long start = System.nanoTime();
+
+    final Map<String, VersionValidator> validators = new HashMap<>();
+    final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    final VersionValidator[] queryValidators = new VersionValidator[queries.size()];
+    for (int i = 0; i < queryValidators.length; i++) {
+      final Query query = queries.get(i);
+      VersionValidator validator = validators.get(query.expression);
+      if (validator == null) {
+        validator = VersionValidator.of(query.expression).compile();
+        validators.put(query.expression, validator);
+      }
+      queryValidators[i] = validator;
+      groups.computeIfAbsent(query.artifact, key -> new ArrayList<>()).add(i);
+    }
+    final long parsed = System.nanoTime();
+
+    final Version[] versions = new Version[queryValidators.length];
+    final int resolutions;
+    if (groups.size() < 2) {
+      int count = 0;
+      for (final Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+        count += this.resolveGroup(group.getKey(), group.getValue(), queryValidators, versions);
+      }
+      resolutions = count;
+    } else {
+      final List<ForkJoinTask<Integer>> tasks = new ArrayList<>(groups.size());
+      try {
+        for (final Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+          tasks.add(this.pool.submit(() -> this.resolveGroup(group.getKey(), group.getValue(), queryValidators, versions)));
+        }
+        int count = 0;
+        for (final ForkJoinTask<Integer> task : tasks) {
+          count += task.join();
+        }
+        resolutions = count;
+      } catch (RuntimeException ex) {
+        for (final ForkJoinTask<Integer> task : tasks) {
+          task.cancel(false);
+        }
+        throw ex;
+      }
+    }
+    final long resolved = System.nanoTime();
+
+    return new Result(versions, new Metrics(queryValidators.length, groups.size(), validators.size(), resolutions, parsed - start, resolved - parsed, resolved - start));
+  }
+
+  /**
+   * Resolve queries of one artifact, every validator is resolved once.
+   *
+   * @return number of made resolutions
+   */
+  private int resolveGroup(final String artifact, final List<Integer> indexes, final VersionValidator[] validators, final Version[] result) {
+    final VersionSet set = this.getCandidates(artifact);
+    final Map<VersionValidator, Version> resolved = new HashMap<>();
+    for (final int index : indexes) {
+      final VersionValidator validator = validators[index];
+      Version version = resolved.get(validator);
+      if (version == null && !resolved.containsKey(validator)) {
+        version = set.maxSatisfying(validator);
+        resolved.put(validator, version);
+      }
+      result[index] = version;
+    }
+    return resolved.size();
+  }
+
+  /**
+   * Query for the greatest version of artifact accepted by expression.
+   *
+   * @since 1.0.1
+   */
+  public static final class Query {
+
+    private final String artifact;
+    private final String expression;
+
+    /**
+     * Constructor.
+     *
+     * @param artifact   the artifact, it can be null
+     * @param expression expression of needed versions, it can be null
+     * @since 1.0.1
+     */
+    public Query(final String artifact, final String expression) {
+      this.artifact = artifact;
+      this.expression = expression;
+    }
+
+    /**
+     * Get the artifact.
+     *
+     * @return the artifact, it can be null
+     * @since 1.0.1
+     */
+    public String getArtifact() {
+      return this.artifact;
+    }
+
+    /**
+     * Get the expression.
+     *
+     * @return the expression, it can be null
+     * @since 1.0.1
+     */
+    public String getExpression() {
+      return this.expression;
+    }
+
+    @Override
+    public String toString() {
+      return this.artifact + ' ' + this.expression;
+    }
+  }
+
+  /**
+   * Results of batch.
+   *
+   * @since 1.0.1
+   */
+  public static final class Result {
+
+    private final Version[] versions;
+    private final Metrics metrics;
+
+    private Result(final Version[] versions, final Metrics metrics) {
+      this.versions = versions;
+      this.metrics = metrics;
+    }
+
+    /**
+     * Get resolved versions.
+     *
+     * @return unmodifiable list of versions in order of queries, null element for query without accepted version
+     * @since 1.0.1
+     */
+    public List<Version> getVersions() {
+      return Collections.unmodifiableList(Arrays.asList(this.versions));
+    }
+
+    /**
+     * Get resolved version of query.
+     *
+     * @param index index of the query in the batch
+     * @return the greatest accepted version or null if there is no such one
+     * @since 1.0.1
+     */
+    public Version get(final int index) {
+      return this.versions[index];
+    }
+
+    /**
+     * Get metrics of the batch.
+     *
+     * @return metrics, must not be null
+     * @since 1.0.1
+     */
+    public Metrics getMetrics() {
+      return this.metrics;
+    }
+  }
+
+  /**
+   * Counters and timings of batch.
+   *
+   * @since 1.0.1
+   */
+  public static final class Metrics {
+
+    private final int queries;
+    private final int artifacts;
+    private final int expressions;
+    private final int resolutions;
+    private final long parseNanos;
+    private final long resolveNanos;
+    private final long totalNanos;
+
+    private Metrics(final int queries, final int artifacts, final int expressions, final int resolutions, final long parseNanos, final long resolveNanos, final long totalNanos) {
+      this.queries = queries;
+      this.artifacts = artifacts;
+      this.expressions = expressions;
+      this.resolutions = resolutions;
+      this.parseNanos = parseNanos;
+      this.resolveNanos = resolveNanos;
+      this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Get number of queries in the batch.
+     *
+     * @return number of queries
+     * @since 1.0.1
+     */
+    public int getQueryCount() {
+      return this.queries;
+    }
+
+    /**
+     * Get number of distinct artifacts, it is number of groups resolved in parallel.
+     *
+     * @return number of artifacts
+     * @since 1.0.1
+     */
+    public int getArtifactCount() {
+      return this.artifacts;
+    }
+
+    /**
+     * Get number of distinct expressions, every one was parsed once.
+     *
+     * @return number of expressions
+     * @since 1.0.1
+     */
+    public int getExpressionCount() {
+      return this.expressions;
+    }
+
+    /**
+     * Get number of distinct pairs of artifact and expression, every one was resolved once.
+     *
+     * @return number of resolutions
+     * @since 1.0.1
+     */
+    public int getResolutionCount() {
+      return this.resolutions;
+    }
+
+    /**
+     * Get time spent to group queries and to parse expressions.
+     *
+     * @return time in nanoseconds
+     * @since 1.0.1
+     */
+    public long getParseNanos() {
+      return this.parseNanos;
+    }
+
+    /**
+     * Get time spent to resolve groups, it includes time to make candidate sets of artifacts met first time.
+     *
+     * @return time in nanoseconds
+     * @since 1.0.1
+     */
+    public long getResolveNanos() {
+      return this.resolveNanos;
+    }
+
+    /**
+     * Get time spent for the whole batch.
+     *
+     * @return time in nanoseconds
+     * @since 1.0.1
+     */
+    public long getTotalNanos() {
+      return this.totalNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "queries=" + this.queries + ", artifacts=" + this.artifacts + ", expressions=" + this.expressions + ", resolutions=" + this.resolutions
+          + ", parseNanos=" + this.parseNanos + ", resolveNanos=" + this.resolveNanos + ", totalNanos=" + this.totalNanos;
+    }
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.OperatorIntervals;
+import com.igormaznitsa.commons.version.operators.VersionInterval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Index of many version validators allows to find all validators accepting a version without checking every validator.
+ * Every validator is decomposed into version intervals which are kept in centered interval tree, so that lookup takes logarithmic time plus number of found rules. Validators which can't be decomposed are checked one by one.
+ * Rules can be added and removed at any time. Changes made after the tree was built are kept in small lists of added and removed rules which are checked by lookups directly, when the lists grow too long the tree is rebuilt by executor while lookups keep working with the previous tree.
+ * Lookups don't lock the index. The class is thread-safe.
+ *
+ * @param <K> type of rule identifiers
+ * @see OperatorIntervals#toIntervals(com.igormaznitsa.commons.version.operators.Operator)
+ * @since 1.0.1
+ */
+public final class VersionRuleIndex<K> {
+
+  private static final int MIN_PENDING_CHANGES = 64;
+
+  private final Executor executor;
+  private final Map<K, Rule<K>> rules = new LinkedHashMap<>();
+  private Map<K, Rule<K>> base = Collections.emptyMap();
+  private Set<K> changedDuringRebuild;
+  private volatile Snapshot<K> snapshot = new Snapshot<>(null, Collections.<Rule<K>>emptyList(), Collections.<K>emptySet(), Collections.<K, Rule<K>>emptyMap());
+
+  /**
+   * Constructor of index which rebuilds its tree in common fork/join pool.
+   *
+   * @since 1.0.1
+   */
+  public VersionRuleIndex() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param executor executor to rebuild tree of the index, {@code Runnable::run} rebuilds the tree in thread which changes the index, if the executor rejects a rebuild then the tree is rebuilt in thread which changes the index too, must not be null
+   * @since 1.0.1
+   */
+  public VersionRuleIndex(final Executor executor) {
+    if (executor == null) {
+      throw new NullPointerException("Executor must not be null");
+    }
+    this.executor = executor;
+  }
+
+  /**
+   * Add rule into the index, a rule with the same identifier is replaced.
+   *
+   * @param id   identifier of the rule, must not be null
+   * @param rule the rule, must not be null
+   * @since 1.0.1
+   */
+  public void add(final K id, final VersionValidator rule) {
+    final Rule<K> decomposed = new Rule<>(id, rule);
+    synchronized (this.rules) {
+      this.rules.put(id, decomposed);
+      this.changed(id);
+    }
+  }
+
+  /**
+   * Remove rule from the index.
+   *
+   * @param id identifier of the rule
+   * @return true if the rule was found and removed, false otherwise
+   * @since 1.0.1
+   */
+  public boolean remove(final K id) {
+    synchronized (this.rules) {
+      final boolean result = this.rules.remove(id) != null;
+      if (result) {
+        this.changed(id);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Get number of rules in the index.
+   *
+   * @return number of rules
+   * @since 1.0.1
+   */
+  public int size() {
+    synchronized (this.rules) {
+      return this.rules.size();
+    }
+  }
+
+  /**
+   * Find all rules which accept a version.
+   *
+   * @param version version to be checked, it can be null
+   * @return list of identifiers of matching rules, empty for null version
+   * @since 1.0.1
+   */
+  public List<K> match(final Version version) {
+    final List<K> result = new ArrayList<>();
+    if (version != null) {
+      final Snapshot<K> current = this.snapshot;
+      if (current.root != null) {
+        current.root.collect(version, current.removed, result);
+      }
+      for (final Rule<K> rule : current.notIndexed) {
+        if (!current.removed.contains(rule.id) && rule.matches(version)) {
+          result.add(rule.id);
+        }
+      }
+      for (final Rule<K> rule : current.added.values()) {
+        if (rule.matches(version)) {
+          result.add(rule.id);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Publish change of rule, must be called under lock of rules.
+   */
+  private void changed(final K id) {
+    final Snapshot<K> current = this.snapshot;
+    final Set<K> removed;
+    if (this.base.containsKey(id) && !current.removed.contains(id)) {
+      removed = new HashSet<>(current.removed);
+      removed.add(id);
+    } else {
+      removed = current.removed;
+    }
+    final Map<K, Rule<K>> added = new LinkedHashMap<>(current.added);
+    final Rule<K> rule = this.rules.get(id);
+    if (rule == null) {
+      added.remove(id);
+    } else {
+      added.put(id, rule);
+    }
+    this.snapshot = new Snapshot<>(current.root, current.notIndexed, removed, added);
+
+    if (this.changedDuringRebuild == null) {
+      this.rebuildIfNeeded();
+    } else {
+      this.changedDuringRebuild.add(id);
+    }
+  }
+
+  /**
+   * Start rebuild of tree if there are too many pending changes, must be called under lock of rules.
+   */
+  private void rebuildIfNeeded() {
+    final Snapshot<K> current = this.snapshot;
+    final int pending = current.removed.size() + current.added.size();
+    if (pending > Math.max(MIN_PENDING_CHANGES, (int) Math.sqrt(this.rules.size()) * 4)) {
+      final Map<K, Rule<K>> copy = new LinkedHashMap<>(this.rules);
+      this.changedDuringRebuild = new HashSet<>();
+      try {
+        this.executor.execute(() -> this.rebuild(copy));
+      } catch (RejectedExecutionException ex) {
+        // the change is already applied, so that the tree is rebuilt in the current thread instead of failing
+        this.rebuild(copy);
+      }
+    }
+  }
+
+  private void rebuild(final Map<K, Rule<K>> copy) {
+    Snapshot<K> built = null;
+    try {
+      built = Snapshot.build(copy.values());
+    } finally {
+      synchronized (this.rules) {
+        final Set<K> changed = this.changedDuringRebuild;
+        this.changedDuringRebuild = null;
+        if (built != null) {
+          final Set<K> removed = new HashSet<>();
+          final Map<K, Rule<K>> added = new LinkedHashMap<>();
+          for (final K id : changed) {
+            if (copy.containsKey(id)) {
+              removed.add(id);
+            }
+            final Rule<K> rule = this.rules.get(id);
+            if (rule != null) {
+              added.put(id, rule);
+            }
+          }
+          this.base = copy;
+          this.snapshot = new Snapshot<>(built.root, built.notIndexed, removed, added);
+          this.rebuildIfNeeded();
+        }
+      }
+    }
+  }
+
+  private static final class Entry<K> {
+
+    private final VersionInterval interval;
+    private final K id;
+
+    private Entry(final VersionInterval interval, final K id) {
+      this.interval = interval;
+      this.id = id;
+    }
+  }
+
+  /**
+   * Rule decomposed into intervals.
+   */
+  private static final class Rule<K> {
+
+    private final K id;
+    private final VersionValidator validator;
+    private final List<VersionInterval> intervals;
+
+    private Rule(final K id, final VersionValidator validator) {
+      this.id = id;
+      this.validator = validator;
+      this.intervals = validator.getExpressionRoot() == null ? Collections.<VersionInterval>emptyList() : OperatorIntervals.toIntervals(validator.getExpressionRoot());
+    }
+
+    private boolean matches(final Version version) {
+      boolean result = false;
+      if (this.intervals == null) {
+        result = this.validator.isValid(version);
+      } else {
+        for (final VersionInterval interval : this.intervals) {
+          if (interval.contains(version)) {
+            result = true;
+            break;
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Immutable state of index, tree and not indexed rules are made for some earlier state of rules, changes made after that are in removed and added rules.
+   */
+  private static final class Snapshot<K> {
+
+    private final Node<K> root;
+    private final List<Rule<K>> notIndexed;
+    private final Set<K> removed;
+    private final Map<K, Rule<K>> added;
+
+    private Snapshot(final Node<K> root, final List<Rule<K>> notIndexed, final Set<K> removed, final Map<K, Rule<K>> added) {
+      this.root = root;
+      this.notIndexed = notIndexed;
+      this.removed = removed;
+      this.added = added;
+    }
+
+    private static <K> Snapshot<K> build(final Collection<Rule<K>> rules) {
+      final List<Entry<K>> entries = new ArrayList<>();
+      final List<Rule<K>> notIndexed = new ArrayList<>();
+      for (final Rule<K> rule : rules) {
+        if (rule.intervals == null) {
+          notIndexed.add(rule);
+        } else {
+          for (final VersionInterval interval : rule.intervals) {
+            entries.add(new Entry<>(interval, rule.id));
+          }
+        }
+      }
+      return new Snapshot<>(entries.isEmpty() ? null : new Node<>(entries), notIndexed, Collections.<K>emptySet(), Collections.<K, Rule<K>>emptyMap());
+    }
+  }
+
+  /**
+   * Node of centered interval tree.
+   */
+  private static final class Node<K> {
+
+    private final Version center;
+    private final Entry<K>[] byLower;
+    private final Entry<K>[] byUpper;
+    private final Node<K> left;
+    private final Node<K> right;
+
+    private Node(final List<Entry<K>> entries) {
+      final List<Version> bounds = new ArrayList<>(entries.size() * 2);
+      for (final Entry<K> entry : entries) {
+        if (entry.interval.getLower() != null) {
+          bounds.add(entry.interval.getLower());
+        }
+        if (entry.interval.getUpper() != null) {
+          bounds.add(entry.interval.getUpper());
+        }
+      }
+
+      final List<Entry<K>> here = new ArrayList<>();
+      final List<Entry<K>> toLeft = new ArrayList<>();
+      final List<Entry<K>> toRight = new ArrayList<>();
+      Version selectedCenter = null;
+      if (!bounds.isEmpty()) {
+        Collections.sort(bounds);
+        selectedCenter = bounds.get(bounds.size() / 2);
+        for (final Entry<K> entry : entries) {
+          if (entry.interval.isBelow(selectedCenter)) {
+            toLeft.add(entry);
+          } else if (entry.interval.isAbove(selectedCenter)) {
+            toRight.add(entry);
+          } else {
+            here.add(entry);
+          }
+        }
+      }
+
+      if (selectedCenter == null || (here.isEmpty() && (toLeft.isEmpty() || toRight.isEmpty()))) {
+        // no progress in splitting, all entries are checked one by one
+        this.center = null;
+        this.byLower = toArray(entries);
+        this.byUpper = this.byLower;
+        this.left = null;
+        this.right = null;
+      } else {
+        this.center = selectedCenter;
+        this.byLower = toArray(here);
+        this.byUpper = toArray(here);
+        Arrays.sort(this.byLower, Comparator.comparing((Entry<K> e) -> e.interval, VersionInterval::compareLower));
+        Arrays.sort(this.byUpper, Comparator.comparing((Entry<K> e) -> e.interval, VersionInterval::compareUpper).reversed());
+        this.left = toLeft.isEmpty() ? null : new Node<>(toLeft);
+        this.right = toRight.isEmpty() ? null : new Node<>(toRight);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Entry<K>[] toArray(final List<Entry<K>> entries) {
+      return entries.toArray((Entry<K>[]) new Entry<?>[entries.size()]);
+    }
+
+    private void collect(final Version version, final Set<K> removed, final List<K> result) {
+      if (this.center == null) {
+        for (final Entry<K> entry : this.byLower) {
+          if (entry.interval.contains(version)) {
+            add(entry.id, removed, result);
+          }
+        }
+      } else {
+        final int compare = version.compareTo(this.center);
+        if (compare < 0) {
+          for (final Entry<K> entry : this.byLower) {
+            if (entry.interval.isAbove(version)) {
+              break;
+            }
+            add(entry.id, removed, result);
+          }
+          if (this.left != null) {
+            this.left.collect(version, removed, result);
+          }
+        } else if (compare > 0) {
+          for (final Entry<K> entry : this.byUpper) {
+            if (entry.interval.isBelow(version)) {
+              break;
+            }
+            add(entry.id, removed, result);
+          }
+          if (this.right != null) {
+            this.right.collect(version, removed, result);
+          }
+        } else {
+          for (final Entry<K> entry : this.byLower) {
+            add(entry.id, removed, result);
+          }
+        }
+      }
+    }
+
+    private static <K> void add(final K id, final Set<K> removed, final List<K> result) {
+      if (removed.isEmpty() || !removed.contains(id)) {
+        result.add(id);
+      }
+    }
+  }
+}
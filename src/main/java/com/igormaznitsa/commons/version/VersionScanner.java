@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+/**
+ * Internal char-by-char scanner of version text. It makes the same split into prefix, numeric parts and postfix as the regular expression {@code ^([^\d.]+)-|\.?([\d]+)|-?(.*)$} but works over a character range without creating matchers, substrings or boxed values.
+ * The scanner doesn't process text containing line terminators because they change behaviour of {@code .} and {@code $} in the regular expression, such text must be processed by the regular expression.
+ *
+ * @since 1.0.1
+ */
+final class VersionScanner {
+
+  private VersionScanner() {
+  }
+
+  /**
+   * Find the first not-whitespace position in the range, the same rule as in {@link String#trim()}.
+   *
+   * @param text  the source text, must not be null
+   * @param start start of the range, inclusive
+   * @param end   end of the range, exclusive
+   * @return position of the first not-whitespace char or the end
+   */
+  static int trimStart(final CharSequence text, final int start, final int end) {
+    int result = start;
+    while (result < end && text.charAt(result) <= ' ') {
+      result++;
+    }
+    return result;
+  }
+
+  /**
+   * Find the position after the last not-whitespace char in the range, the same rule as in {@link String#trim()}.
+   *
+   * @param text  the source text, must not be null
+   * @param start start of the range, inclusive
+   * @param end   end of the range, exclusive
+   * @return position after the last not-whitespace char or the start
+   */
+  static int trimEnd(final CharSequence text, final int start, final int end) {
+    int result = end;
+    while (result > start && text.charAt(result - 1) <= ' ') {
+      result--;
+    }
+    return result;
+  }
+
+  /**
+   * Check that the range contains a char recognized by regular expressions as a line terminator.
+   *
+   * @param text  the source text, must not be null
+   * @param start start of the range, inclusive
+   * @param end   end of the range, exclusive
+   * @return true if there is a line terminator in the range, false otherwise
+   */
+  static boolean hasLineTerminator(final CharSequence text, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      switch (text.charAt(i)) {
+        case '\n':
+        case '\r':
+        case '\u0085':
+        case '\u2028':
+        case '\u2029':
+          return true;
+        default:
+          break;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isDigit(final char chr) {
+    return chr >= '0' && chr <= '9';
+  }
+
+  /**
+   * Find the dash which separates prefix from the rest of version. Prefix is non-empty text without digits and dots placed before the last dash of the leading non-digit and non-dot area.
+   *
+   * @param text  the source text, must not be null
+   * @param start start of the trimmed range, inclusive
+   * @param end   end of the trimmed range, exclusive
+   * @return position of the separating dash or -1 if there is no prefix
+   */
+  static int findPrefixSeparator(final CharSequence text, final int start, final int end) {
+    int result = -1;
+    for (int i = start; i < end; i++) {
+      final char chr = text.charAt(i);
+      if (chr == '.' || isDigit(chr)) {
+        break;
+      }
+      if (chr == '-' && i > start) {
+        result = i;
+      }
+    }
+    return result;
+  }
+
+  private static int findNumericGroupStart(final CharSequence text, final int position, final int end) {
+    int result = -1;
+    if (position < end) {
+      final char chr = text.charAt(position);
+      if (isDigit(chr)) {
+        result = position;
+      } else if (chr == '.' && position + 1 < end && isDigit(text.charAt(position + 1))) {
+        result = position + 1;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Count numeric groups placed directly one after another from the position.
+   *
+   * @param text     the source text, must not be null
+   * @param position start position of numeric area
+   * @param end      end of the trimmed range, exclusive
+   * @return number of detected numeric groups
+   */
+  static int countNumericParts(final CharSequence text, final int position, final int end) {
+    int result = 0;
+    int pos = position;
+    while (true) {
+      int groupPos = findNumericGroupStart(text, pos, end);
+      if (groupPos < 0) {
+        break;
+      }
+      while (groupPos < end && isDigit(text.charAt(groupPos))) {
+        groupPos++;
+      }
+      pos = groupPos;
+      result++;
+    }
+    return result;
+  }
+
+  /**
+   * Read numeric groups from the position into an array.
+   *
+   * @param text     the source text, must not be null
+   * @param position start position of numeric area
+   * @param end      end of the trimmed range, exclusive
+   * @param target   target array, must have enough length to keep all numeric groups
+   * @return position after the last read numeric group
+   * @throws NumberFormatException if a numeric group is too big for long
+   */
+  static int readNumericParts(final CharSequence text, final int position, final int end, final long[] target) {
+    int pos = position;
+    int index = 0;
+    while (index < target.length) {
+      final int groupStart = findNumericGroupStart(text, pos, end);
+      if (groupStart < 0) {
+        break;
+      }
+      long value = 0L;
+      int groupPos = groupStart;
+      while (groupPos < end) {
+        final char chr = text.charAt(groupPos);
+        if (!isDigit(chr)) {
+          break;
+        }
+        final int digit = chr - '0';
+        if (value > (Long.MAX_VALUE - digit) / 10L) {
+          throw new NumberFormatException("For input string: \"" + text.subSequence(groupStart, findNumberEnd(text, groupPos, end)) + '\"');
+        }
+        value = value * 10L + digit;
+        groupPos++;
+      }
+      target[index++] = value;
+      pos = groupPos;
+    }
+    return pos;
+  }
+
+  private static int findNumberEnd(final CharSequence text, final int position, final int end) {
+    int result = position;
+    while (result < end && isDigit(text.charAt(result))) {
+      result++;
+    }
+    return result;
+  }
+
+  /**
+   * Find start of postfix. Postfix is the whole rest of text after numeric area, one leading dash is skipped.
+   *
+   * @param text     the source text, must not be null
+   * @param position position after numeric area
+   * @param end      end of the trimmed range, exclusive
+   * @return start position of the postfix
+   */
+  static int findPostfixStart(final CharSequence text, final int position, final int end) {
+    return position < end && text.charAt(position) == '-' ? position + 1 : position;
+  }
+
+  /**
+   * Lexicographical comparison of char sequences, the same as {@link String#compareTo(String)}.
+   *
+   * @param a the first sequence, must not be null
+   * @param b the second sequence, must not be null
+   * @return difference of the first different chars or difference of lengths
+   */
+  static int compareText(final CharSequence a, final CharSequence b) {
+    final int length = Math.min(a.length(), b.length());
+    for (int i = 0; i < length; i++) {
+      final char x = a.charAt(i);
+      final char y = b.charAt(i);
+      if (x != y) {
+        return x - y;
+      }
+    }
+    return a.length() - b.length();
+  }
+}
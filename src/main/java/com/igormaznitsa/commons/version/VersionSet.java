@@ -0,0 +1,455 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorIntervals;
+import com.igormaznitsa.commons.version.operators.VersionInterval;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * Immutable sorted set of versions in order of {@link Version#compareTo(Version)}. Equal versions are kept once, versions which are different but compared as equal ones (like 1.0 and 1) are ordered by number of numeric parts.
+ * Numeric parts of all versions are kept in one contiguous array and prefixes and postfixes are kept as indexes in a sorted table of unique strings, so that versions are materialized only when they are read.
+ * Range queries are made by binary search over bounds of version intervals of validators, so that repeated queries over the same set don't sort or scan the whole set.
+ *
+ * @since 1.0.1
+ */
+public final class VersionSet extends AbstractCollection<Version> {
+
+  private static final VersionSet EMPTY = new VersionSet(new Version[0]);
+
+  private final String[] strings;
+  private final int[] prefixes;
+  private final int[] postfixes;
+  private final int[] offsets;
+  private final long[] numbers;
+
+  private VersionSet(final Version[] sorted) {
+    final TreeSet<String> uniqueStrings = new TreeSet<>();
+    int totalNumbers = 0;
+    for (final Version version : sorted) {
+      uniqueStrings.add(version.getPrefix());
+      uniqueStrings.add(version.getPostfix());
+      totalNumbers += version.getNumericParts().length;
+    }
+    this.strings = uniqueStrings.toArray(new String[0]);
+    this.prefixes = new int[sorted.length];
+    this.postfixes = new int[sorted.length];
+    this.offsets = new int[sorted.length + 1];
+    this.numbers = new long[totalNumbers];
+
+    int offset = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      final Version version = sorted[i];
+      this.prefixes[i] = Arrays.binarySearch(this.strings, version.getPrefix());
+      this.postfixes[i] = Arrays.binarySearch(this.strings, version.getPostfix());
+      final long[] parts = version.getNumericParts();
+      System.arraycopy(parts, 0, this.numbers, offset, parts.length);
+      this.offsets[i] = offset;
+      offset += parts.length;
+    }
+    this.offsets[sorted.length] = offset;
+  }
+
+  /**
+   * Make set from collection of versions.
+   *
+   * @param versions versions to be placed into the set, must not be null and must not contain null
+   * @return sorted set of versions, must not be null
+   * @since 1.0.1
+   */
+  public static VersionSet of(final Collection<? extends Version> versions) {
+    return of(versions.toArray(new Version[0]));
+  }
+
+  /**
+   * Make set from array of versions.
+   *
+   * @param versions versions to be placed into the set, must not be null and must not contain null
+   * @return sorted set of versions, must not be null
+   * @since 1.0.1
+   */
+  public static VersionSet of(final Version... versions) {
+    if (versions.length == 0) {
+      return EMPTY;
+    }
+    final Version[] sorted = versions.clone();
+    Arrays.sort(sorted, (a, b) -> {
+      final int result = a.compareTo(b);
+      return result == 0 ? Integer.compare(a.getNumericParts().length, b.getNumericParts().length) : result;
+    });
+    int unique = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (unique == 0 || !sorted[unique - 1].equals(sorted[i])) {
+        sorted[unique++] = sorted[i];
+      }
+    }
+    return new VersionSet(unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique));
+  }
+
+  @Override
+  public int size() {
+    return this.prefixes.length;
+  }
+
+  /**
+   * Get version at position in the sorted set.
+   *
+   * @param index position of the version
+   * @return the version, must not be null
+   * @throws IndexOutOfBoundsException if there is no such position
+   * @since 1.0.1
+   */
+  public Version get(final int index) {
+    if (index < 0 || index >= this.prefixes.length) {
+      throw new IndexOutOfBoundsException("Index : " + index);
+    }
+    return Version.makeRaw(this.strings[this.prefixes[index]], Arrays.copyOfRange(this.numbers, this.offsets[index], this.offsets[index + 1]), this.strings[this.postfixes[index]]);
+  }
+
+  /**
+   * Get the least version.
+   *
+   * @return the first version or null if the set is empty
+   * @since 1.0.1
+   */
+  public Version first() {
+    return this.isEmpty() ? null : this.get(0);
+  }
+
+  /**
+   * Get the greatest version.
+   *
+   * @return the last version or null if the set is empty
+   * @since 1.0.1
+   */
+  public Version last() {
+    return this.isEmpty() ? null : this.get(this.size() - 1);
+  }
+
+  /**
+   * Rank of string in the table, for not presented string it is position between table strings, so that ranks have the same order as strings.
+   */
+  private int rankOf(final String text) {
+    final int index = Arrays.binarySearch(this.strings, text);
+    return index >= 0 ? index * 2 + 1 : (-index - 1) * 2;
+  }
+
+  private int compareAt(final int index, final int prefixRank, final Version version, final int postfixRank) {
+    int result = Integer.compare(this.prefixes[index] * 2 + 1, prefixRank);
+    if (result == 0) {
+      final long[] parts = version.getNumericParts();
+      final int start = this.offsets[index];
+      final int length = this.offsets[index + 1] - start;
+      final int max = Math.max(length, parts.length);
+      for (int i = 0; i < max && result == 0; i++) {
+        result = Long.compare(i < length ? this.numbers[start + i] : 0L, i < parts.length ? parts[i] : 0L);
+      }
+      if (result == 0) {
+        result = Integer.compare(this.postfixes[index] * 2 + 1, postfixRank);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the first position where the stored version is greater than the version or, if inclusive, not less than it.
+   */
+  private int search(final Version version, final boolean inclusive) {
+    final int prefixRank = this.rankOf(version.getPrefix());
+    final int postfixRank = this.rankOf(version.getPostfix());
+    int low = 0;
+    int high = this.size();
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      final int compare = this.compareAt(middle, prefixRank, version, postfixRank);
+      if (compare < 0 || (compare == 0 && !inclusive)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int startOf(final VersionInterval interval) {
+    return interval.getLower() == null ? 0 : this.search(interval.getLower(), interval.isLowerInclusive());
+  }
+
+  private int endOf(final VersionInterval interval) {
+    return interval.getUpper() == null ? this.size() : this.search(interval.getUpper(), !interval.isUpperInclusive());
+  }
+
+  /**
+   * Find position of a version.
+   *
+   * @param version version to be found, it can be null
+   * @return position of the version or -1 if not found
+   * @since 1.0.1
+   */
+  public int indexOf(final Version version) {
+    if (version == null) {
+      return -1;
+    }
+    final int end = this.search(version, false);
+    for (int i = this.search(version, true); i < end; i++) {
+      if (this.offsets[i + 1] - this.offsets[i] == version.getNumericParts().length) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean contains(final Object obj) {
+    return obj instanceof Version && this.indexOf((Version) obj) >= 0;
+  }
+
+  /**
+   * Find the least version which is greater than the version.
+   *
+   * @param version the version, must not be null
+   * @return the next newer version or null if there is no such one
+   * @since 1.0.1
+   */
+  public Version higher(final Version version) {
+    final int index = this.search(version, false);
+    return index < this.size() ? this.get(index) : null;
+  }
+
+  /**
+   * Find the greatest version which is less than the version.
+   *
+   * @param version the version, must not be null
+   * @return the previous older version or null if there is no such one
+   * @since 1.0.1
+   */
+  public Version lower(final Version version) {
+    final int index = this.search(version, true) - 1;
+    return index >= 0 ? this.get(index) : null;
+  }
+
+  /**
+   * Get all versions accepted by validator.
+   *
+   * @param validator the validator, must not be null
+   * @return sorted list of accepted versions
+   * @since 1.0.1
+   */
+  public List<Version> allSatisfying(final VersionValidator validator) {
+    final Instrumentation listener = Version.getInstrumentation();
+    final List<Version> result;
+    if (listener == null) {
+      result = this.collectSatisfying(validator.getEvaluator(), null);
+    } else {
+      final long started = System.nanoTime();
+      final int[] visited = new int[1];
+      result = this.collectSatisfying(validator.getEvaluator(), visited);
+      listener.versionsValidated(validator, visited[0], result.size(), System.nanoTime() - started);
+    }
+    return result;
+  }
+
+  /**
+   * Get all versions accepted by operator, for instance by one {@link com.igormaznitsa.commons.version.operators.OperatorLeaf}.
+   * Only versions inside intervals enclosing accepted versions are visited, they are checked by the operator only if the operator tree can't be converted into intervals exactly.
+   *
+   * @param operator the operator, it can be null
+   * @return sorted list of accepted versions, empty for null operator
+   * @see OperatorIntervals#toEnclosingIntervals(Operator)
+   * @since 1.0.1
+   */
+  public List<Version> allSatisfying(final Operator operator) {
+    return this.collectSatisfying(operator, null);
+  }
+
+  private List<Version> collectSatisfying(final Operator operator, final int[] visited) {
+    final List<Version> result = new ArrayList<>();
+    if (operator != null) {
+      final List<VersionInterval> exact = OperatorIntervals.toIntervals(operator);
+      final Position position = exact == null ? new Position() : null;
+      for (final VersionInterval interval : exact == null ? OperatorIntervals.toEnclosingIntervals(operator) : exact) {
+        final int start = this.startOf(interval);
+        final int end = this.endOf(interval);
+        if (visited != null) {
+          visited[0] += Math.max(0, end - start);
+        }
+        for (int i = start; i < end; i++) {
+          if (position == null || operator.isValid(position.at(i))) {
+            result.add(this.get(i));
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the greatest version accepted by validator.
+   *
+   * @param validator the validator, must not be null
+   * @return the latest accepted version or null if there is no such one
+   * @since 1.0.1
+   */
+  public Version maxSatisfying(final VersionValidator validator) {
+    return this.satisfying(validator, true);
+  }
+
+  /**
+   * Get the greatest version accepted by operator. Search starts from upper bound of the last interval enclosing accepted versions and goes down, it stops on the first accepted version.
+   *
+   * @param operator the operator, it can be null
+   * @return the latest accepted version or null if there is no such one
+   * @see OperatorIntervals#toEnclosingIntervals(Operator)
+   * @since 1.0.1
+   */
+  public Version maxSatisfying(final Operator operator) {
+    final int index = this.findSatisfying(operator, true, null);
+    return index < 0 ? null : this.get(index);
+  }
+
+  /**
+   * Get the least version accepted by validator.
+   *
+   * @param validator the validator, must not be null
+   * @return the earliest accepted version or null if there is no such one
+   * @since 1.0.1
+   */
+  public Version minSatisfying(final VersionValidator validator) {
+    return this.satisfying(validator, false);
+  }
+
+  /**
+   * Get the least version accepted by operator. Search starts from lower bound of the first interval enclosing accepted versions and goes up, it stops on the first accepted version.
+   *
+   * @param operator the operator, it can be null
+   * @return the earliest accepted version or null if there is no such one
+   * @see OperatorIntervals#toEnclosingIntervals(Operator)
+   * @since 1.0.1
+   */
+  public Version minSatisfying(final Operator operator) {
+    final int index = this.findSatisfying(operator, false, null);
+    return index < 0 ? null : this.get(index);
+  }
+
+  private Version satisfying(final VersionValidator validator, final boolean fromEnd) {
+    final Instrumentation listener = Version.getInstrumentation();
+    final int index;
+    if (listener == null) {
+      index = this.findSatisfying(validator.getEvaluator(), fromEnd, null);
+    } else {
+      final long started = System.nanoTime();
+      final int[] visited = new int[1];
+      index = this.findSatisfying(validator.getEvaluator(), fromEnd, visited);
+      listener.versionsValidated(validator, visited[0], index < 0 ? 0 : 1, System.nanoTime() - started);
+    }
+    return index < 0 ? null : this.get(index);
+  }
+
+  /**
+   * Find index of the first accepted version.
+   *
+   * @param visited counter of visited versions, it can be null
+   */
+  private int findSatisfying(final Operator operator, final boolean fromEnd, final int[] visited) {
+    if (operator != null) {
+      final List<VersionInterval> exact = OperatorIntervals.toIntervals(operator);
+      final List<VersionInterval> intervals = exact == null ? OperatorIntervals.toEnclosingIntervals(operator) : exact;
+      final Position position = exact == null ? new Position() : null;
+      for (int i = 0; i < intervals.size(); i++) {
+        final VersionInterval interval = intervals.get(fromEnd ? intervals.size() - 1 - i : i);
+        final int start = this.startOf(interval);
+        final int end = this.endOf(interval);
+        for (int j = 0; j < end - start; j++) {
+          final int index = fromEnd ? end - 1 - j : start + j;
+          if (visited != null) {
+            visited[0]++;
+          }
+          if (position == null || operator.isValid(position.at(index))) {
+            return index;
+          }
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Reusable view of stored version, it allows to check stored versions by operators without making version objects.
+   */
+  private final class Position implements VersionView {
+
+    private int index;
+
+    private Position at(final int index) {
+      this.index = index;
+      return this;
+    }
+
+    @Override
+    public CharSequence getPrefix() {
+      return VersionSet.this.strings[VersionSet.this.prefixes[this.index]];
+    }
+
+    @Override
+    public CharSequence getPostfix() {
+      return VersionSet.this.strings[VersionSet.this.postfixes[this.index]];
+    }
+
+    @Override
+    public int getNumericPartCount() {
+      return VersionSet.this.offsets[this.index + 1] - VersionSet.this.offsets[this.index];
+    }
+
+    @Override
+    public long getNumericPartAtPosition(final int position) {
+      return position < 0 || position >= this.getNumericPartCount() ? 0L : VersionSet.this.numbers[VersionSet.this.offsets[this.index] + position];
+    }
+
+    @Override
+    public Version toVersion() {
+      return VersionSet.this.get(this.index);
+    }
+  }
+
+  @Override
+  public Iterator<Version> iterator() {
+    return new Iterator<Version>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return this.index < VersionSet.this.size();
+      }
+
+      @Override
+      public Version next() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return VersionSet.this.get(this.index++);
+      }
+    };
+  }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * External merge sorter of versions, it sorts amounts of versions which can't be kept in memory. Versions are collected into runs of bounded size, the runs are sorted in parallel on fork/join pool and written into temporary files by {@link VersionWriter}, then the files are merged.
+ * Versions are ordered by {@link Version#compareTo(Version)}, versions which are compared as equal ones but are not equal (like 1.0 and 1) are ordered by number of numeric parts so that equal versions are always neighbours and can be removed.
+ * The class is immutable and thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionSorter {
+
+  /**
+   * Default memory budget, in bytes.
+   *
+   * @since 1.0.1
+   */
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+  /**
+   * Default max number of runs merged at once, if there are more runs then they are merged in several passes.
+   *
+   * @since 1.0.1
+   */
+  public static final int DEFAULT_MERGE_WIDTH = 64;
+
+  private static final Comparator<Version> ORDER = (a, b) -> {
+    final int result = a.compareTo(b);
+    return result == 0 ? Integer.compare(a.getNumericPartCount(), b.getNumericPartCount()) : result;
+  };
+
+  private final long memoryBudget;
+  private final ForkJoinPool pool;
+  private final Path tempDirectory;
+  private final boolean distinct;
+  private final int mergeWidth;
+
+  /**
+   * Constructor of sorter with default memory budget, common fork/join pool and system temporary folder, it doesn't remove duplicates.
+   *
+   * @since 1.0.1
+   */
+  public VersionSorter() {
+    this(DEFAULT_MEMORY_BUDGET, ForkJoinPool.commonPool(), null, false, DEFAULT_MERGE_WIDTH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param memoryBudget  approximate number of bytes which can be occupied by collected versions, it is shared between runs sorted in parallel, must be positive
+   * @param pool          pool to sort and write runs, its parallelism defines max number of runs sorted at the same time, must not be null
+   * @param tempDirectory folder for temporary files, null means system temporary folder
+   * @param distinct      true if duplicated versions must be removed, versions are compared by {@link Version#equals(Object)}
+   * @param mergeWidth    max number of runs merged at once, must be 2 or greater
+   * @throws IllegalArgumentException if wrong memory budget or merge width
+   * @since 1.0.1
+   */
+  public VersionSorter(final long memoryBudget, final ForkJoinPool pool, final Path tempDirectory, final boolean distinct, final int mergeWidth) {
+    if (memoryBudget <= 0L) {
+      throw new IllegalArgumentException("Memory budget must be positive : " + memoryBudget);
+    }
+    if (mergeWidth < 2) {
+      throw new IllegalArgumentException("Merge width must be 2 or greater : " + mergeWidth);
+    }
+    if (pool == null) {
+      throw new NullPointerException("Pool must not be null");
+    }
+    this.memoryBudget = memoryBudget;
+    this.pool = pool;
+    this.tempDirectory = tempDirectory;
+    this.distinct = distinct;
+    this.mergeWidth = mergeWidth;
+  }
+
+  /**
+   * Approximate number of bytes occupied by version in heap.
+   *
+   * @param version the version, must not be null
+   * @return number of bytes
+   */
+  static long estimateSize(final Version version) {
+    return 96L + 8L * version.getNumericPartCount() + 2L * (version.getPrefix().length() + version.getPostfix().length());
+  }
+
+  /**
+   * Sort versions. Temporary files are created only if the versions don't fit into the memory budget.
+   *
+   * @param versions source of versions, must not be null and must not contain null
+   * @return sorted versions, must be closed to remove temporary files
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public SortedVersions sort(final Iterator<? extends Version> versions) throws IOException {
+    final int parallelism = this.pool.getParallelism();
+    final long runBudget = Math.max(1L, this.memoryBudget / (parallelism + 1));
+
+    final List<Path> runs = new ArrayList<>();
+    final Deque<ForkJoinTask<Path>> tasks = new ArrayDeque<>();
+    SortedVersions result = null;
+    try {
+      List<Version> buffer = new ArrayList<>();
+      long bufferSize = 0L;
+      long count = 0L;
+      while (versions.hasNext()) {
+        final Version version = versions.next();
+        if (version == null) {
+          throw new NullPointerException("Null version in source");
+        }
+        buffer.add(version);
+        bufferSize += estimateSize(version);
+        count++;
+        if (bufferSize >= runBudget) {
+          if (tasks.size() >= parallelism) {
+            runs.add(join(tasks.removeFirst()));
+          }
+          final Version[] run = buffer.toArray(new Version[buffer.size()]);
+          tasks.addLast(this.pool.submit(() -> this.writeRun(run)));
+          buffer = new ArrayList<>();
+          bufferSize = 0L;
+        }
+      }
+      while (!tasks.isEmpty()) {
+        runs.add(join(tasks.removeFirst()));
+      }
+      while (runs.size() > this.mergeWidth) {
+        final List<Path> group = new ArrayList<>(runs.subList(0, this.mergeWidth));
+        runs.subList(0, this.mergeWidth).clear();
+        runs.add(this.mergeRuns(group));
+      }
+
+      final Version[] rest = buffer.toArray(new Version[buffer.size()]);
+      buffer = null;
+      Arrays.sort(rest, ORDER);
+      result = new SortedVersions(this.distinct, runs, rest, count);
+    } finally {
+      if (result == null) {
+        for (final ForkJoinTask<Path> task : tasks) {
+          try {
+            runs.add(join(task));
+          } catch (IOException | RuntimeException ex) {
+            // ignore, main error is thrown
+          }
+        }
+        deleteAll(runs);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sort stream written by {@link VersionWriter}, all records of the stream must be versions. Streams are not closed.
+   *
+   * @param in  source of versions, must not be null
+   * @param out target of sorted versions, must not be null
+   * @return number of written versions
+   * @throws IOException if any transport error or wrong data format
+   * @since 1.0.1
+   */
+  public long sort(final VersionReader in, final VersionWriter out) throws IOException {
+    final Iterator<Version> versions = new Iterator<Version>() {
+      private Version next;
+
+      @Override
+      public boolean hasNext() {
+        try {
+          if (this.next == null) {
+            this.next = in.readVersion();
+          }
+          return this.next != null;
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      }
+
+      @Override
+      public Version next() {
+        final Version result = this.next;
+        this.next = null;
+        return result;
+      }
+    };
+
+    long result = 0L;
+    try (final SortedVersions sorted = this.sortUnchecked(versions)) {
+      Version version;
+      while ((version = sorted.readVersion()) != null) {
+        out.write(version);
+        result++;
+      }
+    }
+    out.flush();
+    return result;
+  }
+
+  /**
+   * Sort text, one version per line. Lines are parsed by the same rules as {@link Version#Version(String)}, sorted versions are written one per line. Reader and writer are not closed.
+   *
+   * @param in           source text, must not be null
+   * @param out          target text, must not be null
+   * @param errorHandler handler of lines which can't be parsed, must not be null
+   * @return number of written versions
+   * @throws IOException if any transport error
+   * @see VersionBulkParser#SKIP
+   * @see VersionBulkParser#FAIL
+   * @since 1.0.1
+   */
+  public long sort(final Reader in, final Writer out, final VersionBulkParser.ErrorHandler errorHandler) throws IOException {
+    final VersionBulkParser parser = new VersionBulkParser(VersionBulkParser.DEFAULT_CHUNK_SIZE, this.pool, errorHandler);
+
+    long result = 0L;
+    try (final SortedVersions sorted = this.sortUnchecked(Spliterators.iterator(parser.spliterator(in)))) {
+      Version version;
+      while ((version = sorted.readVersion()) != null) {
+        out.write(version.toString());
+        out.write('\n');
+        result++;
+      }
+    }
+    out.flush();
+    return result;
+  }
+
+  private SortedVersions sortUnchecked(final Iterator<? extends Version> versions) throws IOException {
+    try {
+      return this.sort(versions);
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  private Path writeRun(final Version[] run) throws IOException {
+    Arrays.sort(run, ORDER);
+    final Path result = Files.createTempFile(this.tempDirectory, "versions", ".run");
+    try (final VersionWriter writer = new VersionWriter(Files.newOutputStream(result))) {
+      Version last = null;
+      for (final Version version : run) {
+        if (!this.distinct || !version.equals(last)) {
+          writer.write(version);
+        }
+        last = version;
+      }
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(result);
+      throw ex;
+    }
+    return result;
+  }
+
+  private Path mergeRuns(final List<Path> runs) throws IOException {
+    final Path result = Files.createTempFile(this.tempDirectory, "versions", ".run");
+    try (final SortedVersions sorted = new SortedVersions(this.distinct, runs, new Version[0], 0L);
+         final VersionWriter writer = new VersionWriter(Files.newOutputStream(result))) {
+      Version version;
+      while ((version = sorted.readVersion()) != null) {
+        writer.write(version);
+      }
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(result);
+      throw ex;
+    }
+    return result;
+  }
+
+  private static Path join(final ForkJoinTask<Path> task) throws IOException {
+    try {
+      return task.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during sorting");
+    } catch (ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("Can't write run", cause);
+    }
+  }
+
+  private static void deleteAll(final List<Path> files) {
+    for (final Path file : files) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException ex) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * Result of sorting, versions are read one by one from merged runs. Temporary files are removed on close. The class is not thread-safe.
+   *
+   * @since 1.0.1
+   */
+  public static final class SortedVersions implements Closeable {
+
+    private final boolean distinct;
+    private final List<Path> files;
+    private final List<VersionReader> readers;
+    private final PriorityQueue<Head> heads;
+    private final int runCount;
+    private final long inputCount;
+    private Version last;
+    private boolean closed;
+
+    private SortedVersions(final boolean distinct, final List<Path> files, final Version[] memoryRun, final long inputCount) throws IOException {
+      this.distinct = distinct;
+      this.files = files;
+      this.readers = new ArrayList<>(files.size());
+      this.heads = new PriorityQueue<>(files.size() + 1, (a, b) -> ORDER.compare(a.version, b.version));
+      this.runCount = files.size() + (memoryRun.length == 0 ? 0 : 1);
+      this.inputCount = inputCount;
+      try {
+        for (final Path file : files) {
+          final VersionReader reader = new VersionReader(Files.newInputStream(file));
+          this.readers.add(reader);
+          this.advance(new Head(reader, null));
+        }
+        this.advance(new Head(null, memoryRun));
+      } catch (IOException | RuntimeException ex) {
+        this.close();
+        throw ex;
+      }
+    }
+
+    private void advance(final Head head) throws IOException {
+      if (head.reader == null) {
+        head.version = head.index < head.array.length ? head.array[head.index++] : null;
+      } else {
+        head.version = head.reader.readVersion();
+      }
+      if (head.version != null) {
+        this.heads.add(head);
+      }
+    }
+
+    /**
+     * Read the next version.
+     *
+     * @return the next version in sorted order or null if there are no more versions
+     * @throws IOException if any transport error
+     * @since 1.0.1
+     */
+    public Version readVersion() throws IOException {
+      if (this.closed) {
+        throw new IOException("Already closed");
+      }
+      Version result = null;
+      while (result == null && !this.heads.isEmpty()) {
+        final Head head = this.heads.poll();
+        final Version version = head.version;
+        this.advance(head);
+        if (!this.distinct || !version.equals(this.last)) {
+          result = version;
+        }
+        this.last = version;
+      }
+      return result;
+    }
+
+    /**
+     * Get number of runs merged by the result, runs which are kept in memory are counted too.
+     *
+     * @return number of runs
+     * @since 1.0.1
+     */
+    public int getRunCount() {
+      return this.runCount;
+    }
+
+    /**
+     * Get number of versions provided for sorting, including duplicates.
+     *
+     * @return number of versions
+     * @since 1.0.1
+     */
+    public long getInputCount() {
+      return this.inputCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!this.closed) {
+        this.closed = true;
+        this.heads.clear();
+        IOException error = null;
+        for (final VersionReader reader : this.readers) {
+          try {
+            reader.close();
+          } catch (IOException ex) {
+            error = ex;
+          }
+        }
+        deleteAll(this.files);
+        if (error != null) {
+          throw error;
+        }
+      }
+    }
+
+    private static final class Head {
+
+      private final VersionReader reader;
+      private final Version[] array;
+      private int index;
+      private Version version;
+
+      private Head(final VersionReader reader, final Version[] array) {
+        this.reader = reader;
+        this.array = array;
+      }
+    }
+  }
+}
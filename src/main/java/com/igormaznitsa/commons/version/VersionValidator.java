@@ -16,10 +16,19 @@
 package com.igormaznitsa.commons.version;
 
 import com.igormaznitsa.commons.version.operators.DefaultExpressionParser;
+import com.igormaznitsa.commons.version.operators.ExpressionOptimizer;
 import com.igormaznitsa.commons.version.operators.ExpressionParser;
 import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorIntervals;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Class allows to define rules to validate versions. It supports logical AND(,) and OR(;) operators. OR has less priority(!)
@@ -31,7 +40,15 @@ public final class VersionValidator implements Serializable {
 
   private static final long serialVersionUID = 641987018021820537L;
   private static final ExpressionParser DEFAULT_EXPRESSION_PARSER = new DefaultExpressionParser();
+  private static final int DEFAULT_EXPRESSION_CACHE_SIZE = 1024;
+  private static final boolean VERSION_ARG = true;
+  private static final boolean VIEW_ARG = false;
+  private static volatile ExpressionCache expressionCache = ExpressionCache.newLruCache(DEFAULT_EXPRESSION_CACHE_SIZE, DEFAULT_EXPRESSION_PARSER);
   private final Operator expressionRoot;
+  private final boolean compiled;
+  private final transient Operator evaluator;
+  private transient volatile String expressionText;
+  private transient volatile Operator batchEvaluator;
 
   /**
    * Make validator based on parsed expression.
@@ -40,7 +57,13 @@ public final class VersionValidator implements Serializable {
    * @since 1.0.0
    */
   public VersionValidator(final Operator expressionRoot) {
+    this(expressionRoot, expressionRoot);
+  }
+
+  private VersionValidator(final Operator expressionRoot, final Operator evaluator) {
     this.expressionRoot = expressionRoot;
+    this.evaluator = evaluator;
+    this.compiled = evaluator != expressionRoot;
   }
 
   /**
@@ -66,6 +89,43 @@ public final class VersionValidator implements Serializable {
     this(expression == null ? null : parser.parse(expression));
   }
 
+  /**
+   * Make validator for expression through the current expression cache, validators made for the same expression share the parsed tree.
+   *
+   * @param expression expression for validator, it can be null but in the case the result will be false every time
+   * @return validator, must not be null
+   * @see #setExpressionCache(ExpressionCache)
+   * @since 1.0.1
+   */
+  public static VersionValidator of(final String expression) {
+    return new VersionValidator(expression == null ? null : expressionCache.get(expression));
+  }
+
+  /**
+   * Get the cache used by {@link #of(String)}. By default it is LRU cache for 1024 expressions.
+   *
+   * @return the current cache, must not be null
+   * @since 1.0.1
+   */
+  public static ExpressionCache getExpressionCache() {
+    return expressionCache;
+  }
+
+  /**
+   * Replace the cache used by {@link #of(String)}.
+   *
+   * @param newCache new cache, must not be null
+   * @see ExpressionCache#newLruCache(int)
+   * @see ExpressionCache#newFifoCache(int)
+   * @since 1.0.1
+   */
+  public static void setExpressionCache(final ExpressionCache newCache) {
+    if (newCache == null) {
+      throw new NullPointerException("Cache must not be null");
+    }
+    expressionCache = newCache;
+  }
+
   /**
    * Get the parsed expression tree root.
    *
@@ -76,6 +136,49 @@ public final class VersionValidator implements Serializable {
     return this.expressionRoot;
   }
 
+  /**
+   * Make validator which checks versions by compiled form of the expression. The expression tree is converted into sorted set of disjoint version intervals so that a check is a binary search. If the expression can't be compiled then the tree is used.
+   *
+   * @return validator with compiled expression, it has the same expression root
+   * @see OperatorIntervals
+   * @since 1.0.1
+   */
+  public VersionValidator compile() {
+    return new VersionValidator(this.expressionRoot, OperatorIntervals.compile(this.expressionRoot));
+  }
+
+  /**
+   * Make validator with optimized expression tree where overlapping ranges are merged, redundant conditions are removed and contradictions are replaced by constant.
+   *
+   * @return validator with semantically equivalent optimized expression
+   * @see ExpressionOptimizer
+   * @since 1.0.1
+   */
+  public VersionValidator optimize() {
+    return new VersionValidator(ExpressionOptimizer.optimize(this.expressionRoot));
+  }
+
+  /**
+   * Make predicate from the evaluator of the validator, leaves of the expression are compiled with pre-decomposed base versions and without dispatch by condition.
+   *
+   * @return predicate which gives the same results as {@link #isValid(Version)}
+   * @see PredicateCompiler
+   * @since 1.0.1
+   */
+  public Predicate<Version> toPredicate() {
+    return PredicateCompiler.compile(this.evaluator);
+  }
+
+  /**
+   * Get operator which is used to check versions, it is either the expression root or its compiled form.
+   *
+   * @return the operator to check versions, it can be null
+   * @since 1.0.1
+   */
+  public Operator getEvaluator() {
+    return this.evaluator;
+  }
+
   /**
    * Validate version for the rule.
    *
@@ -84,13 +187,197 @@ public final class VersionValidator implements Serializable {
    * @since 1.0.0
    */
   public boolean isValid(final Version version) {
+    final Instrumentation listener = Version.getInstrumentation();
+    if (listener != null) {
+      return this.isValidInstrumented(listener, version, VERSION_ARG);
+    }
+    boolean result = false;
+    if (this.evaluator != null) {
+      result = this.evaluator.isValid(version);
+    }
+    return result;
+  }
+
+  /**
+   * Validate version view for the rule, operators of the library check the view without making version object.
+   *
+   * @param version view of the version to be checked, it can be null
+   * @return true if the version is valid or false if the version is null or not valid from point of view the rule.
+   * @see VersionParser
+   * @since 1.0.1
+   */
+  public boolean isValid(final VersionView version) {
+    final Instrumentation listener = Version.getInstrumentation();
+    if (listener != null) {
+      return this.isValidInstrumented(listener, version, VIEW_ARG);
+    }
     boolean result = false;
-    if (this.expressionRoot != null) {
-      result = this.expressionRoot.isValid(version);
+    if (this.evaluator != null) {
+      result = this.evaluator.isValid(version);
     }
     return result;
   }
 
+  private boolean isValidInstrumented(final Instrumentation listener, final VersionView version, final boolean asVersion) {
+    final long started = System.nanoTime();
+    final int[] leafChecks = new int[1];
+    final boolean result = this.evaluator != null && check(this.evaluator, version, asVersion, leafChecks);
+    listener.versionValidated(this, result, leafChecks[0], System.nanoTime() - started);
+    return result;
+  }
+
+  /**
+   * Check version by operator tree in the same way as operators do it, but counting checked leaves.
+   */
+  private static boolean check(final Operator operator, final VersionView version, final boolean asVersion, final int[] leafChecks) {
+    boolean result;
+    if (operator instanceof OperatorAnd) {
+      final List<Operator> operands = ((OperatorAnd) operator).getOperands();
+      result = version != null;
+      for (int i = 0; result && i < operands.size(); i++) {
+        result = check(operands.get(i), version, asVersion, leafChecks);
+      }
+    } else if (operator instanceof OperatorOr) {
+      final List<Operator> operands = ((OperatorOr) operator).getOperands();
+      result = false;
+      for (int i = 0; !result && version != null && i < operands.size(); i++) {
+        result = check(operands.get(i), version, asVersion, leafChecks);
+      }
+    } else {
+      leafChecks[0]++;
+      result = asVersion ? operator.isValid((Version) version) : operator.isValid(version);
+    }
+    return result;
+  }
+
+  /**
+   * Get text of the expression tree, it is made once and used as key of the expression for instrumentation.
+   *
+   * @return text of the expression, empty for null expression
+   */
+  String getExpressionText() {
+    String result = this.expressionText;
+    if (result == null) {
+      result = this.expressionRoot == null ? "" : this.expressionRoot.toString();
+      this.expressionText = result;
+    }
+    return result;
+  }
+
+  /**
+   * Get compiled form of the expression for batch checks, it is made during the first call and kept by the validator.
+   */
+  private Operator getBatchEvaluator() {
+    Operator result = this.evaluator instanceof OperatorIntervals ? this.evaluator : this.batchEvaluator;
+    if (result == null && this.expressionRoot != null) {
+      result = OperatorIntervals.compile(this.expressionRoot);
+      this.batchEvaluator = result;
+    }
+    return result;
+  }
+
+  /**
+   * Validate array of versions in one call. If the validator is not compiled then the expression is compiled during the first batch call and the compiled form is reused by next batch calls.
+   *
+   * @param versions versions to be checked, must not be null but can contain null elements
+   * @param result   array to get results, its length must not be less than number of versions
+   * @throws IllegalArgumentException if the result array is too short
+   * @see #compile()
+   * @since 1.0.1
+   */
+  public void validateAll(final Version[] versions, final boolean[] result) {
+    if (result.length < versions.length) {
+      throw new IllegalArgumentException("Result array is too short : " + result.length + " < " + versions.length);
+    }
+    final Instrumentation listener = Version.getInstrumentation();
+    final long started = listener == null ? 0L : System.nanoTime();
+    final Operator operator = this.getBatchEvaluator();
+    if (operator instanceof OperatorIntervals) {
+      final OperatorIntervals intervals = (OperatorIntervals) operator;
+      for (int i = 0; i < versions.length; i++) {
+        final Version version = versions[i];
+        result[i] = version != null && intervals.indexOf(version) >= 0;
+      }
+    } else {
+      for (int i = 0; i < versions.length; i++) {
+        result[i] = operator != null && operator.isValid(versions[i]);
+      }
+    }
+    if (listener != null) {
+      int accepted = 0;
+      for (int i = 0; i < versions.length; i++) {
+        if (result[i]) {
+          accepted++;
+        }
+      }
+      listener.versionsValidated(this, versions.length, accepted, System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Validate list of versions in one call. If the validator is not compiled then the expression is compiled during the first batch call and the compiled form is reused by next batch calls.
+   *
+   * @param versions versions to be checked, must not be null but can contain null elements
+   * @return bit set where set bits are indexes of valid versions
+   * @see #compile()
+   * @since 1.0.1
+   */
+  public BitSet validateAll(final List<? extends Version> versions) {
+    final Instrumentation listener = Version.getInstrumentation();
+    final long started = listener == null ? 0L : System.nanoTime();
+    final BitSet result = new BitSet(versions.size());
+    final Operator operator = this.getBatchEvaluator();
+    if (operator != null) {
+      int index = 0;
+      for (final Version version : versions) {
+        if (operator.isValid(version)) {
+          result.set(index);
+        }
+        index++;
+      }
+    }
+    if (listener != null) {
+      listener.versionsValidated(this, versions.size(), result.cardinality(), System.nanoTime() - started);
+    }
+    return result;
+  }
+
+  /**
+   * Get only valid versions from a collection. If the validator is not compiled then the expression is compiled during the first batch call and the compiled form is reused by next batch calls.
+   *
+   * @param versions versions to be filtered, must not be null but can contain null elements
+   * @return list of valid versions in order of the collection iterator
+   * @see #compile()
+   * @since 1.0.1
+   */
+  public List<Version> filter(final Collection<? extends Version> versions) {
+    final Instrumentation listener = Version.getInstrumentation();
+    final long started = listener == null ? 0L : System.nanoTime();
+    final List<Version> result = new ArrayList<>();
+    final Operator operator = this.getBatchEvaluator();
+    if (operator != null) {
+      for (final Version version : versions) {
+        if (operator.isValid(version)) {
+          result.add(version);
+        }
+      }
+    }
+    if (listener != null) {
+      listener.versionsValidated(this, versions.size(), result.size(), System.nanoTime() - started);
+    }
+    return result;
+  }
+
+  /**
+   * Only the expression tree and the flag of compiled form are serialized, the evaluator is made again after reading.
+   *
+   * @return validator with restored evaluator
+   */
+  private Object readResolve() {
+    final VersionValidator result = new VersionValidator(this.expressionRoot);
+    return this.compiled ? result.compile() : result;
+  }
+
   @Override
   public String toString() {
     return VersionValidator.class.getSimpleName() + (this.expressionRoot == null ? "[]" : '[' + this.expressionRoot.toString() + ']');
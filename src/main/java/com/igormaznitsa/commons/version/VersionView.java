@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+/**
+ * Read-only view of version parts. It allows operators to check versions without making {@link Version} objects, for instance versions parsed by {@link VersionParser}.
+ *
+ * @see com.igormaznitsa.commons.version.operators.Operator#isValid(VersionView)
+ * @since 1.0.1
+ */
+public interface VersionView {
+
+  /**
+   * Compare two version views in the same order as {@link Version#compareTo(Version)}.
+   *
+   * @param a the first view, must not be null
+   * @param b the second view, must not be null
+   * @return negative value if the first version is less than the second one, zero if they are equal, positive value otherwise
+   * @since 1.0.1
+   */
+  static int compare(final VersionView a, final VersionView b) {
+    int result = VersionScanner.compareText(a.getPrefix(), b.getPrefix());
+    if (result == 0) {
+      final int max = Math.max(a.getNumericPartCount(), b.getNumericPartCount());
+      for (int i = 0; i < max && result == 0; i++) {
+        result = Long.compare(a.getNumericPartAtPosition(i), b.getNumericPartAtPosition(i));
+      }
+      if (result == 0) {
+        result = VersionScanner.compareText(a.getPostfix(), b.getPostfix());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the prefix part.
+   *
+   * @return the prefix, must not be null
+   * @since 1.0.1
+   */
+  CharSequence getPrefix();
+
+  /**
+   * Get the postfix part.
+   *
+   * @return the postfix, must not be null
+   * @since 1.0.1
+   */
+  CharSequence getPostfix();
+
+  /**
+   * Get number of numeric parts.
+   *
+   * @return number of numeric parts
+   * @since 1.0.1
+   */
+  int getNumericPartCount();
+
+  /**
+   * Get numeric part at position.
+   *
+   * @param position the position of needed numeric part
+   * @return the numeric part, if it is not presented then 0 will be returned
+   * @since 1.0.1
+   */
+  long getNumericPartAtPosition(int position);
+
+  /**
+   * Make immutable version with the same parts.
+   *
+   * @return version, must not be null
+   * @since 1.0.1
+   */
+  Version toVersion();
+}
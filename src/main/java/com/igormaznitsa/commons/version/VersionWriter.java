@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writer of versions and operator trees into stream in compact format of {@link VersionCodec}. All records of the stream share one string dictionary so that every prefix and postfix is written as text only once.
+ * The stream can be read by {@link VersionReader}. The class is not thread-safe.
+ *
+ * @since 1.0.1
+ */
+public final class VersionWriter implements Closeable, Flushable {
+
+  static final int MAGIC = 0x5643;
+  static final int FORMAT = 1;
+
+  static final int RECORD_VERSION = 1;
+  static final int RECORD_OPERATOR = 2;
+
+  private final DataOutputStream out;
+  private final VersionCodec codec = new VersionCodec();
+  private long count;
+
+  /**
+   * Constructor, it writes stream header immediately.
+   *
+   * @param out target stream, must not be null, it will be closed together with the writer
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public VersionWriter(final OutputStream out) throws IOException {
+    this.out = new DataOutputStream(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out));
+    this.out.writeShort(MAGIC);
+    this.out.writeByte(FORMAT);
+  }
+
+  /**
+   * Write version.
+   *
+   * @param version version to be written, must not be null
+   * @return the writer
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public VersionWriter write(final Version version) throws IOException {
+    this.out.writeByte(RECORD_VERSION);
+    this.codec.writeVersion(this.out, version);
+    this.count++;
+    return this;
+  }
+
+  /**
+   * Write operator tree.
+   *
+   * @param operator root of operator tree, it can be null
+   * @return the writer
+   * @throws IOException              if any transport error
+   * @throws IllegalArgumentException if the tree contains unsupported operator
+   * @since 1.0.1
+   */
+  public VersionWriter write(final Operator operator) throws IOException {
+    this.out.writeByte(RECORD_OPERATOR);
+    this.codec.writeOperator(this.out, operator);
+    this.count++;
+    return this;
+  }
+
+  /**
+   * Write validator as its expression tree.
+   *
+   * @param validator validator to be written, must not be null
+   * @return the writer
+   * @throws IOException if any transport error
+   * @since 1.0.1
+   */
+  public VersionWriter write(final VersionValidator validator) throws IOException {
+    return this.write(validator.getExpressionRoot());
+  }
+
+  /**
+   * Get number of written records.
+   *
+   * @return number of records
+   * @since 1.0.1
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+}
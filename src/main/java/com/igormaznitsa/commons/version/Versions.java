@@ -0,0 +1,286 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Auxiliary methods to process arrays and lists of versions.
+ *
+ * @since 1.0.1
+ */
+public final class Versions {
+
+  /**
+   * Ranges shorter than the value are sorted by insertion sort.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+
+  /**
+   * Ranges longer than the value are sorted in separated fork/join tasks by parallel sort.
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  private static final Comparator<Version> POSTFIX_ORDER = (a, b) -> a.getPostfix().compareTo(b.getPostfix());
+
+  private Versions() {
+  }
+
+  /**
+   * Sort array of versions in order of {@link Version#compareTo(Version)}.
+   * Versions are distributed by prefixes, then sorted by radix sort over numeric parts part by part, and versions with equal numeric parts are sorted by postfixes, so that the whole prefix and every numeric part are compared only once for most of versions.
+   * The sort is stable and gives the same result as {@link Arrays#sort(Object[])}.
+   *
+   * @param versions array to be sorted, must not be null and must not contain null
+   * @since 1.0.1
+   */
+  public static void sort(final Version[] versions) {
+    sort(versions, 0, versions.length);
+  }
+
+  /**
+   * Sort range of array of versions in order of {@link Version#compareTo(Version)}.
+   *
+   * @param versions array to be sorted, must not be null and must not contain null in the range
+   * @param from     the first index of the range, inclusive
+   * @param to       the last index of the range, exclusive
+   * @throws IndexOutOfBoundsException if wrong range
+   * @see #sort(Version[])
+   * @since 1.0.1
+   */
+  public static void sort(final Version[] versions, final int from, final int to) {
+    checkRange(versions.length, from, to);
+    new Sorter(versions, false).sort(from, to);
+  }
+
+  /**
+   * Sort list of versions in order of {@link Version#compareTo(Version)}.
+   *
+   * @param versions list to be sorted, must not be null and must not contain null
+   * @see #sort(Version[])
+   * @since 1.0.1
+   */
+  public static void sort(final List<Version> versions) {
+    final Version[] array = versions.toArray(new Version[0]);
+    sort(array);
+    final ListIterator<Version> iterator = versions.listIterator();
+    for (final Version version : array) {
+      iterator.next();
+      iterator.set(version);
+    }
+  }
+
+  /**
+   * Sort array of versions in order of {@link Version#compareTo(Version)} with use of common fork/join pool. Small arrays are sorted in the current thread.
+   *
+   * @param versions array to be sorted, must not be null and must not contain null
+   * @see #sort(Version[])
+   * @since 1.0.1
+   */
+  public static void parallelSort(final Version[] versions) {
+    if (versions.length <= PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() <= 1) {
+      sort(versions);
+    } else {
+      final Sorter sorter = new Sorter(versions, true);
+      ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+        private static final long serialVersionUID = -4516418214536787393L;
+
+        @Override
+        protected void compute() {
+          sorter.sort(0, versions.length);
+        }
+      });
+    }
+  }
+
+  static void checkRange(final int length, final int from, final int to) {
+    if (from < 0 || to > length || from > to) {
+      throw new IndexOutOfBoundsException("Wrong range " + from + ".." + to + " for length " + length);
+    }
+  }
+
+  /**
+   * Numeric part as a key in signed order, the same as in {@link Version#compareTo(Version)}, missing trailing parts are zero.
+   */
+  private static long keyOf(final Version version, final int depth) {
+    final long[] parts = version.getNumericParts();
+    return depth < parts.length ? parts[depth] : 0L;
+  }
+
+  private static final class Sorter {
+
+    private final Version[] array;
+    private final Version[] buffer;
+    private final boolean parallel;
+
+    private Sorter(final Version[] array, final boolean parallel) {
+      this.array = array;
+      this.buffer = new Version[array.length];
+      this.parallel = parallel;
+    }
+
+    private void sort(final int from, final int to) {
+      if (to - from < INSERTION_SORT_THRESHOLD) {
+        this.insertionSort(from, to);
+        return;
+      }
+
+      // stable distribution by prefixes
+      final Map<String, int[]> positions = new HashMap<>();
+      for (int i = from; i < to; i++) {
+        final int[] counter = positions.get(this.array[i].getPrefix());
+        if (counter == null) {
+          positions.put(this.array[i].getPrefix(), new int[]{1});
+        } else {
+          counter[0]++;
+        }
+      }
+
+      if (positions.size() == 1) {
+        this.sortByParts(from, to, 0);
+      } else {
+        final String[] prefixes = positions.keySet().toArray(new String[0]);
+        Arrays.sort(prefixes);
+        final int[] bounds = new int[prefixes.length + 1];
+        bounds[0] = from;
+        for (int i = 0; i < prefixes.length; i++) {
+          final int[] counter = positions.get(prefixes[i]);
+          bounds[i + 1] = bounds[i] + counter[0];
+          counter[0] = bounds[i];
+        }
+        System.arraycopy(this.array, from, this.buffer, from, to - from);
+        for (int i = from; i < to; i++) {
+          this.array[positions.get(this.buffer[i].getPrefix())[0]++] = this.buffer[i];
+        }
+
+        final List<RecursiveAction> tasks = new ArrayList<>();
+        for (int i = 0; i < prefixes.length; i++) {
+          this.sortOrFork(bounds[i], bounds[i + 1], 0, tasks);
+        }
+        RecursiveAction.invokeAll(tasks);
+      }
+    }
+
+    private void sortOrFork(final int from, final int to, final int depth, final List<RecursiveAction> tasks) {
+      if (this.parallel && to - from > PARALLEL_THRESHOLD) {
+        tasks.add(new RecursiveAction() {
+          private static final long serialVersionUID = 3305296316823183417L;
+
+          @Override
+          protected void compute() {
+            Sorter.this.sortByParts(from, to, depth);
+          }
+        });
+      } else {
+        this.sortByParts(from, to, depth);
+      }
+    }
+
+    /**
+     * Sort range of versions with the same prefix and the same numeric parts before the depth.
+     */
+    private void sortByParts(final int from, final int to, final int startDepth) {
+      int depth = startDepth;
+      long min;
+      long max;
+      while (true) {
+        if (to - from < INSERTION_SORT_THRESHOLD) {
+          this.insertionSort(from, to);
+          return;
+        }
+
+        int maxLength = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+          maxLength = Math.max(maxLength, this.array[i].getNumericParts().length);
+          final long key = keyOf(this.array[i], depth);
+          min = Math.min(min, key);
+          max = Math.max(max, key);
+        }
+
+        if (depth >= maxLength) {
+          Arrays.sort(this.array, from, to, POSTFIX_ORDER);
+          return;
+        }
+        if (min != max) {
+          break;
+        }
+        depth++;
+      }
+
+      this.radixSort(from, to, depth, min, max);
+
+      final List<RecursiveAction> tasks = new ArrayList<>();
+      int start = from;
+      long key = keyOf(this.array[from], depth);
+      for (int i = from + 1; i <= to; i++) {
+        final long next = i < to ? keyOf(this.array[i], depth) : ~key;
+        if (next != key) {
+          if (i - start > 1) {
+            this.sortOrFork(start, i, depth + 1, tasks);
+          }
+          start = i;
+          key = next;
+        }
+      }
+      RecursiveAction.invokeAll(tasks);
+    }
+
+    /**
+     * Stable LSD radix sort of range by numeric part at the depth, keys are shifted by the minimal key so that only bytes which differ in the range are processed.
+     */
+    private void radixSort(final int from, final int to, final int depth, final long min, final long max) {
+      final int bytes = (64 - Long.numberOfLeadingZeros(max - min) + 7) / 8;
+
+      final int[] counts = new int[257];
+      for (int shift = 0; shift < bytes * 8; shift += 8) {
+        Arrays.fill(counts, 0);
+        for (int i = from; i < to; i++) {
+          counts[(int) (((keyOf(this.array[i], depth) - min) >>> shift) & 0xFF) + 1]++;
+        }
+        counts[0] = from;
+        for (int i = 1; i < counts.length; i++) {
+          counts[i] += counts[i - 1];
+        }
+        for (int i = from; i < to; i++) {
+          this.buffer[counts[(int) (((keyOf(this.array[i], depth) - min) >>> shift) & 0xFF)]++] = this.array[i];
+        }
+        System.arraycopy(this.buffer, from, this.array, from, to - from);
+      }
+    }
+
+    private void insertionSort(final int from, final int to) {
+      for (int i = from + 1; i < to; i++) {
+        final Version version = this.array[i];
+        int j = i - 1;
+        while (j >= from && this.array[j].compareTo(version) > 0) {
+          this.array[j + 1] = this.array[j];
+          j--;
+        }
+        this.array[j + 1] = version;
+      }
+    }
+  }
+}
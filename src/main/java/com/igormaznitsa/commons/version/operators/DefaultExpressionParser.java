@@ -15,13 +15,17 @@
  */
 package com.igormaznitsa.commons.version.operators;
 
+import com.igormaznitsa.commons.version.Instrumentation;
 import com.igormaznitsa.commons.version.Version;
 
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Default expression parser for version validator.
+ * Default expression parser for version validator. Well-formed expressions are parsed in linear time by {@link StrictExpressionParser}, malformed ones are parsed by regular expressions in lenient way, for instance mistyped condition becomes part of version.
  *
  * @since 1.0.0
  */
@@ -32,29 +36,88 @@ public final class DefaultExpressionParser implements ExpressionParser {
   private static final Pattern PATTERN_LEAF = Pattern.compile("(!=|>=|<=|>|<|=)\\s*(.*)");
   private static final Pattern PATTERN_OR = Pattern.compile("(.+);(.+)");
   private static final Pattern PATTERN_AND = Pattern.compile("(.+),(.+)");
+  private static final StrictExpressionParser STRICT_PARSER = new StrictExpressionParser();
+
+  private static boolean hasLineTerminator(final String text) {
+    for (int i = 0; i < text.length(); i++) {
+      final char chr = text.charAt(i);
+      if (chr == '\n' || chr == '\r' || chr == '\u0085' || chr == '\u2028' || chr == '\u2029') {
+        return true;
+      }
+    }
+    return false;
+  }
 
   @Override
   public Operator parse(final String text) {
+    final Instrumentation listener = Version.getInstrumentation();
+    final long started = listener == null ? 0L : System.nanoTime();
+    Operator result = null;
+    boolean lenient = true;
+    if (text != null && !hasLineTerminator(text)) {
+      try {
+        result = STRICT_PARSER.parse(text);
+        lenient = false;
+      } catch (ExpressionParseException ex) {
+        // malformed expression is processed by regular expressions
+      }
+    }
+    if (lenient) {
+      result = this.parseLenient(text);
+    }
+    if (listener != null) {
+      listener.expressionParsed(text, result, lenient && text != null, System.nanoTime() - started);
+    }
+    return result;
+  }
+
+  /**
+   * Split text by the last separator while both parts are not empty, it is the same split as recursive matching of greedy pattern.
+   *
+   * @param text    trimmed text
+   * @param pattern pattern with two groups, text before and after separator
+   * @return parts of text in original order, not trimmed
+   */
+  private static List<String> splitLenient(final String text, final Pattern pattern) {
+    final LinkedList<String> result = new LinkedList<>();
+    String rest = text;
+    while (true) {
+      final Matcher matcher = pattern.matcher(rest);
+      if (!matcher.matches()) {
+        break;
+      }
+      result.addFirst(matcher.group(2));
+      rest = matcher.group(1).trim();
+    }
+    result.addFirst(rest);
+    return result;
+  }
+
+  private Operator parseLenient(final String text) {
     Operator result = null;
     if (text != null) {
-      final String trimmed = text.trim();
-
-      final Matcher orMatcher = PATTERN_OR.matcher(trimmed);
-      if (orMatcher.matches()) {
-        result = new OperatorOr(parse(orMatcher.group(1)), parse(orMatcher.group(2)));
-      } else {
-        final Matcher andMatcher = PATTERN_AND.matcher(trimmed);
-        if (andMatcher.matches()) {
-          result = new OperatorAnd(parse(andMatcher.group(1)), parse(andMatcher.group(2)));
-        } else {
-          final Matcher leaf = PATTERN_LEAF.matcher(trimmed);
-          if (leaf.matches()) {
-            result = new OperatorLeaf(Condition.decode(leaf.group(1)), new Version(leaf.group(2)));
-          } else {
-            result = new OperatorLeaf(Condition.EQU, new Version(trimmed));
-          }
+      final List<String> orParts = splitLenient(text.trim(), PATTERN_OR);
+      final List<Operator> orOperands = new ArrayList<>(orParts.size());
+      for (final String orPart : orParts) {
+        final List<String> andParts = splitLenient(orPart.trim(), PATTERN_AND);
+        final List<Operator> andOperands = new ArrayList<>(andParts.size());
+        for (final String andPart : andParts) {
+          andOperands.add(parseLeafLenient(andPart.trim()));
         }
+        orOperands.add(andOperands.size() == 1 ? andOperands.get(0) : new OperatorAnd(andOperands));
       }
+      result = orOperands.size() == 1 ? orOperands.get(0) : new OperatorOr(orOperands);
+    }
+    return result;
+  }
+
+  private static Operator parseLeafLenient(final String trimmed) {
+    final Operator result;
+    final Matcher leaf = PATTERN_LEAF.matcher(trimmed);
+    if (leaf.matches()) {
+      result = new OperatorLeaf(Condition.decode(leaf.group(1)), new Version(leaf.group(2)));
+    } else {
+      result = new OperatorLeaf(Condition.EQU, new Version(trimmed));
     }
     return result;
   }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optimizer of operator trees. Parts of tree built from {@link OperatorAnd}, {@link OperatorOr} and {@link OperatorLeaf} with known conditions are converted into sorted disjoint version intervals and built again, so that overlapping ranges are merged, subsumed leaves are dropped and contradictions are folded into {@link OperatorConstant#FALSE}.
+ * Every built range checks its bounds before excluded points, so that AND operators reject most versions by the first leaf. Result is semantically equivalent to the source tree and also can be shown as an expression.
+ *
+ * @since 1.0.1
+ */
+public final class ExpressionOptimizer {
+
+  private ExpressionOptimizer() {
+  }
+
+  /**
+   * Optimize operator tree.
+   *
+   * @param root root of operator tree, it can be null
+   * @return root of optimized tree, null for null
+   * @since 1.0.1
+   */
+  public static Operator optimize(final Operator root) {
+    if (root == null) {
+      return null;
+    }
+    final List<VersionInterval> intervals = OperatorIntervals.toIntervals(root);
+    final Operator result;
+    if (intervals != null) {
+      result = build(intervals);
+    } else if (root instanceof OperatorAnd) {
+      final List<Operator> operands = new ArrayList<>();
+      for (final Operator operand : ((OperatorAnd) root).getOperands()) {
+        operands.add(optimize(operand));
+      }
+      result = and(operands);
+    } else if (root instanceof OperatorOr) {
+      final List<Operator> operands = new ArrayList<>();
+      for (final Operator operand : ((OperatorOr) root).getOperands()) {
+        operands.add(optimize(operand));
+      }
+      result = or(operands);
+    } else {
+      result = root;
+    }
+    return result;
+  }
+
+  private static Operator and(final List<Operator> operands) {
+    final List<Operator> left = new ArrayList<>(operands.size());
+    for (final Operator operand : operands) {
+      if (operand == OperatorConstant.FALSE) {
+        return OperatorConstant.FALSE;
+      }
+      if (operand != OperatorConstant.TRUE) {
+        left.add(operand);
+      }
+    }
+    return left.isEmpty() ? OperatorConstant.TRUE : left.size() == 1 ? left.get(0) : new OperatorAnd(left);
+  }
+
+  private static Operator or(final List<Operator> operands) {
+    final List<Operator> left = new ArrayList<>(operands.size());
+    for (final Operator operand : operands) {
+      if (operand == OperatorConstant.TRUE) {
+        return OperatorConstant.TRUE;
+      }
+      if (operand != OperatorConstant.FALSE) {
+        left.add(operand);
+      }
+    }
+    return left.isEmpty() ? OperatorConstant.FALSE : left.size() == 1 ? left.get(0) : new OperatorOr(left);
+  }
+
+  /**
+   * Build tree from sorted disjoint intervals. Neighbour intervals separated by one excluded point are joined into one range with {@link Condition#NOT_EQU} leaf.
+   */
+  static Operator build(final List<VersionInterval> intervals) {
+    final List<Operator> ranges = new ArrayList<>();
+    int index = 0;
+    while (index < intervals.size()) {
+      final VersionInterval first = intervals.get(index);
+      final List<Version> excluded = new ArrayList<>();
+      VersionInterval last = first;
+      index++;
+      while (index < intervals.size()) {
+        final VersionInterval next = intervals.get(index);
+        if (last.getUpper() == null || last.isUpperInclusive() || next.getLower() == null || next.isLowerInclusive() || last.getUpper().compareTo(next.getLower()) != 0) {
+          break;
+        }
+        excluded.add(next.getLower());
+        last = next;
+        index++;
+      }
+      ranges.add(range(first.getLower(), first.isLowerInclusive(), last.getUpper(), last.isUpperInclusive(), excluded));
+    }
+    return or(ranges);
+  }
+
+  private static Operator range(final Version lower, final boolean lowerInclusive, final Version upper, final boolean upperInclusive, final List<Version> excluded) {
+    if (lower != null && upper != null && lowerInclusive && upperInclusive && lower.compareTo(upper) == 0) {
+      return new OperatorLeaf(Condition.EQU, lower);
+    }
+    final List<Operator> leaves = new ArrayList<>(excluded.size() + 2);
+    if (lower != null) {
+      leaves.add(new OperatorLeaf(lowerInclusive ? Condition.GREAT_OR_EQU : Condition.GREAT, lower));
+    }
+    if (upper != null) {
+      leaves.add(new OperatorLeaf(upperInclusive ? Condition.LESS_OR_EQU : Condition.LESS, upper));
+    }
+    for (final Version point : excluded) {
+      leaves.add(new OperatorLeaf(Condition.NOT_EQU, point));
+    }
+    return and(leaves);
+  }
+}
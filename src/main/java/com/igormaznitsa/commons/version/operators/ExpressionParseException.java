@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+/**
+ * Exception thrown for malformed expression, it contains position of the detected error.
+ *
+ * @see StrictExpressionParser
+ * @since 1.0.1
+ */
+public final class ExpressionParseException extends IllegalArgumentException {
+
+  private static final long serialVersionUID = -6210436431298418567L;
+
+  private final int position;
+
+  /**
+   * Constructor.
+   *
+   * @param message  description of the error
+   * @param position position of the error in the expression
+   * @since 1.0.1
+   */
+  public ExpressionParseException(final String message, final int position) {
+    super(message + " at position " + position);
+    this.position = position;
+  }
+
+  /**
+   * Get position of the error in the expression.
+   *
+   * @return zero based position of the error
+   * @since 1.0.1
+   */
+  public int getPosition() {
+    return this.position;
+  }
+}
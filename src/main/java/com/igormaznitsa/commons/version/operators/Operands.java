@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Auxiliary methods for operators with many operands.
+ */
+final class Operands {
+
+  private Operands() {
+  }
+
+  /**
+   * Make array of operands.
+   *
+   * @param operands operands, must contain at least two operands
+   * @return array of operands
+   * @throws IllegalArgumentException if there are less than two operands
+   */
+  static Operator[] toArray(final Collection<? extends Operator> operands) {
+    if (operands.size() < 2) {
+      throw new IllegalArgumentException("Expected at least two operands : " + operands.size());
+    }
+    return operands.toArray(new Operator[0]);
+  }
+
+  /**
+   * Make flat array of two operands, operands of the same type are replaced by their own operands. It is used to restore operators from balanced binary trees.
+   *
+   * @param type type of the operator
+   * @param a    the left operand
+   * @param b    the right operand
+   * @return flat array of operands
+   */
+  static Operator[] flatten(final Class<? extends Operator> type, final Operator a, final Operator b) {
+    final List<Operator> result = new ArrayList<>();
+    for (final Operator operand : new Operator[]{a, b}) {
+      if (operand instanceof OperatorAnd && type == OperatorAnd.class) {
+        result.addAll(((OperatorAnd) operand).getOperands());
+      } else if (operand instanceof OperatorOr && type == OperatorOr.class) {
+        result.addAll(((OperatorOr) operand).getOperands());
+      } else {
+        result.add(operand);
+      }
+    }
+    return result.toArray(new Operator[0]);
+  }
+
+  /**
+   * Make text of operands joined by separator.
+   *
+   * @param operands  operands, must not be null
+   * @param separator separator of operands
+   * @return joined text
+   */
+  static String join(final Operator[] operands, final char separator) {
+    final StringBuilder result = new StringBuilder();
+    for (int i = 0; i < operands.length; i++) {
+      if (i > 0) {
+        result.append(separator);
+      }
+      result.append(operands[i]);
+    }
+    return result.toString();
+  }
+}
@@ -16,6 +16,7 @@
 package com.igormaznitsa.commons.version.operators;
 
 import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
 
 import java.io.Serializable;
 
@@ -33,4 +34,15 @@ public interface Operator extends Serializable {
    * @since 1.0.0
    */
   boolean isValid(Version version);
+
+  /**
+   * Check version view by the operator. Default implementation makes version from the view, operators of the library check the view directly.
+   *
+   * @param version view of version to be checked, it can be null.
+   * @return true if the version is valid, false otherwise (or if the version is null)
+   * @since 1.0.1
+   */
+  default boolean isValid(final VersionView version) {
+    return version != null && this.isValid(version.toVersion());
+  }
 }
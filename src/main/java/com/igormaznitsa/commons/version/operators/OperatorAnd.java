@@ -16,9 +16,19 @@
 package com.igormaznitsa.commons.version.operators;
 
 import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * Implementation of AND operator.
+ * Implementation of AND operator. Operands are kept in flat array and checked in a loop, so that long expressions don't make deep trees.
+ * Serialized form is the same as for binary operator, operands are written as balanced tree of binary operators and merged back into flat array during reading.
  *
  * @since 1.0.0
  */
@@ -26,8 +36,12 @@ public final class OperatorAnd implements Operator {
 
   private static final long serialVersionUID = -1503624332275479528L;
 
-  private final Operator a;
-  private final Operator b;
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("a", Operator.class),
+      new ObjectStreamField("b", Operator.class)
+  };
+
+  private transient Operator[] operands;
 
   /**
    * Constructor.
@@ -37,17 +51,79 @@ public final class OperatorAnd implements Operator {
    * @since 1.0.0
    */
   public OperatorAnd(final Operator a, final Operator b) {
-    this.a = a;
-    this.b = b;
+    this(Arrays.asList(a, b));
+  }
+
+  /**
+   * Constructor of operator with many operands, they are checked in the same order.
+   *
+   * @param operands operands, must contain at least two operands
+   * @throws IllegalArgumentException if there are less than two operands
+   * @since 1.0.1
+   */
+  public OperatorAnd(final List<? extends Operator> operands) {
+    this.operands = Operands.toArray(operands);
+  }
+
+  private OperatorAnd(final Operator[] operands) {
+    this.operands = operands;
+  }
+
+  /**
+   * Get operands.
+   *
+   * @return unmodifiable list of operands in order of check
+   * @since 1.0.1
+   */
+  public List<Operator> getOperands() {
+    return Collections.unmodifiableList(Arrays.asList(this.operands));
   }
 
   @Override
   public boolean isValid(final Version version) {
-    return version != null && this.a.isValid(version) && this.b.isValid(version);
+    if (version == null) {
+      return false;
+    }
+    for (final Operator operand : this.operands) {
+      if (!operand.isValid(version)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isValid(final VersionView version) {
+    if (version == null) {
+      return false;
+    }
+    for (final Operator operand : this.operands) {
+      if (!operand.isValid(version)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Operator half(final int from, final int to) {
+    return to - from == 1 ? this.operands[from] : new OperatorAnd(Arrays.copyOfRange(this.operands, from, to));
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final int middle = this.operands.length / 2;
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("a", this.half(0, middle));
+    fields.put("b", this.half(middle, this.operands.length));
+    out.writeFields();
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    this.operands = Operands.flatten(OperatorAnd.class, (Operator) fields.get("a", null), (Operator) fields.get("b", null));
   }
 
   @Override
   public String toString() {
-    return a.toString() + ',' + b.toString();
+    return Operands.join(this.operands, ',');
   }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
+
+/**
+ * Operator with constant result for any not-null version, it is made by {@link ExpressionOptimizer} for expressions which are always true or always false.
+ *
+ * @since 1.0.1
+ */
+public enum OperatorConstant implements Operator {
+  /**
+   * Accepts any version, text representation is {@code >=} (not less than the least version).
+   *
+   * @since 1.0.1
+   */
+  TRUE(">="),
+  /**
+   * Rejects any version, text representation is {@code <} (less than the least version).
+   *
+   * @since 1.0.1
+   */
+  FALSE("<");
+
+  private final String text;
+
+  OperatorConstant(final String text) {
+    this.text = text;
+  }
+
+  @Override
+  public boolean isValid(final Version version) {
+    return version != null && this == TRUE;
+  }
+
+  @Override
+  public boolean isValid(final VersionView version) {
+    return version != null && this == TRUE;
+  }
+
+  @Override
+  public String toString() {
+    return this.text;
+  }
+}
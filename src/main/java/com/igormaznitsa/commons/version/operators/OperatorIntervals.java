@@ -0,0 +1,301 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Operator contains a compiled expression as sorted set of disjoint version intervals, a version is checked by binary search over the intervals.
+ *
+ * @see #compile(Operator)
+ * @since 1.0.1
+ */
+public final class OperatorIntervals implements Operator {
+
+  private static final long serialVersionUID = 8316090151796426416L;
+
+  private final VersionInterval[] intervals;
+
+  private OperatorIntervals(final List<VersionInterval> intervals) {
+    this.intervals = intervals.toArray(new VersionInterval[0]);
+  }
+
+  /**
+   * Compile operator tree into sorted set of disjoint intervals. Only trees built from {@link OperatorAnd}, {@link OperatorOr}, {@link OperatorConstant} and {@link OperatorLeaf} with known conditions can be compiled.
+   *
+   * @param root root of operator tree, it can be null
+   * @return compiled operator or the root itself if it can't be compiled
+   * @since 1.0.1
+   */
+  public static Operator compile(final Operator root) {
+    final List<VersionInterval> result = root == null ? null : toIntervals(root);
+    return result == null ? root : new OperatorIntervals(result);
+  }
+
+  /**
+   * Make operator from intervals, they are sorted and overlapping ones are merged.
+   *
+   * @param intervals intervals accepted by the operator, must not be null
+   * @return operator accepting versions from any of the intervals
+   * @since 1.0.1
+   */
+  public static OperatorIntervals of(final Collection<VersionInterval> intervals) {
+    final List<VersionInterval> notEmpty = new ArrayList<>(intervals.size());
+    for (final VersionInterval interval : intervals) {
+      if (!interval.isEmpty()) {
+        notEmpty.add(interval);
+      }
+    }
+    return new OperatorIntervals(union(notEmpty, Collections.<VersionInterval>emptyList()));
+  }
+
+  /**
+   * Convert operator tree into sorted set of disjoint intervals.
+   *
+   * @param operator operator tree, must not be null
+   * @return sorted list of disjoint intervals or null if the tree contains unsupported operators or conditions
+   * @since 1.0.1
+   */
+  public static List<VersionInterval> toIntervals(final Operator operator) {
+    return toIntervals(operator, false);
+  }
+
+  /**
+   * Convert operator tree into sorted set of disjoint intervals containing all versions accepted by the tree. Unsupported operators and conditions are replaced by interval of all versions, so that the result is the same as {@link #toIntervals(Operator)} for supported trees and wider than accepted versions for other ones.
+   *
+   * @param operator operator tree, must not be null
+   * @return sorted list of disjoint intervals, must not be null
+   * @since 1.0.1
+   */
+  public static List<VersionInterval> toEnclosingIntervals(final Operator operator) {
+    return toIntervals(operator, true);
+  }
+
+  private static List<VersionInterval> toIntervals(final Operator operator, final boolean enclosing) {
+    List<VersionInterval> result;
+    if (operator instanceof OperatorLeaf) {
+      result = toIntervals((OperatorLeaf) operator);
+    } else if (operator instanceof OperatorAnd) {
+      List<VersionInterval> common = null;
+      for (final Operator operand : ((OperatorAnd) operator).getOperands()) {
+        final List<VersionInterval> next = toIntervals(operand, enclosing);
+        if (next == null) {
+          return null;
+        }
+        common = common == null ? next : intersect(common, next);
+      }
+      result = common;
+    } else if (operator instanceof OperatorOr) {
+      final List<VersionInterval> all = new ArrayList<>();
+      for (final Operator operand : ((OperatorOr) operator).getOperands()) {
+        final List<VersionInterval> next = toIntervals(operand, enclosing);
+        if (next == null) {
+          return null;
+        }
+        all.addAll(next);
+      }
+      result = union(all, Collections.<VersionInterval>emptyList());
+    } else if (operator instanceof OperatorIntervals) {
+      result = ((OperatorIntervals) operator).getIntervals();
+    } else if (operator == OperatorConstant.TRUE) {
+      result = Collections.singletonList(new VersionInterval(null, false, null, false));
+    } else if (operator == OperatorConstant.FALSE) {
+      result = Collections.emptyList();
+    } else {
+      result = null;
+    }
+    if (result == null && enclosing) {
+      result = Collections.singletonList(new VersionInterval(null, false, null, false));
+    }
+    return result;
+  }
+
+  private static List<VersionInterval> toIntervals(final OperatorLeaf leaf) {
+    final Version base = leaf.getBase();
+    switch (leaf.getCondition()) {
+      case EQU:
+        return Collections.singletonList(new VersionInterval(base, true, base, true));
+      case NOT_EQU:
+        return Arrays.asList(new VersionInterval(null, false, base, false), new VersionInterval(base, false, null, false));
+      case LESS:
+        return Collections.singletonList(new VersionInterval(null, false, base, false));
+      case LESS_OR_EQU:
+        return Collections.singletonList(new VersionInterval(null, false, base, true));
+      case GREAT:
+        return Collections.singletonList(new VersionInterval(base, false, null, false));
+      case GREAT_OR_EQU:
+        return Collections.singletonList(new VersionInterval(base, true, null, false));
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Make union of two sorted sets of disjoint intervals.
+   *
+   * @param a the first set, must not be null
+   * @param b the second set, must not be null
+   * @return sorted set of disjoint intervals
+   * @since 1.0.1
+   */
+  public static List<VersionInterval> union(final List<VersionInterval> a, final List<VersionInterval> b) {
+    final List<VersionInterval> all = new ArrayList<>(a.size() + b.size());
+    all.addAll(a);
+    all.addAll(b);
+    all.sort(VersionInterval::compareLower);
+
+    final List<VersionInterval> result = new ArrayList<>();
+    VersionInterval current = null;
+    for (final VersionInterval next : all) {
+      if (current == null) {
+        current = next;
+      } else if (current.isConnectedTo(next)) {
+        if (next.compareUpper(current) > 0) {
+          current = new VersionInterval(current.getLower(), current.isLowerInclusive(), next.getUpper(), next.isUpperInclusive());
+        }
+      } else {
+        result.add(current);
+        current = next;
+      }
+    }
+    if (current != null) {
+      result.add(current);
+    }
+    return result;
+  }
+
+  /**
+   * Make intersection of two sorted sets of disjoint intervals.
+   *
+   * @param a the first set, must not be null
+   * @param b the second set, must not be null
+   * @return sorted set of disjoint intervals
+   * @since 1.0.1
+   */
+  public static List<VersionInterval> intersect(final List<VersionInterval> a, final List<VersionInterval> b) {
+    final List<VersionInterval> result = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < a.size() && j < b.size()) {
+      final VersionInterval x = a.get(i);
+      final VersionInterval y = b.get(j);
+      final VersionInterval lower = x.compareLower(y) >= 0 ? x : y;
+      final int compareUpper = x.compareUpper(y);
+      final VersionInterval upper = compareUpper <= 0 ? x : y;
+      final VersionInterval common = new VersionInterval(lower.getLower(), lower.isLowerInclusive(), upper.getUpper(), upper.isUpperInclusive());
+      if (!common.isEmpty()) {
+        result.add(common);
+      }
+      if (compareUpper <= 0) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the compiled intervals.
+   *
+   * @return unmodifiable sorted list of disjoint intervals
+   * @since 1.0.1
+   */
+  public List<VersionInterval> getIntervals() {
+    return Collections.unmodifiableList(Arrays.asList(this.intervals));
+  }
+
+  /**
+   * Find index of the interval containing a version.
+   *
+   * @param version version to be found, must not be null
+   * @return index of the interval or -1 if there is no such interval
+   * @since 1.0.1
+   */
+  public int indexOf(final Version version) {
+    int low = 0;
+    int high = this.intervals.length - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final VersionInterval interval = this.intervals[middle];
+      if (interval.isAbove(version)) {
+        high = middle - 1;
+      } else if (interval.isBelow(version)) {
+        low = middle + 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private int indexOf(final VersionView version) {
+    int low = 0;
+    int high = this.intervals.length - 1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final VersionInterval interval = this.intervals[middle];
+      if (interval.isAbove(version)) {
+        high = middle - 1;
+      } else if (interval.isBelow(version)) {
+        low = middle + 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean isValid(final Version version) {
+    return version != null && this.indexOf(version) >= 0;
+  }
+
+  @Override
+  public boolean isValid(final VersionView version) {
+    if (version instanceof Version) {
+      return this.isValid((Version) version);
+    }
+    return version != null && this.indexOf(version) >= 0;
+  }
+
+  /**
+   * Make text representation as expression in format of {@link DefaultExpressionParser}.
+   *
+   * @return the intervals as expression, empty set is shown as {@code <} (less than the least version)
+   */
+  @Override
+  public String toString() {
+    if (this.intervals.length == 0) {
+      return Condition.LESS.toString();
+    }
+    final StringBuilder result = new StringBuilder();
+    for (final VersionInterval interval : this.intervals) {
+      if (result.length() > 0) {
+        result.append(';');
+      }
+      result.append(interval);
+    }
+    return result.toString();
+  }
+}
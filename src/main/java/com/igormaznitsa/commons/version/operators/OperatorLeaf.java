@@ -16,6 +16,7 @@
 package com.igormaznitsa.commons.version.operators;
 
 import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
 
 /**
  * It is a pseudo-operator, it does nothing and represents a leaf in the operator tree.
@@ -41,31 +42,59 @@ public final class OperatorLeaf implements Operator {
     this.base = base;
   }
 
+  /**
+   * Get the condition of the leaf.
+   *
+   * @return the condition
+   * @since 1.0.1
+   */
+  public Condition getCondition() {
+    return this.op;
+  }
+
+  /**
+   * Get the base version used with the condition.
+   *
+   * @return the base version
+   * @since 1.0.1
+   */
+  public Version getBase() {
+    return this.base;
+  }
+
   @Override
   public boolean isValid(final Version version) {
-    if (version != null) {
-      final int result = this.base.compareTo(version);
-      switch (this.op) {
-        case UNKNOWN: {
-          throw new IllegalArgumentException("Detected illegal condition");
-        }
-        case EQU:
-          return result == 0;
-        case NOT_EQU:
-          return result != 0;
-        case LESS:
-          return result > 0;
-        case GREAT:
-          return result < 0;
-        case LESS_OR_EQU:
-          return result >= 0;
-        case GREAT_OR_EQU:
-          return result <= 0;
-        default:
-          throw new Error("Detected unexpected operation : " + this.op);
+    return version != null && this.check(this.base.compareTo(version));
+  }
+
+  @Override
+  public boolean isValid(final VersionView version) {
+    if (version instanceof Version) {
+      return this.isValid((Version) version);
+    }
+    return version != null && this.check(VersionView.compare(this.base, version));
+  }
+
+  private boolean check(final int result) {
+    switch (this.op) {
+      case UNKNOWN: {
+        throw new IllegalArgumentException("Detected illegal condition");
       }
+      case EQU:
+        return result == 0;
+      case NOT_EQU:
+        return result != 0;
+      case LESS:
+        return result > 0;
+      case GREAT:
+        return result < 0;
+      case LESS_OR_EQU:
+        return result >= 0;
+      case GREAT_OR_EQU:
+        return result <= 0;
+      default:
+        throw new Error("Detected unexpected operation : " + this.op);
     }
-    return false;
   }
 
   @Override
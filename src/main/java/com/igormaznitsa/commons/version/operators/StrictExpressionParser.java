@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Linear-time recursive-descent expression parser. It builds the same operator trees as {@link DefaultExpressionParser} for well-formed expressions but throws {@link ExpressionParseException} with error position for malformed ones, for instance empty clauses or mistyped conditions like {@code =>}.
+ * <pre>
+ * expression : and (';' and)*
+ * and        : leaf (',' leaf)*
+ * leaf       : condition? version
+ * </pre>
+ *
+ * @since 1.0.1
+ */
+public final class StrictExpressionParser implements ExpressionParser {
+
+  private static final long serialVersionUID = -8419633452113474263L;
+
+  private static boolean isConditionChar(final char chr) {
+    return chr == '=' || chr == '!' || chr == '<' || chr == '>';
+  }
+
+  /**
+   * Parse expression.
+   *
+   * @param expression text to be parsed as expression, it can be null
+   * @return the parsed root tree operator, null for null expression
+   * @throws ExpressionParseException if the expression is malformed
+   */
+  @Override
+  public Operator parse(final String expression) {
+    return expression == null ? null : new Cursor(expression).parseExpression();
+  }
+
+  private static final class Cursor {
+
+    private final String text;
+    private final int length;
+    private int position;
+
+    private Cursor(final String text) {
+      this.text = text;
+      this.length = text.length();
+    }
+
+    private boolean isNext(final char chr) {
+      return this.position < this.length && this.text.charAt(this.position) == chr;
+    }
+
+    private void skipSpaces() {
+      while (this.position < this.length && this.text.charAt(this.position) <= ' ') {
+        this.position++;
+      }
+    }
+
+    private Operator parseExpression() {
+      final List<Operator> operands = new ArrayList<>();
+      operands.add(this.parseAnd());
+      while (this.isNext(';')) {
+        this.position++;
+        operands.add(this.parseAnd());
+      }
+      if (this.position < this.length) {
+        throw new ExpressionParseException("Unexpected char '" + this.text.charAt(this.position) + '\'', this.position);
+      }
+      return operands.size() == 1 ? operands.get(0) : new OperatorOr(operands);
+    }
+
+    private Operator parseAnd() {
+      final List<Operator> operands = new ArrayList<>();
+      operands.add(this.parseLeaf());
+      while (this.isNext(',')) {
+        this.position++;
+        operands.add(this.parseLeaf());
+      }
+      return operands.size() == 1 ? operands.get(0) : new OperatorAnd(operands);
+    }
+
+    private Condition parseCondition() {
+      final Condition result;
+      if (this.text.startsWith("!=", this.position)) {
+        result = Condition.NOT_EQU;
+      } else if (this.text.startsWith(">=", this.position)) {
+        result = Condition.GREAT_OR_EQU;
+      } else if (this.text.startsWith("<=", this.position)) {
+        result = Condition.LESS_OR_EQU;
+      } else if (this.isNext('>')) {
+        result = Condition.GREAT;
+      } else if (this.isNext('<')) {
+        result = Condition.LESS;
+      } else if (this.isNext('=')) {
+        result = Condition.EQU;
+      } else if (this.isNext('!')) {
+        throw new ExpressionParseException("Wrong condition", this.position);
+      } else {
+        return Condition.EQU;
+      }
+      this.position += result.toString().length();
+      return result;
+    }
+
+    private Operator parseLeaf() {
+      this.skipSpaces();
+      if (this.position == this.length || this.isNext(',') || this.isNext(';')) {
+        throw new ExpressionParseException("Expected condition", this.position);
+      }
+      final Condition condition = this.parseCondition();
+      this.skipSpaces();
+      final int start = this.position;
+      while (this.position < this.length) {
+        final char chr = this.text.charAt(this.position);
+        if (chr == ',' || chr == ';') {
+          break;
+        }
+        if (isConditionChar(chr)) {
+          throw new ExpressionParseException("Unexpected condition char '" + chr + '\'', this.position);
+        }
+        this.position++;
+      }
+      return new OperatorLeaf(condition, Version.parse(this.text, start, this.position));
+    }
+  }
+}
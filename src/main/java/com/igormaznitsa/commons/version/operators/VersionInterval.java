@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionView;
+
+import java.io.Serializable;
+
+/**
+ * Immutable interval of versions in order of {@link Version#compareTo(Version)}. Null bound means unlimited side of the interval.
+ *
+ * @since 1.0.1
+ */
+public final class VersionInterval implements Serializable {
+
+  private static final long serialVersionUID = -2930754103458839211L;
+
+  private final Version lower;
+  private final boolean lowerInclusive;
+  private final Version upper;
+  private final boolean upperInclusive;
+
+  /**
+   * Constructor.
+   *
+   * @param lower          the lower bound, null means unlimited
+   * @param lowerInclusive true if the lower bound is included into the interval
+   * @param upper          the upper bound, null means unlimited
+   * @param upperInclusive true if the upper bound is included into the interval
+   * @since 1.0.1
+   */
+  public VersionInterval(final Version lower, final boolean lowerInclusive, final Version upper, final boolean upperInclusive) {
+    this.lower = lower;
+    this.lowerInclusive = lower != null && lowerInclusive;
+    this.upper = upper;
+    this.upperInclusive = upper != null && upperInclusive;
+  }
+
+  /**
+   * Get the lower bound.
+   *
+   * @return the lower bound, null if the interval is not limited from below
+   * @since 1.0.1
+   */
+  public Version getLower() {
+    return this.lower;
+  }
+
+  /**
+   * Check that the lower bound is included.
+   *
+   * @return true if the lower bound is included
+   * @since 1.0.1
+   */
+  public boolean isLowerInclusive() {
+    return this.lowerInclusive;
+  }
+
+  /**
+   * Get the upper bound.
+   *
+   * @return the upper bound, null if the interval is not limited from above
+   * @since 1.0.1
+   */
+  public Version getUpper() {
+    return this.upper;
+  }
+
+  /**
+   * Check that the upper bound is included.
+   *
+   * @return true if the upper bound is included
+   * @since 1.0.1
+   */
+  public boolean isUpperInclusive() {
+    return this.upperInclusive;
+  }
+
+  /**
+   * Check that there is no any version in the interval.
+   *
+   * @return true if the interval is empty
+   * @since 1.0.1
+   */
+  public boolean isEmpty() {
+    boolean result = false;
+    if (this.lower != null && this.upper != null) {
+      final int compare = this.lower.compareTo(this.upper);
+      result = compare > 0 || (compare == 0 && !(this.lowerInclusive && this.upperInclusive));
+    }
+    return result;
+  }
+
+  /**
+   * Check that a version is placed before the interval.
+   *
+   * @param version version to be checked, must not be null
+   * @return true if the version is less than the lower bound
+   * @since 1.0.1
+   */
+  public boolean isAbove(final Version version) {
+    boolean result = false;
+    if (this.lower != null) {
+      final int compare = version.compareTo(this.lower);
+      result = compare < 0 || (compare == 0 && !this.lowerInclusive);
+    }
+    return result;
+  }
+
+  /**
+   * Check that a version is placed after the interval.
+   *
+   * @param version version to be checked, must not be null
+   * @return true if the version is greater than the upper bound
+   * @since 1.0.1
+   */
+  public boolean isBelow(final Version version) {
+    boolean result = false;
+    if (this.upper != null) {
+      final int compare = version.compareTo(this.upper);
+      result = compare > 0 || (compare == 0 && !this.upperInclusive);
+    }
+    return result;
+  }
+
+  /**
+   * Check that a version view is placed before the interval.
+   *
+   * @param version view of version to be checked, must not be null
+   * @return true if the version is less than the lower bound
+   * @since 1.0.1
+   */
+  public boolean isAbove(final VersionView version) {
+    boolean result = false;
+    if (this.lower != null) {
+      final int compare = VersionView.compare(version, this.lower);
+      result = compare < 0 || (compare == 0 && !this.lowerInclusive);
+    }
+    return result;
+  }
+
+  /**
+   * Check that a version view is placed after the interval.
+   *
+   * @param version view of version to be checked, must not be null
+   * @return true if the version is greater than the upper bound
+   * @since 1.0.1
+   */
+  public boolean isBelow(final VersionView version) {
+    boolean result = false;
+    if (this.upper != null) {
+      final int compare = VersionView.compare(version, this.upper);
+      result = compare > 0 || (compare == 0 && !this.upperInclusive);
+    }
+    return result;
+  }
+
+  /**
+   * Check that a version is in the interval.
+   *
+   * @param version version to be checked, it can be null
+   * @return true if the version is not null and placed in the interval
+   * @since 1.0.1
+   */
+  public boolean contains(final Version version) {
+    return version != null && !this.isAbove(version) && !this.isBelow(version);
+  }
+
+  /**
+   * Compare lower bounds of two intervals.
+   *
+   * @param that interval to be compared, must not be null
+   * @return negative value if the interval starts before the other one, zero if they start at the same point, positive value otherwise
+   * @since 1.0.1
+   */
+  public int compareLower(final VersionInterval that) {
+    if (this.lower == null || that.lower == null) {
+      return (this.lower == null ? 0 : 1) - (that.lower == null ? 0 : 1);
+    }
+    final int result = this.lower.compareTo(that.lower);
+    return result == 0 ? Boolean.compare(that.lowerInclusive, this.lowerInclusive) : result;
+  }
+
+  /**
+   * Compare upper bounds of two intervals.
+   *
+   * @param that interval to be compared, must not be null
+   * @return negative value if the interval ends before the other one, zero if they end at the same point, positive value otherwise
+   * @since 1.0.1
+   */
+  public int compareUpper(final VersionInterval that) {
+    if (this.upper == null || that.upper == null) {
+      return (this.upper == null ? 1 : 0) - (that.upper == null ? 1 : 0);
+    }
+    final int result = this.upper.compareTo(that.upper);
+    return result == 0 ? Boolean.compare(this.upperInclusive, that.upperInclusive) : result;
+  }
+
+  /**
+   * Check that the interval either overlaps the next one or touches it without a gap, so that union of them is one interval. The next interval must not start before the interval.
+   *
+   * @param next interval which doesn't start before the interval, must not be null
+   * @return true if the intervals can be merged into one interval
+   * @since 1.0.1
+   */
+  public boolean isConnectedTo(final VersionInterval next) {
+    if (this.upper == null || next.lower == null) {
+      return true;
+    }
+    final int compare = next.lower.compareTo(this.upper);
+    return compare < 0 || (compare == 0 && (next.lowerInclusive || this.upperInclusive));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    boolean result = obj == this;
+    if (!result && obj instanceof VersionInterval) {
+      final VersionInterval that = (VersionInterval) obj;
+      result = this.compareLower(that) == 0 && this.compareUpper(that) == 0;
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return (this.lowerInclusive ? 1 : 0) + (this.upperInclusive ? 2 : 0);
+  }
+
+  /**
+   * Make text representation as expression in format of {@link DefaultExpressionParser}.
+   *
+   * @return the interval as expression, unlimited interval is shown as {@code >=} (great or equal to the least version)
+   */
+  @Override
+  public String toString() {
+    final String result;
+    if (this.lower != null && this.upper != null && this.lowerInclusive && this.upperInclusive && this.lower.compareTo(this.upper) == 0) {
+      result = Condition.EQU.toString() + this.lower;
+    } else {
+      final StringBuilder buffer = new StringBuilder();
+      if (this.lower != null) {
+        buffer.append(this.lowerInclusive ? Condition.GREAT_OR_EQU : Condition.GREAT).append(this.lower);
+      }
+      if (this.upper != null) {
+        if (buffer.length() > 0) {
+          buffer.append(',');
+        }
+        buffer.append(this.upperInclusive ? Condition.LESS_OR_EQU : Condition.LESS).append(this.upper);
+      }
+      result = buffer.length() == 0 ? Condition.GREAT_OR_EQU.toString() : buffer.toString();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,114 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.StrictExpressionParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ExpressionCacheTest {
+
+  @Test
+  public void testLruCache() {
+    final ExpressionCache cache = ExpressionCache.newLruCache(2);
+    final Operator a = cache.get(">=1.0,<2.0");
+    assertSame(a, cache.get(">=1.0,<2.0"));
+    cache.get("3.0");
+    cache.get(">=1.0,<2.0");
+    cache.get("4.0");
+    assertEquals(2, cache.size());
+    assertEquals(1L, cache.getEvictionCount());
+    assertSame(a, cache.get(">=1.0,<2.0"));
+    assertEquals(3L, cache.getHitCount());
+    assertEquals(3L, cache.getMissCount());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testFifoCache() {
+    final ExpressionCache cache = ExpressionCache.newFifoCache(2);
+    final Operator a = cache.get(">=1.0");
+    cache.get("3.0");
+    assertSame(a, cache.get(">=1.0"));
+    cache.get("4.0");
+    assertNotSame(a, cache.get(">=1.0"));
+    assertEquals(2L, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testConcurrentEvictions() throws Exception {
+    final ExpressionCache cache = ExpressionCache.newLruCache(16);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int seed = t;
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 5000; i++) {
+            final int value = (i * 31 + seed) % (i % 3 == 0 ? 64 : 8);
+            assertEquals("<" + value, cache.get("<" + value).toString());
+          }
+        }));
+      }
+      for (final Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(cache.size() <= 16);
+    assertEquals(20000L, cache.getHitCount() + cache.getMissCount());
+    assertTrue(cache.getEvictionCount() > 0L && cache.getEvictionCount() <= cache.getMissCount() - cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongSize() {
+    ExpressionCache.newLruCache(0);
+  }
+
+  @Test
+  public void testWrongExpressionNotCached() {
+    final ExpressionCache cache = ExpressionCache.newLruCache(4, new StrictExpressionParser());
+    try {
+      cache.get(">=1.0,,");
+      fail("Must throw IAE");
+    } catch (IllegalArgumentException ex) {
+      assertEquals(0, cache.size());
+    }
+  }
+
+  @Test
+  public void testVersionValidatorOf() throws Exception {
+    final ExpressionCache previous = VersionValidator.getExpressionCache();
+    try {
+      final ExpressionCache cache = ExpressionCache.newLruCache(8);
+      VersionValidator.setExpressionCache(cache);
+      final ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        final List<Future<VersionValidator>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          results.add(executor.submit(() -> VersionValidator.of(">=1.2,<3.0;5.0")));
+        }
+        final Operator root = results.get(0).get().getExpressionRoot();
+        for (final Future<VersionValidator> result : results) {
+          assertTrue(result.get().isValid(new Version("2.9")));
+          assertEquals(root.toString(), result.get().getExpressionRoot().toString());
+        }
+      } finally {
+        executor.shutdown();
+      }
+      assertSame(VersionValidator.of(">=1.2,<3.0;5.0").getExpressionRoot(), VersionValidator.of(">=1.2,<3.0;5.0").getExpressionRoot());
+      assertEquals(102L, cache.getHitCount() + cache.getMissCount());
+      assertFalse(VersionValidator.of(null).isValid(new Version("1.0")));
+    } finally {
+      VersionValidator.setExpressionCache(previous);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.DefaultExpressionParser;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class InMemoryInstrumentationTest {
+
+  @After
+  public void tearDown() {
+    Version.setInstrumentation(null);
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    assertNull(Version.getInstrumentation());
+    assertTrue(new VersionValidator(">=1").isValid(new Version("2")));
+  }
+
+  @Test
+  public void testParseAndValidationMetrics() {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+    Version.setInstrumentation(instrumentation);
+
+    new Version("1.2.3");
+    Version.parse("x-4.5", 0, 5);
+    assertEquals(2L, instrumentation.getVersionParseCount());
+
+    final VersionValidator range = new VersionValidator(">=1.0,<2.0;=3");
+    final VersionValidator malformed = new VersionValidator("1;;2");
+    assertEquals(2L, instrumentation.getExpressionParseCount());
+    assertEquals(1L, instrumentation.getLenientParseCount());
+    assertEquals(3L, instrumentation.getMaxTreeDepth());
+    assertEquals(0L, instrumentation.getUnknownConditionCount());
+    instrumentation.expressionParsed("=>1", new OperatorAnd(new OperatorLeaf(Condition.UNKNOWN, new Version(1)), new OperatorLeaf(Condition.EQU, new Version(1))), false, 10L);
+    assertEquals(1L, instrumentation.getUnknownConditionCount());
+
+    instrumentation.reset();
+    assertTrue(range.isValid(new Version("1.5")));
+    assertFalse(range.isValid(new Version("0.5")));
+    assertTrue(range.isValid((VersionView) new Version("3")));
+    assertFalse(range.isValid((Version) null));
+    assertTrue(malformed.isValid(new Version("2")));
+    assertEquals(5L, instrumentation.getValidationCount());
+    assertEquals(2L + 2L + 3L + 0L + 2L, instrumentation.getLeafCheckCount());
+    assertEquals(3L, instrumentation.getLeafCheckHistogram().getMax());
+
+    assertEquals(2, instrumentation.getTopExpressions(10).size());
+    assertEquals(range.getExpressionRoot().toString(), instrumentation.getTopExpressions(10).get(0).getKey());
+    assertEquals(4L, (long) instrumentation.getTopExpressions(10).get(0).getValue());
+    assertArrayEquals(new String[]{"4 >=1.0,<2.0;=3"}, instrumentation.topExpressions(1));
+    assertTrue(range.compile().isValid(new Version("1.1")));
+    assertEquals(9L + 1L, instrumentation.getLeafCheckCount());
+  }
+
+  @Test
+  public void testTrackedExpressionsLimit() {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation(1);
+    Version.setInstrumentation(instrumentation);
+    new VersionValidator("1").isValid(new Version("1"));
+    new VersionValidator("2").isValid(new Version("1"));
+    new VersionValidator((String) null).isValid(new Version("1"));
+    assertEquals(1, instrumentation.getTopExpressions(10).size());
+    assertEquals(2L, instrumentation.getUntrackedEvaluationCount());
+  }
+
+  @Test
+  public void testSameTextSharesCounter() {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation(2);
+    Version.setInstrumentation(instrumentation);
+    for (int i = 0; i < 10; i++) {
+      new VersionValidator(">=1.0").isValid(new Version("2"));
+    }
+    new VersionValidator("<3").isValid(new Version("2"));
+    assertEquals(2, instrumentation.getTopExpressions(10).size());
+    assertEquals(10L, (long) instrumentation.getTopExpressions(1).get(0).getValue());
+    assertEquals(0L, instrumentation.getUntrackedEvaluationCount());
+  }
+
+  @Test
+  public void testBatchValidation() {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+    Version.setInstrumentation(instrumentation);
+    final VersionValidator validator = new VersionValidator(">=1.0,<2.0");
+    final Version[] versions = {new Version("0.5"), new Version("1.1"), new Version("1.9"), null, new Version("2.0")};
+
+    final boolean[] result = new boolean[versions.length];
+    validator.validateAll(versions, result);
+    assertEquals(2, validator.validateAll(Arrays.asList(versions)).cardinality());
+    assertEquals(2, validator.filter(Arrays.asList(new Version("1.5"), new Version("1.6"))).size());
+    assertEquals(3L, instrumentation.getBatchValidationCount());
+    assertEquals(12L, instrumentation.getBatchValidatedVersionCount());
+    assertEquals(0L, instrumentation.getValidationCount());
+
+    final VersionSet set = VersionSet.of(new Version("0.5"), new Version("1.1"), new Version("1.9"), new Version("2.0"));
+    assertEquals(new Version("1.9"), set.maxSatisfying(validator));
+    assertEquals(new Version("1.1"), set.minSatisfying(validator));
+    assertEquals(2, set.allSatisfying(validator).size());
+    assertEquals(6L, instrumentation.getBatchValidationCount());
+    assertEquals(12L + 1L + 1L + 2L, instrumentation.getBatchValidatedVersionCount());
+
+    new VersionResolver(Collections.singletonMap("a", Arrays.asList(versions[0], versions[1]))).resolve("a", ">=1.0,<2.0");
+    assertEquals(7L, instrumentation.getBatchValidationCount());
+    assertEquals(17L, (long) instrumentation.getTopExpressions(1).get(0).getValue());
+    assertTrue(instrumentation.getBatchValidationHistogram().getCount() > 0L);
+  }
+
+  @Test
+  public void testHistogram() {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+    for (int i = 0; i < 100; i++) {
+      instrumentation.versionParsed(i < 90 ? 100L : 5000L);
+    }
+    final InMemoryInstrumentation.Histogram histogram = instrumentation.getVersionParseHistogram();
+    assertEquals(100L, histogram.getCount());
+    assertEquals(90L * 100L + 10L * 5000L, histogram.getSum());
+    assertEquals(5000L, histogram.getMax());
+    assertEquals(590.0d, histogram.getMean(), 0.0001d);
+    assertEquals(90L, histogram.getBuckets()[7]);
+    assertEquals(127L, histogram.getPercentile(50.0d));
+    assertEquals(127L, histogram.getPercentile(90.0d));
+    assertEquals(5000L, histogram.getPercentile(99.0d));
+    instrumentation.reset();
+    assertEquals(0L, histogram.getPercentile(99.0d));
+  }
+
+  @Test
+  public void testMBean() throws Exception {
+    final InMemoryInstrumentation instrumentation = new InMemoryInstrumentation();
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName name = instrumentation.registerMBean(new ObjectName("com.igormaznitsa.commons.version:type=Instrumentation,name=test"));
+    try {
+      Version.setInstrumentation(instrumentation);
+      new DefaultExpressionParser().parse(">1");
+      assertEquals(1L, server.getAttribute(name, "ExpressionParseCount"));
+      server.invoke(name, "reset", new Object[0], new String[0]);
+      assertEquals(0L, server.getAttribute(name, "ExpressionParseCount"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
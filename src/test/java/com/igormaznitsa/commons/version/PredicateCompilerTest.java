@@ -0,0 +1,82 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorConstant;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class PredicateCompilerTest {
+
+  private static final String[] CONDITIONS = {"", "=", "!=", "<", ">", "<=", ">="};
+  private static final String[] BASES = {"1", "1.0", "1.2", "2.0.1", "70000.1", "a-1.2", "1.2-rc", "b-", "-z", "3.4.5.6.7"};
+
+  private static String makeRandomExpression(final Random rnd) {
+    final StringBuilder result = new StringBuilder();
+    final int clauses = 1 + rnd.nextInt(7);
+    for (int i = 0; i < clauses; i++) {
+      if (i > 0) {
+        result.append(rnd.nextInt(3) == 0 ? ';' : ',');
+      }
+      result.append(CONDITIONS[rnd.nextInt(CONDITIONS.length)]).append(BASES[rnd.nextInt(BASES.length)]);
+    }
+    return result.toString();
+  }
+
+  private static List<Version> makeProbes() {
+    final List<Version> result = new ArrayList<>();
+    for (final String text : new String[]{"", "0", "1", "1.0", "1.0.0", "1.1", "1.2", "1.2.0", "1.2-rc", "1.2-alpha", "2", "2.0.1", "70000.1", "70000.0.5", "a-1.2", "a-1", "a-", "b-", "b-3", "-z", "z", "3.4.5.6.7", "3.4.5.6", "99"}) {
+      result.add(new Version(text));
+    }
+    result.add(new Version(-1L, 2L));
+    return result;
+  }
+
+  @Test
+  public void testCompile_SameResultAsValidator() {
+    final Random rnd = new Random(2020L);
+    final List<Version> probes = makeProbes();
+    for (int i = 0; i < 5000; i++) {
+      final VersionValidator validator = new VersionValidator(makeRandomExpression(rnd));
+      final Predicate<Version> predicate = validator.toPredicate();
+      for (final Version version : probes) {
+        assertEquals(validator + " for " + version, validator.isValid(version), predicate.test(version));
+      }
+      assertFalse(predicate.test(null));
+      final Predicate<Version> compiled = validator.compile().toPredicate();
+      for (final Version version : probes) {
+        assertEquals(validator + " for " + version, validator.isValid(version), compiled.test(version));
+      }
+    }
+  }
+
+  @Test
+  public void testCompile_SpecialOperators() {
+    assertFalse(PredicateCompiler.compile(null).test(new Version("1")));
+    assertTrue(PredicateCompiler.compile(OperatorConstant.TRUE).test(new Version("1")));
+    assertFalse(PredicateCompiler.compile(OperatorConstant.TRUE).test(null));
+    assertFalse(PredicateCompiler.compile(OperatorConstant.FALSE).test(new Version("1")));
+
+    final Operator custom = version -> true;
+    final Predicate<Version> predicate = PredicateCompiler.compile(new OperatorAnd(custom, new OperatorLeaf(Condition.GREAT, new Version("1"))));
+    assertTrue(predicate.test(new Version("2")));
+    assertFalse(predicate.test(new Version("1")));
+    assertFalse(predicate.test(null));
+    assertTrue(PredicateCompiler.compile(custom).test(null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompile_UnknownCondition() {
+    final Predicate<Version> predicate = PredicateCompiler.compile(new OperatorLeaf(Condition.UNKNOWN, new Version("1")));
+    assertFalse(predicate.test(null));
+    predicate.test(new Version("1"));
+  }
+}
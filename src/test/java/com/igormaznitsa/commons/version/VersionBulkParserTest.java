@@ -0,0 +1,111 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+
+public class VersionBulkParserTest {
+
+  private static List<String> makeLines(final int number) {
+    final Random rnd = new Random(31L);
+    final String[] prefixes = {"", "jdk-", "beta-", " idea-"};
+    final String[] postfixes = {"", "-SNAPSHOT", "-rc1 ", "_121"};
+    final List<String> result = new ArrayList<>();
+    for (int i = 0; i < number; i++) {
+      result.add(prefixes[rnd.nextInt(prefixes.length)] + rnd.nextInt(20) + '.' + rnd.nextInt(100) + postfixes[rnd.nextInt(postfixes.length)]);
+    }
+    return result;
+  }
+
+  private static void assertParsed(final List<String> lines, final Version[] parsed) {
+    assertEquals(lines.size(), parsed.length);
+    for (int i = 0; i < parsed.length; i++) {
+      final Version expected = new Version(lines.get(i));
+      assertEquals(expected, parsed[i]);
+      assertEquals(expected.toString(), parsed[i].toString());
+    }
+  }
+
+  @Test
+  public void testParse_Text() {
+    final List<String> lines = makeLines(10000);
+    final VersionBulkParser parser = new VersionBulkParser(333, ForkJoinPool.commonPool(), VersionBulkParser.FAIL);
+    assertParsed(lines, parser.parse(String.join("\n", lines)));
+    assertParsed(lines, parser.parse(String.join("\r\n", lines) + "\r\n"));
+    assertParsed(lines, parser.parse(String.join("\r", lines)));
+  }
+
+  @Test
+  public void testParse_EmptyLines() {
+    final Version[] parsed = new VersionBulkParser().parse("1.0\n\n\r\n2.0\n");
+    assertEquals(4, parsed.length);
+    assertEquals(new Version(""), parsed[1]);
+    assertEquals(0, new VersionBulkParser().parse("").length);
+  }
+
+  @Test
+  public void testParse_StreamAndFile() throws IOException {
+    final List<String> lines = makeLines(5000);
+    final String text = String.join("\n", lines);
+    final VersionBulkParser parser = new VersionBulkParser(100, ForkJoinPool.commonPool(), VersionBulkParser.FAIL);
+    assertParsed(lines, parser.parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+
+    final Path file = Files.createTempFile("versions", ".txt");
+    try {
+      Files.write(file, lines, StandardCharsets.UTF_8);
+      assertParsed(lines, parser.parse(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testErrorHandlers() {
+    final String text = "1.0\n2.99999999999999999999\n3.0";
+    try {
+      new VersionBulkParser().parse(text);
+      fail("Must throw IAE");
+    } catch (IllegalArgumentException ex) {
+      assertTrue(ex.getMessage().contains("line 2"));
+    }
+
+    final Version[] skipped = new VersionBulkParser(1, ForkJoinPool.commonPool(), VersionBulkParser.SKIP).parse(text);
+    assertEquals(2, skipped.length);
+    assertEquals(new Version("3.0"), skipped[1]);
+
+    final Version[] replaced = new VersionBulkParser(1, ForkJoinPool.commonPool(), (line, textLine, error) -> new Version(new long[]{line})).parse(text);
+    assertEquals(new Version(2), replaced[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongChunkSize() {
+    new VersionBulkParser(0, ForkJoinPool.commonPool(), VersionBulkParser.FAIL);
+  }
+
+  @Test
+  public void testSpliterator_ParallelStream() {
+    final List<String> lines = makeLines(20000);
+    final VersionBulkParser parser = new VersionBulkParser(256, ForkJoinPool.commonPool(), VersionBulkParser.FAIL);
+
+    final List<Version> fromText = StreamSupport.stream(parser.spliterator(String.join("\n", lines)), true).collect(Collectors.toList());
+    assertParsed(lines, fromText.toArray(new Version[0]));
+
+    final List<Version> fromReader = StreamSupport.stream(parser.spliterator(new StringReader(String.join("\n", lines))), true).collect(Collectors.toList());
+    assertParsed(lines, fromReader.toArray(new Version[0]));
+
+    assertEquals(lines.size(), StreamSupport.stream(parser.spliterator(String.join("\n", lines)), false).count());
+  }
+}
@@ -0,0 +1,116 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class VersionCacheTest {
+
+  @Test
+  public void testLruCache_Canonicalization() {
+    final VersionCache cache = VersionCache.newLruCache(16);
+    final Version a = cache.get("idea-1.2.3-dev");
+    assertSame(a, cache.get("idea-1.2.3-dev"));
+    assertSame(a, cache.get(" idea-01.02.003-dev "));
+    assertEquals(new Version("idea-1.2.3-dev"), a);
+    assertEquals(2L, cache.getMissCount());
+    assertEquals(1L, cache.getHitCount());
+    assertEquals(3, cache.size());
+    assertSame(cache.get(null), cache.get(""));
+  }
+
+  @Test
+  public void testLruCache_Eviction() {
+    final VersionCache cache = VersionCache.newLruCache(4);
+    for (int i = 0; i < 100; i++) {
+      cache.get("1." + i);
+    }
+    assertEquals(4, cache.size());
+    assertEquals(100L, cache.getMissCount());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testLruCache_CanonicalAfterEviction() {
+    final VersionCache cache = VersionCache.newLruCache(4);
+    final Version version = cache.get("1.0");
+    cache.get("2.0");
+    assertSame(version, cache.get("1.0"));
+    cache.get("3.0");
+    assertSame(cache.get("1.0"), cache.get("1.00"));
+    for (int i = 0; i < 1000; i++) {
+      final Version found = cache.get("1." + i % 7);
+      assertSame(found, cache.get("01." + i % 7));
+      assertSame(found, cache.get("1.0" + i % 7));
+    }
+    assertTrue(cache.size() <= 4);
+  }
+
+  @Test
+  public void testLruCache_ConcurrentReads() throws Exception {
+    final VersionCache cache = VersionCache.newLruCache(64);
+    final Version[] canonical = new Version[16];
+    for (int i = 0; i < canonical.length; i++) {
+      canonical[i] = cache.get("1." + i);
+    }
+    final VersionCache small = VersionCache.newLruCache(8);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int seed = t;
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < 20000; i++) {
+            final int value = (i * 31 + seed) % canonical.length;
+            assertSame(canonical[value], cache.get("1." + value));
+            assertEquals("2." + value, small.get("2." + (i % 5 == 0 ? "0" : "") + value).toString());
+          }
+        }));
+      }
+      for (final Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(80000L, cache.getHitCount());
+    assertEquals(16L, cache.getMissCount());
+    assertTrue(small.size() <= 8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLruCache_WrongSize() {
+    VersionCache.newLruCache(0);
+  }
+
+  @Test
+  public void testWeakCache() {
+    final VersionCache cache = VersionCache.newWeakCache();
+    final Version a = cache.get("1.2.3");
+    assertSame(a, cache.get("1.2.3"));
+    assertSame(a, cache.get("1.02.3"));
+    assertEquals(1L, cache.getHitCount());
+    assertEquals(2L, cache.getMissCount());
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void testVersionOf() {
+    final VersionCache previous = Version.getCache();
+    try {
+      final VersionCache cache = VersionCache.newLruCache(8);
+      Version.setCache(cache);
+      assertSame(Version.of("2.3.1-SNAPSHOT"), Version.of("2.3.1-SNAPSHOT"));
+      assertEquals(1L, cache.getHitCount());
+    } finally {
+      Version.setCache(previous);
+    }
+  }
+}
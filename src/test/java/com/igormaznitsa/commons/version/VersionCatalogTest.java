@@ -0,0 +1,224 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VersionCatalogTest {
+
+  private static Map.Entry<String, Version> entry(final String artifact, final String version) {
+    return new AbstractMap.SimpleImmutableEntry<>(artifact, new Version(version));
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      final List<Map.Entry<String, Version>> entries = new ArrayList<>();
+      entries.add(entry("guava", "19.0"));
+      entries.add(entry("commons-io", "2.4"));
+      entries.add(entry("junit", "4.12"));
+      entries.add(entry("junit", "5.0-M1"));
+      entries.add(entry("jdk", "jdk-1.8.0.121"));
+      entries.add(entry("lang", "2.4"));
+      VersionCatalog.write(file, entries);
+
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        assertEquals(6, catalog.size());
+        assertEquals(entry("commons-io", "2.4"), catalog.get(0));
+        assertEquals(entry("lang", "2.4"), catalog.get(1));
+        assertEquals("jdk", catalog.getArtifact(5));
+        assertEquals("jdk-1.8.0.121", catalog.getVersion(5).toString());
+        assertEquals("5.0-M1", catalog.getVersion(3).toString());
+
+        final List<Map.Entry<String, Version>> found = catalog.select(new VersionValidator(">=2.4,<5;jdk-1.8.0.121"));
+        assertEquals(4, found.size());
+        assertEquals("junit", found.get(2).getKey());
+        assertEquals("jdk", found.get(3).getKey());
+        assertEquals(0, catalog.count(new VersionValidator(">20,<jdk-0")));
+        assertEquals(5, catalog.select(new VersionValidator(">=1,<jdk-0")).size());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testSelect_SameAsValidator() throws IOException {
+    final Random rnd = new Random(77L);
+    final List<Map.Entry<String, Version>> entries = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      final long[] parts = new long[1 + rnd.nextInt(3)];
+      for (int p = 0; p < parts.length; p++) {
+        parts[p] = rnd.nextInt(6);
+      }
+      entries.add(new AbstractMap.SimpleImmutableEntry<>("a" + rnd.nextInt(50), new Version(rnd.nextInt(4) == 0 ? "x" : null, parts, rnd.nextInt(3) == 0 ? "rc" : null)));
+    }
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      VersionCatalog.write(file, entries);
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        assertEquals(entries.size(), catalog.size());
+        for (int i = 1; i < catalog.size(); i++) {
+          assertTrue(catalog.getVersion(i - 1).compareTo(catalog.getVersion(i)) <= 0);
+        }
+        final String[] expressions = {">=1.2,<3.0", "!=2.2;>=4.0", "<=1.1-rc", "x-1.0;x-2.0", ">x-1", "<0", "2.2", "1.0.0"};
+        for (final String expression : expressions) {
+          final VersionValidator validator = new VersionValidator(expression);
+          final List<Map.Entry<String, Version>> expected = new ArrayList<>();
+          for (int i = 0; i < catalog.size(); i++) {
+            if (validator.isValid(catalog.getVersion(i))) {
+              expected.add(catalog.get(i));
+            }
+          }
+          assertEquals(expression, expected, new ArrayList<>(catalog.select(validator)));
+          assertEquals(expression, expected, new ArrayList<>(catalog.select((Operator) version -> validator.isValid(version))));
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testWriteSorted_StreamedWithColumnWidths() throws IOException {
+    final Path folder = Files.createTempDirectory("catalogs");
+    final Path file = folder.resolve("catalog.bin");
+    try {
+      final int count = 10000;
+      final Iterator<Map.Entry<String, Version>> entries = new Iterator<Map.Entry<String, Version>>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return this.index < count;
+        }
+
+        @Override
+        public Map.Entry<String, Version> next() {
+          final int value = this.index++;
+          final long[] parts = value == count - 1 ? new long[]{1L, value, 0L, 1L, 2L, 3L, Long.MAX_VALUE} : new long[]{1L, value};
+          return new AbstractMap.SimpleImmutableEntry<>("artifact", new Version(parts));
+        }
+      };
+      VersionCatalog.writeSorted(file, entries);
+      assertEquals(1, folder.toFile().list().length);
+      assertTrue("Narrow columns expected : " + Files.size(file), Files.size(file) < count * (16L + 7L * 8L) / 2L);
+
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        assertEquals(count, catalog.size());
+        assertEquals(new Version(1L, 1234L), catalog.getVersion(1234));
+        assertEquals(new Version(1L, count - 1L, 0L, 1L, 2L, 3L, Long.MAX_VALUE), catalog.getVersion(count - 1));
+        assertEquals(10, catalog.count(new VersionValidator(">=1.10,<1.20")));
+        assertEquals(1, catalog.count(new VersionValidator(">1." + (count - 1))));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(folder);
+    }
+  }
+
+  @Test
+  public void testWriteSorted_NegativeParts() throws IOException {
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      final List<Map.Entry<String, Version>> entries = new ArrayList<>();
+      for (final long part : new long[]{3L, -5L, Long.MIN_VALUE, 0L, 70000L}) {
+        entries.add(new AbstractMap.SimpleImmutableEntry<>("a", Version.makeRaw("", new long[]{1L, part}, "")));
+      }
+      VersionCatalog.write(file, entries);
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        assertEquals(Long.MIN_VALUE, catalog.getVersion(0).getNumericParts()[1]);
+        assertEquals(-5L, catalog.getVersion(1).getNumericParts()[1]);
+        assertEquals(70000L, catalog.getVersion(4).getNumericParts()[1]);
+        assertEquals(3, catalog.count(new VersionValidator(">=1.0")));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testWriteSorted_UnsortedInput() throws IOException {
+    final Path folder = Files.createTempDirectory("catalogs");
+    final Path file = folder.resolve("catalog.bin");
+    try {
+      VersionCatalog.writeSorted(file, Arrays.asList(entry("a", "2.0"), entry("a", "1.0")).iterator());
+      fail("Must throw IAE");
+    } catch (IllegalArgumentException ex) {
+      assertEquals(0, folder.toFile().list().length);
+    } finally {
+      Files.deleteIfExists(file);
+      Files.delete(folder);
+    }
+  }
+
+  @Test
+  public void testSelect_NotAsciiPrefixes() throws IOException {
+    final String[] stored = {"a", "ab", "b", "\u00E9", "\u00E9t\u00E9", "\u4E2D", "\uE000", "\uD83D\uDE00", "\uD83D\uDE00x", "\uFFFD"};
+    final String[] queries = {"", "a", "aa", "ab", "abc", "\u00E9", "\u00E9t", "\u4E2D", "\u4E2E", "\uD83D", "\uD83D\uDE00", "\uD83D\uDE01", "\uDFFF", "\uE000", "\uFFFD", "\uFFFF"};
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      final List<Map.Entry<String, Version>> entries = new ArrayList<>();
+      for (final String prefix : stored) {
+        entries.add(entry("x", prefix + "-1.0"));
+      }
+      VersionCatalog.write(file, entries);
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        for (final String query : queries) {
+          for (final String condition : new String[]{">=", ">", "<", "="}) {
+            final VersionValidator validator = new VersionValidator(condition + query + "-1.0");
+            int expected = 0;
+            for (final Map.Entry<String, Version> entry : entries) {
+              if (validator.isValid(entry.getValue())) {
+                expected++;
+              }
+            }
+            assertEquals(condition + query, expected, catalog.count(validator));
+          }
+        }
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      VersionCatalog.write(file, Collections.<Map.Entry<String, Version>>emptyList());
+      try (final VersionCatalog catalog = VersionCatalog.open(file)) {
+        assertEquals(0, catalog.size());
+        assertTrue(catalog.select(new VersionValidator(">=1")).isEmpty());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testWrongFile() throws IOException {
+    final Path file = Files.createTempFile("catalog", ".bin");
+    try {
+      Files.write(file, new byte[64]);
+      VersionCatalog.open(file).close();
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
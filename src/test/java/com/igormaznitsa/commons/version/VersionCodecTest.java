@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorConstant;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import com.igormaznitsa.commons.version.operators.Condition;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class VersionCodecTest {
+
+  private static final String[] VERSIONS = new String[]{"", "1", "1.0", "0.0.0", "1.2.3-SNAPSHOT", "jdk-1.8.0_121", "beta-", "-RC1", "ver-9223372036854775807.4294967296-последний", "1.2.3.4.5.6.7.8.9.10"};
+
+  private static void assertSameVersion(final Version expected, final Version actual) {
+    assertEquals(expected, actual);
+    assertEquals(expected.getPrefix(), actual.getPrefix());
+    assertEquals(expected.getPostfix(), actual.getPostfix());
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void testVersion_DataStream() throws IOException {
+    for (final String text : VERSIONS) {
+      final Version version = new Version(text);
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      VersionCodec.write(new DataOutputStream(buffer), version);
+      assertSameVersion(version, VersionCodec.readVersion(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))));
+    }
+  }
+
+  @Test
+  public void testVersion_ByteBuffer() {
+    final ByteBuffer buffer = ByteBuffer.allocate(4096);
+    for (final String text : VERSIONS) {
+      VersionCodec.write(buffer, new Version(text));
+    }
+    buffer.flip();
+    for (final String text : VERSIONS) {
+      assertSameVersion(new Version(text), VersionCodec.readVersion(buffer));
+    }
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testVersion_Compact() throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    VersionCodec.write(buffer, new Version("1.2.3"));
+    assertEquals(6, buffer.position());
+
+    final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(new Version("1.2.3"));
+    }
+    assertTrue(serialized.size() > buffer.position() * 10);
+  }
+
+  @Test
+  public void testOperator() throws IOException {
+    final String[] expressions = new String[]{"1.0", "!=1.0", ">=1.0,<2.0;>=3.0-beta", "<=jdk-1.8;>jdk-9,<jdk-11;=jdk-17"};
+    for (final String expression : expressions) {
+      final VersionValidator validator = new VersionValidator(expression);
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      VersionCodec.write(new DataOutputStream(buffer), validator);
+      final VersionValidator read = VersionCodec.readValidator(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+      assertEquals(validator.getExpressionRoot().toString(), read.getExpressionRoot().toString());
+      assertEquals(validator.getExpressionRoot().getClass(), read.getExpressionRoot().getClass());
+    }
+  }
+
+  @Test
+  public void testOperator_Compiled() {
+    final Operator compiled = new VersionValidator(">=1.0,<2.0;>3.0,!=4.0").compile().getEvaluator();
+    final ByteBuffer buffer = ByteBuffer.allocate(256);
+    VersionCodec.write(buffer, compiled);
+    buffer.flip();
+    assertEquals(compiled.toString(), VersionCodec.readOperator(buffer).toString());
+  }
+
+  @Test
+  public void testOperator_NullAndDeepTree() {
+    final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+    VersionCodec.write(buffer, (Operator) null);
+    Operator deep = new OperatorLeaf(Condition.GREAT, new Version("0"));
+    for (int i = 1; i < 50000; i++) {
+      deep = new OperatorAnd(deep, new OperatorLeaf(Condition.NOT_EQU, new Version("1." + i)));
+    }
+    VersionCodec.write(buffer, deep);
+    buffer.flip();
+    assertNull(VersionCodec.readOperator(buffer));
+    final Operator read = VersionCodec.readOperator(buffer);
+    assertTrue(read instanceof OperatorAnd);
+    assertEquals(new Version("1.49999"), ((OperatorLeaf) ((OperatorAnd) read).getOperands().get(1)).getBase());
+    assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testOperator_Constants() {
+    final ByteBuffer buffer = ByteBuffer.allocate(16);
+    VersionCodec.write(buffer, OperatorConstant.TRUE);
+    VersionCodec.write(buffer, new OperatorOr(OperatorConstant.FALSE, OperatorConstant.TRUE));
+    buffer.flip();
+    assertSame(OperatorConstant.TRUE, VersionCodec.readOperator(buffer));
+    assertEquals("<;>=", VersionCodec.readOperator(buffer).toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOperator_Unsupported() {
+    VersionCodec.write(ByteBuffer.allocate(16), (Operator) version -> true);
+  }
+
+  @Test
+  public void testStream() throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final VersionWriter writer = new VersionWriter(buffer)) {
+      for (int i = 0; i < 1000; i++) {
+        writer.write(new Version("lib-1." + i + "-SNAPSHOT"));
+      }
+      writer.write(new VersionValidator(">=lib-1.0-SNAPSHOT"));
+      writer.write((Operator) null);
+      assertEquals(1002L, writer.getCount());
+    }
+    assertTrue(buffer.size() < 1000 * 8);
+
+    try (final VersionReader reader = new VersionReader(new ByteArrayInputStream(buffer.toByteArray()))) {
+      for (int i = 0; i < 1000; i++) {
+        assertTrue(reader.hasNextVersion());
+        assertSameVersion(new Version("lib-1." + i + "-SNAPSHOT"), reader.readVersion());
+      }
+      assertFalse(reader.hasNextVersion());
+      assertTrue(reader.hasNext());
+      assertTrue(reader.readValidator().isValid(new Version("lib-1.5-SNAPSHOT")));
+      assertNull(reader.readOperator());
+      assertFalse(reader.hasNext());
+      assertNull(reader.readVersion());
+    }
+  }
+
+  @Test(expected = java.io.StreamCorruptedException.class)
+  public void testStream_WrongHeader() throws IOException {
+    new VersionReader(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+  }
+
+  @Test
+  public void testVersion_LongArrays() throws IOException {
+    final char[] prefix = new char[5000];
+    Arrays.fill(prefix, 'z');
+    final long[] parts = new long[3000];
+    Arrays.fill(parts, 77L);
+    final Version version = new Version(new String(prefix), parts, "end");
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    VersionCodec.write(new DataOutputStream(buffer), version);
+    assertSameVersion(version, VersionCodec.readVersion(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()))));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testVersion_OversizedStringLength() throws IOException {
+    VersionCodec.readVersion(new DataInputStream(new ByteArrayInputStream(new byte[]{1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a', 'b'})));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testVersion_OversizedPartCount() throws IOException {
+    VersionCodec.readVersion(new DataInputStream(new ByteArrayInputStream(new byte[]{0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 1, 2})));
+  }
+}
@@ -0,0 +1,91 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VersionKeysTest {
+
+  private static final String[] TEXTS = new String[]{"", "a", "ab", "b", "A", "~", "\u007f", "\u0080", "é", "中", "￿", "a\u0000", "\u0000"};
+  private static final long[] PARTS = new long[]{0L, 1L, 2L, 255L, 256L, 65535L, Integer.MAX_VALUE, Long.MAX_VALUE, -1L, -2L, Long.MIN_VALUE};
+
+  private static int sign(final int value) {
+    return Integer.signum(value);
+  }
+
+  private static void assertSameOrder(final Version a, final Version b) {
+    final int expected = sign(a.compareTo(b));
+    assertEquals(a + " vs " + b, expected, sign(VersionKeys.compare(VersionKeys.toBytes(a), VersionKeys.toBytes(b))));
+    assertEquals(a + " vs " + b, expected, sign(VersionKeys.compare(VersionKeys.toLongs(a), VersionKeys.toLongs(b))));
+  }
+
+  private static Version randomVersion(final Random rnd) {
+    final long[] parts = new long[rnd.nextInt(6)];
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = rnd.nextInt(4) == 0 ? PARTS[rnd.nextInt(PARTS.length)] : rnd.nextInt(3);
+    }
+    return Version.makeRaw(TEXTS[rnd.nextInt(TEXTS.length)], parts, TEXTS[rnd.nextInt(TEXTS.length)]);
+  }
+
+  @Test
+  public void testEqualVersionsHaveEqualKeys() {
+    assertArrayEquals(VersionKeys.toBytes(new Version("1")), VersionKeys.toBytes(new Version("1.0.0")));
+    assertArrayEquals(VersionKeys.toLongs(new Version("x-1.2-b")), VersionKeys.toLongs(new Version("x-1.2.0-b")));
+    assertArrayEquals(VersionKeys.toBytes(new Version("")), VersionKeys.toBytes(new Version("0")));
+  }
+
+  @Test
+  public void testZeroPadding() {
+    final List<Version> versions = Arrays.asList(new Version("1"), new Version("1.0.1"), new Version("1.0.0.1"), new Version("1.1"), Version.makeRaw("", new long[]{1L, 0L, -1L}, ""), Version.makeRaw("", new long[]{1L, -1L}, ""), new Version("0.0.1"), Version.makeRaw("", new long[]{0L, 0L, -5L}, ""));
+    for (final Version a : versions) {
+      for (final Version b : versions) {
+        assertSameOrder(a, b);
+      }
+    }
+  }
+
+  @Test
+  public void testCompactForSimpleVersions() {
+    assertEquals(7 + 2, VersionKeys.toBytes(new Version("1.2.3")).length);
+    assertEquals(2, VersionKeys.toLongs(new Version("1.2.300")).length);
+  }
+
+  @Test
+  public void testRandomVersionsOrder() {
+    final Random rnd = new Random(24L);
+    final List<Version> versions = new ArrayList<>();
+    for (int i = 0; i < 600; i++) {
+      versions.add(randomVersion(rnd));
+    }
+    for (final Version a : versions) {
+      for (final Version b : versions) {
+        assertSameOrder(a, b);
+      }
+    }
+  }
+
+  @Test
+  public void testSortByKeys() {
+    final Random rnd = new Random(1L);
+    final Version[] versions = new Version[1000];
+    final byte[][] keys = new byte[versions.length][];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = randomVersion(rnd);
+    }
+    final Version[] expected = versions.clone();
+    Arrays.sort(expected);
+    Arrays.sort(versions, (a, b) -> VersionKeys.BYTES_ORDER.compare(VersionKeys.toBytes(a), VersionKeys.toBytes(b)));
+    for (int i = 0; i < versions.length; i++) {
+      assertEquals(0, expected[i].compareTo(versions[i]));
+      keys[i] = VersionKeys.toBytes(versions[i]);
+    }
+    for (int i = 1; i < keys.length; i++) {
+      assertTrue(VersionKeys.BYTES_ORDER.compare(keys[i - 1], keys[i]) <= 0);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Operator;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VersionParserTest {
+
+  private static final String[] TEXTS = {"", " ", "1", "1.2.3", " idea-01.02.003-dev ", "jdk-1.8.0_121", "beta-", "-RC1", "1..2", "1.2.-3", "a-b-1.0", "1.2.3.4.5.6.7.8.9.10.11.12", "1.0\n-beta", "..1", "ver-.1", "1.0-SNAPSHOT"};
+
+  private static String randomText(final Random rnd) {
+    final String alphabet = "0123456789.-ab_ ";
+    final StringBuilder result = new StringBuilder();
+    final int length = rnd.nextInt(12);
+    for (int i = 0; i < length; i++) {
+      result.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+    }
+    return result.toString();
+  }
+
+  private static void assertSameAsVersion(final String text, final VersionParser parser) {
+    final Version expected = new Version(text);
+    assertEquals(text, expected.getPrefix(), parser.getPrefix().toString());
+    assertEquals(text, expected.getPostfix(), parser.getPostfix().toString());
+    assertEquals(text, expected.getNumericPartCount(), parser.getNumericPartCount());
+    assertEquals(text, expected, parser.toVersion());
+    assertEquals(text, 0, VersionView.compare(expected, parser));
+  }
+
+  @Test
+  public void testParse_SameAsVersion() {
+    final VersionParser parser = new VersionParser(2);
+    for (final String text : TEXTS) {
+      assertSameAsVersion(text, parser.parse(text));
+    }
+    final Random rnd = new Random(11L);
+    for (int i = 0; i < 20000; i++) {
+      final String text = randomText(rnd);
+      assertSameAsVersion(text, parser.parse(text));
+    }
+    assertSameAsVersion("", parser.parse(null));
+    assertSameAsVersion("jdk-1.8", parser.parse("xxjdk-1.8xx", 2, 9));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParse_TooBigNumber() {
+    new VersionParser().parse("1.99999999999999999999");
+  }
+
+  @Test
+  public void testCompare_SameAsVersion() {
+    final Random rnd = new Random(12L);
+    final VersionParser a = new VersionParser();
+    final VersionParser b = new VersionParser();
+    for (int i = 0; i < 20000; i++) {
+      final String x = randomText(rnd);
+      final String y = randomText(rnd);
+      assertEquals(x + " vs " + y, Integer.signum(new Version(x).compareTo(new Version(y))), Integer.signum(VersionView.compare(a.parse(x), b.parse(y))));
+    }
+  }
+
+  @Test
+  public void testValidate_SameAsVersion() {
+    final String[] expressions = {">=1.2,<3.0", "!=2.2;>=4.0", "<=1.1-rc", "jdk-1.8;jdk-1.9", ">jdk-1", "<0", "2.2"};
+    final Random rnd = new Random(13L);
+    final VersionParser parser = new VersionParser();
+    for (final String expression : expressions) {
+      final VersionValidator validator = new VersionValidator(expression);
+      final VersionValidator compiled = validator.compile();
+      final Operator custom = version -> validator.isValid(version);
+      for (int i = 0; i < 2000; i++) {
+        final String text = (rnd.nextBoolean() ? "jdk-" : "") + rnd.nextInt(5) + '.' + rnd.nextInt(5) + (rnd.nextInt(3) == 0 ? "-rc" : "");
+        final boolean expected = validator.isValid(new Version(text));
+        assertEquals(text, expected, validator.isValid(parser.parse(text)));
+        assertEquals(text, expected, compiled.isValid(parser));
+        assertEquals(text, expected, custom.isValid(parser));
+      }
+    }
+    assertFalse(new VersionValidator(">=1").isValid((VersionView) null));
+  }
+
+  @Test
+  public void testParseAndValidate_NoGarbage() {
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+    final String[] texts = new String[1000];
+    for (int i = 0; i < texts.length; i++) {
+      texts[i] = "lib-" + (i % 7) + '.' + (i % 13) + '.' + i + (i % 2 == 0 ? "-SNAPSHOT" : "");
+    }
+    final VersionValidator validator = new VersionValidator(">=lib-1.0,<lib-5.0;lib-6.1.1-SNAPSHOT").compile();
+    final VersionParser parser = new VersionParser();
+    int valid = 0;
+    for (int i = 0; i < 20; i++) {
+      for (final String text : texts) {
+        valid += validator.isValid(parser.parse(text)) ? 1 : 0;
+      }
+    }
+    final long threadId = Thread.currentThread().getId();
+    final long before = bean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < 100; i++) {
+      for (final String text : texts) {
+        valid += validator.isValid(parser.parse(text)) ? 1 : 0;
+      }
+    }
+    final long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+    assertTrue(valid > 0);
+    assertTrue("Allocated " + allocated, allocated < 100000L);
+  }
+}
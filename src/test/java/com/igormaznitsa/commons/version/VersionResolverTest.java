@@ -0,0 +1,86 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class VersionResolverTest {
+
+  private static final String[] EXPRESSIONS = {">=1.2,<3.0", "!=2.2;>=4.0", "<=1.1-rc", "<0", "2.2", ">=2", ">=1.0,<1.5;>=3.5,<3.7"};
+
+  private static Map<String, List<Version>> makeRepository(final Random rnd, final int artifacts) {
+    final Map<String, List<Version>> result = new HashMap<>();
+    for (int i = 0; i < artifacts; i++) {
+      final List<Version> versions = new ArrayList<>();
+      for (int j = rnd.nextInt(200); j >= 0; j--) {
+        versions.add(new Version(null, new long[]{rnd.nextInt(5), rnd.nextInt(10)}, rnd.nextInt(4) == 0 ? "rc" : null));
+      }
+      result.put("artifact" + i, versions);
+    }
+    return result;
+  }
+
+  private static Version resolveByScan(final List<Version> versions, final String expression) {
+    final VersionValidator validator = new VersionValidator(expression);
+    Version result = null;
+    if (versions != null) {
+      for (final Version version : versions) {
+        if (validator.isValid(version) && (result == null || version.compareTo(result) > 0)) {
+          result = version;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testResolve_SameAsScan() {
+    final Random rnd = new Random(22L);
+    final Map<String, List<Version>> repository = makeRepository(rnd, 20);
+    final VersionResolver resolver = new VersionResolver(repository, new ForkJoinPool(3));
+
+    final List<VersionResolver.Query> queries = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      queries.add(new VersionResolver.Query("artifact" + rnd.nextInt(22), EXPRESSIONS[rnd.nextInt(EXPRESSIONS.length)]));
+    }
+    final VersionResolver.Result result = resolver.resolve(queries);
+    assertEquals(queries.size(), result.getVersions().size());
+    for (int i = 0; i < queries.size(); i++) {
+      final VersionResolver.Query query = queries.get(i);
+      final Version expected = resolveByScan(repository.get(query.getArtifact()), query.getExpression());
+      assertEquals(query.toString(), expected == null ? null : expected.toString(), result.get(i) == null ? null : result.get(i).toString());
+      assertEquals(query.toString(), expected == null ? null : expected.toString(), resolver.resolve(query.getArtifact(), query.getExpression()) == null ? null : resolver.resolve(query.getArtifact(), query.getExpression()).toString());
+    }
+
+    final VersionResolver.Metrics metrics = result.getMetrics();
+    assertEquals(2000, metrics.getQueryCount());
+    assertEquals(22, metrics.getArtifactCount());
+    assertEquals(EXPRESSIONS.length, metrics.getExpressionCount());
+    assertTrue(metrics.getResolutionCount() <= 22 * EXPRESSIONS.length);
+    assertTrue(metrics.getTotalNanos() >= metrics.getParseNanos() + metrics.getResolveNanos());
+  }
+
+  @Test
+  public void testResolve_SharedCandidates() {
+    final VersionResolver resolver = new VersionResolver(Collections.singletonMap("a", Arrays.asList(new Version("1.0"), new Version("2.0"), new Version("1.5"))));
+    assertSame(resolver.getCandidates("a"), resolver.getCandidates("a"));
+    assertTrue(resolver.getCandidates("b").isEmpty());
+    assertTrue(resolver.getCandidates(null).isEmpty());
+
+    final VersionResolver.Result result = resolver.resolve(Arrays.asList(new VersionResolver.Query("a", "<2"), new VersionResolver.Query("a", "<2"), new VersionResolver.Query("a", null), new VersionResolver.Query(null, "<2")));
+    assertEquals(Arrays.asList(new Version("1.5"), new Version("1.5"), null, null), result.getVersions());
+    assertEquals(2, result.getMetrics().getArtifactCount());
+    assertEquals(2, result.getMetrics().getExpressionCount());
+    assertEquals(3, result.getMetrics().getResolutionCount());
+    assertEquals(0, resolver.resolve(Collections.<VersionResolver.Query>emptyList()).getVersions().size());
+  }
+}
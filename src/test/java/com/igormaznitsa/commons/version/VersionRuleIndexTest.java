@@ -0,0 +1,185 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VersionRuleIndexTest {
+
+  private static final String[] CONDITIONS = {"", "!=", "<", ">", "<=", ">="};
+
+  @Test
+  public void testMatch_SameAsValidators() {
+    final Random rnd = new Random(99L);
+    final VersionRuleIndex<Integer> index = new VersionRuleIndex<>();
+    final List<VersionValidator> validators = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      final String expression = CONDITIONS[rnd.nextInt(CONDITIONS.length)] + rnd.nextInt(10) + '.' + rnd.nextInt(3)
+          + (rnd.nextBoolean() ? "," : ";") + CONDITIONS[rnd.nextInt(CONDITIONS.length)] + rnd.nextInt(10) + '.' + rnd.nextInt(3);
+      final VersionValidator validator = new VersionValidator(expression);
+      validators.add(validator);
+      index.add(i, validator);
+    }
+    index.add(500, new VersionValidator(new OperatorLeaf(Condition.UNKNOWN, new Version(1))));
+    index.add(501, new VersionValidator((String) null));
+    assertEquals(502, index.size());
+
+    for (int removed = 0; removed < 500; removed += 7) {
+      assertTrue(index.remove(removed));
+    }
+    assertTrue(index.remove(500));
+    assertFalse(index.remove(500));
+
+    for (int major = 0; major < 11; major++) {
+      for (int minor = 0; minor < 4; minor++) {
+        final Version version = new Version(major, minor);
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < validators.size(); i++) {
+          if (i % 7 != 0 && validators.get(i).isValid(version)) {
+            expected.add(i);
+          }
+        }
+        final List<Integer> found = index.match(version);
+        Collections.sort(found);
+        assertEquals(version.toString(), expected, found);
+      }
+    }
+    assertTrue(index.match(null).isEmpty());
+  }
+
+  private static VersionValidator randomRule(final Random rnd) {
+    return new VersionValidator(CONDITIONS[rnd.nextInt(CONDITIONS.length)] + rnd.nextInt(10) + '.' + rnd.nextInt(3)
+        + (rnd.nextBoolean() ? "," : ";") + CONDITIONS[rnd.nextInt(CONDITIONS.length)] + rnd.nextInt(10) + '.' + rnd.nextInt(3));
+  }
+
+  private static void assertSameAsValidators(final Map<Integer, VersionValidator> rules, final VersionRuleIndex<Integer> index) {
+    for (int major = 0; major < 11; major++) {
+      for (int minor = 0; minor < 4; minor++) {
+        final Version version = new Version(major, minor);
+        final List<Integer> expected = new ArrayList<>();
+        for (final Map.Entry<Integer, VersionValidator> rule : rules.entrySet()) {
+          if (rule.getValue().isValid(version)) {
+            expected.add(rule.getKey());
+          }
+        }
+        Collections.sort(expected);
+        final List<Integer> found = index.match(version);
+        Collections.sort(found);
+        assertEquals(version.toString(), expected, found);
+      }
+    }
+  }
+
+  @Test
+  public void testMatch_IncrementalChangesDuringRebuild() {
+    final Deque<Runnable> rebuilds = new ArrayDeque<>();
+    final VersionRuleIndex<Integer> index = new VersionRuleIndex<>(rebuilds::add);
+    final Map<Integer, VersionValidator> rules = new LinkedHashMap<>();
+    final Random rnd = new Random(7L);
+
+    for (int i = 0; i < 300; i++) {
+      final VersionValidator rule = randomRule(rnd);
+      rules.put(i, rule);
+      index.add(i, rule);
+    }
+    assertEquals(1, rebuilds.size());
+    assertSameAsValidators(rules, index);
+
+    for (int step = 0; step < 6; step++) {
+      for (int i = 0; i < 100; i++) {
+        final int id = rnd.nextInt(400);
+        if (rnd.nextInt(3) == 0) {
+          assertEquals(rules.remove(id) != null, index.remove(id));
+        } else {
+          final VersionValidator rule = randomRule(rnd);
+          rules.put(id, rule);
+          index.add(id, rule);
+        }
+      }
+      assertSameAsValidators(rules, index);
+      final Runnable rebuild = rebuilds.poll();
+      if (rebuild != null) {
+        rebuild.run();
+      }
+      assertSameAsValidators(rules, index);
+    }
+    assertEquals(rules.size(), index.size());
+  }
+
+  @Test
+  public void testMatch_SynchronousRebuild() {
+    final VersionRuleIndex<Integer> index = new VersionRuleIndex<>(Runnable::run);
+    final Map<Integer, VersionValidator> rules = new LinkedHashMap<>();
+    final Random rnd = new Random(8L);
+    for (int i = 0; i < 2000; i++) {
+      final int id = rnd.nextInt(1000);
+      if (rnd.nextInt(4) == 0) {
+        rules.remove(id);
+        index.remove(id);
+      } else {
+        final VersionValidator rule = randomRule(rnd);
+        rules.put(id, rule);
+        index.add(id, rule);
+      }
+    }
+    assertSameAsValidators(rules, index);
+  }
+
+  @Test
+  public void testMatch_RejectedRebuild() {
+    final Deque<Runnable> rebuilds = new ArrayDeque<>();
+    final AtomicInteger rejected = new AtomicInteger();
+    final VersionRuleIndex<Integer> index = new VersionRuleIndex<>(task -> {
+      if (rejected.getAndIncrement() == 0) {
+        throw new RejectedExecutionException("Shut down");
+      }
+      rebuilds.add(task);
+    });
+    final Map<Integer, VersionValidator> rules = new LinkedHashMap<>();
+    final Random rnd = new Random(9L);
+    for (int i = 0; i < 300; i++) {
+      final VersionValidator rule = randomRule(rnd);
+      rules.put(i, rule);
+      index.add(i, rule);
+    }
+    assertTrue(rejected.get() > 0);
+    assertSameAsValidators(rules, index);
+    for (int i = 300; i < 600; i++) {
+      final VersionValidator rule = randomRule(rnd);
+      rules.put(i, rule);
+      index.add(i, rule);
+    }
+    assertEquals(1, rebuilds.size());
+    rebuilds.poll().run();
+    assertSameAsValidators(rules, index);
+  }
+
+  @Test
+  public void testMatch_NotIndexedRule() {
+    final VersionRuleIndex<String> index = new VersionRuleIndex<>();
+    index.add("unknown", new VersionValidator(new OperatorLeaf(Condition.UNKNOWN, new Version(1))));
+    index.add("cve", new VersionValidator(">=1.0,<1.5"));
+    try {
+      index.match(new Version(1, 2));
+      fail("Unknown condition must be reported");
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+    index.remove("unknown");
+    assertEquals(Collections.singletonList("cve"), index.match(new Version(1, 2)));
+    assertTrue(index.match(new Version(1, 5)).isEmpty());
+  }
+}
@@ -0,0 +1,105 @@
+package com.igormaznitsa.commons.version;
+
+import com.igormaznitsa.commons.version.operators.Condition;
+import com.igormaznitsa.commons.version.operators.Operator;
+import com.igormaznitsa.commons.version.operators.OperatorAnd;
+import com.igormaznitsa.commons.version.operators.OperatorLeaf;
+import com.igormaznitsa.commons.version.operators.OperatorOr;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VersionSetTest {
+
+  @Test
+  public void testOrderAndDeduplication() {
+    final VersionSet set = VersionSet.of(new Version("2.0"), new Version("1"), new Version("1.0"), new Version("1"), new Version("a-1.0"), new Version("1.0-beta"));
+    assertEquals(5, set.size());
+    final List<String> texts = new ArrayList<>();
+    for (final Version version : set) {
+      texts.add(version.toString());
+    }
+    assertEquals(Arrays.asList("1", "1.0", "1.0-beta", "2.0", "a-1.0"), texts);
+    assertTrue(set.contains(new Version("1.0")));
+    assertTrue(set.contains(new Version("1")));
+    assertFalse(set.contains(new Version("1.0.0")));
+    assertEquals(new Version("1.0-beta"), set.higher(new Version("1")));
+    assertEquals(new Version("1.0-beta"), set.lower(new Version("2")));
+    assertNull(set.higher(new Version("z-1")));
+    assertEquals(new Version("1"), set.first());
+    assertEquals(new Version("a-1.0"), set.last());
+    assertNull(VersionSet.of().last());
+  }
+
+  @Test
+  public void testSelect_SameAsValidator() {
+    final Random rnd = new Random(5L);
+    final List<Version> versions = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      versions.add(new Version(rnd.nextInt(3) == 0 ? "x" : null, new long[]{rnd.nextInt(5), rnd.nextInt(5)}, rnd.nextInt(4) == 0 ? "rc" : null));
+    }
+    final VersionSet set = VersionSet.of(versions);
+    final String[] expressions = {">=1.2,<3.0", "!=2.2;>=4.0", "<=1.1-rc", "x-1.0;x-2.0", ">x-1", "<0", "2.2"};
+    for (final String expression : expressions) {
+      final VersionValidator validator = new VersionValidator(expression);
+      final List<Version> expected = new ArrayList<>();
+      for (final Version version : set) {
+        if (validator.isValid(version)) {
+          expected.add(version);
+        }
+      }
+      assertEquals(expression, expected, set.allSatisfying(validator));
+      assertEquals(expression, expected.isEmpty() ? null : expected.get(expected.size() - 1), set.maxSatisfying(validator));
+      assertEquals(expression, expected.isEmpty() ? null : expected.get(0), set.minSatisfying(validator));
+      assertEquals(expression, expected, set.allSatisfying(validator.compile()));
+    }
+    assertEquals(set.allSatisfying(new VersionValidator(">=3.1")), set.allSatisfying(new OperatorLeaf(Condition.GREAT_OR_EQU, new Version(3, 1))));
+    assertTrue(set.allSatisfying((OperatorLeaf) null).isEmpty());
+  }
+
+  @Test
+  public void testSatisfying_NotConvertibleOperator() {
+    final List<Version> versions = new ArrayList<>();
+    for (int major = 0; major < 10; major++) {
+      for (int minor = 0; minor < 10; minor++) {
+        versions.add(new Version(major, minor));
+      }
+    }
+    final VersionSet set = VersionSet.of(versions);
+    final List<Operator> visited = new ArrayList<>();
+    final Operator evenMinor = new Operator() {
+      @Override
+      public boolean isValid(final Version version) {
+        return version.getMinor() % 2 == 0;
+      }
+
+      @Override
+      public boolean isValid(final VersionView version) {
+        visited.add(this);
+        return version.getNumericPartAtPosition(1) % 2 == 0;
+      }
+    };
+    final Operator operator = new OperatorOr(new OperatorAnd(Arrays.asList(new OperatorLeaf(Condition.GREAT_OR_EQU, new Version(2, 3)), new OperatorLeaf(Condition.LESS, new Version(4)), evenMinor)), new OperatorLeaf(Condition.EQU, new Version(7, 7)));
+
+    final List<Version> expected = new ArrayList<>();
+    for (final Version version : set) {
+      if (operator.isValid(version)) {
+        expected.add(version);
+      }
+    }
+    assertEquals(expected, set.allSatisfying(operator));
+    assertEquals(new Version(2, 4), set.minSatisfying(operator));
+    assertEquals(new Version(7, 7), set.maxSatisfying(operator));
+
+    visited.clear();
+    assertEquals(new Version(3, 6), set.maxSatisfying(new OperatorAnd(new OperatorLeaf(Condition.LESS, new Version(3, 8)), evenMinor)));
+    assertEquals(2, visited.size());
+    assertNull(set.maxSatisfying(new OperatorAnd(new OperatorLeaf(Condition.LESS, new Version(0)), evenMinor)));
+    assertNull(set.minSatisfying((Operator) null));
+  }
+}
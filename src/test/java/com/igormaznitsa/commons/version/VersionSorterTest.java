@@ -0,0 +1,186 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class VersionSorterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static List<Version> randomVersions(final int count, final long seed) {
+    final Random rnd = new Random(seed);
+    final String[] texts = new String[]{"", "alpha", "beta", "rc"};
+    final List<Version> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final long[] parts = new long[rnd.nextInt(4)];
+      for (int p = 0; p < parts.length; p++) {
+        parts[p] = rnd.nextInt(rnd.nextBoolean() ? 3 : 100000);
+      }
+      result.add(new Version(texts[rnd.nextInt(texts.length)], parts, texts[rnd.nextInt(texts.length)]));
+    }
+    return result;
+  }
+
+  private static List<Version> readAll(final VersionSorter.SortedVersions sorted) throws Exception {
+    final List<Version> result = new ArrayList<>();
+    Version version;
+    while ((version = sorted.readVersion()) != null) {
+      result.add(version);
+    }
+    return result;
+  }
+
+  private static void assertSorted(final List<Version> versions) {
+    for (int i = 1; i < versions.size(); i++) {
+      assertTrue(versions.get(i - 1) + " > " + versions.get(i), versions.get(i - 1).compareTo(versions.get(i)) <= 0);
+    }
+  }
+
+  private File[] tempFiles() {
+    return this.folder.getRoot().listFiles();
+  }
+
+  @Test
+  public void testInMemoryWithoutFiles() throws Exception {
+    final List<Version> source = randomVersions(1000, 1L);
+    try (final VersionSorter.SortedVersions sorted = new VersionSorter(VersionSorter.DEFAULT_MEMORY_BUDGET, new ForkJoinPool(2), this.folder.getRoot().toPath(), false, 4).sort(source.iterator())) {
+      assertEquals(1, sorted.getRunCount());
+      assertEquals(0, tempFiles().length);
+      final List<Version> result = readAll(sorted);
+      assertEquals(1000, result.size());
+      assertSorted(result);
+      assertNull(sorted.readVersion());
+    }
+  }
+
+  @Test
+  public void testSpilledRunsAndMergePasses() throws Exception {
+    final List<Version> source = randomVersions(20000, 2L);
+    final List<Version> expected = new ArrayList<>(source);
+    Collections.sort(expected);
+
+    final VersionSorter sorter = new VersionSorter(64L * 1024L, new ForkJoinPool(3), this.folder.getRoot().toPath(), false, 3);
+    try (final VersionSorter.SortedVersions sorted = sorter.sort(source.iterator())) {
+      assertTrue(sorted.getRunCount() <= 4);
+      assertTrue(tempFiles().length > 0);
+      assertEquals(20000L, sorted.getInputCount());
+      final List<Version> result = readAll(sorted);
+      assertEquals(expected.size(), result.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(0, expected.get(i).compareTo(result.get(i)));
+      }
+    }
+    assertEquals(0, tempFiles().length);
+  }
+
+  @Test
+  public void testDistinct() throws Exception {
+    final List<Version> source = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      source.add(new Version(i % 2 == 0 ? "1" : "1.0"));
+      source.add(new Version("2.0-" + (i % 7)));
+      source.add(new Version(Integer.toString(i % 50)));
+    }
+    Collections.shuffle(source, new Random(3L));
+
+    final VersionSorter sorter = new VersionSorter(16L * 1024L, new ForkJoinPool(2), this.folder.getRoot().toPath(), true, 2);
+    try (final VersionSorter.SortedVersions sorted = sorter.sort(source.iterator())) {
+      assertTrue(sorted.getRunCount() > 1);
+      final List<Version> result = readAll(sorted);
+      assertSorted(result);
+      assertEquals(new ArrayList<>(new LinkedHashSet<>(result)), result);
+      assertEquals(new LinkedHashSet<>(source).size(), result.size());
+      assertTrue(result.contains(new Version("1")));
+      assertTrue(result.contains(new Version("1.0")));
+    }
+    assertEquals(0, tempFiles().length);
+  }
+
+  @Test
+  public void testSortText() throws Exception {
+    final StringWriter out = new StringWriter();
+    final VersionSorter sorter = new VersionSorter(1024L, new ForkJoinPool(2), this.folder.getRoot().toPath(), true, 2);
+    final long count = sorter.sort(new StringReader("1.10\n1.2\r\nbeta-1\n1.2\n0.9-rc\n"), out, VersionBulkParser.FAIL);
+    assertEquals(4L, count);
+    assertEquals("0.9-rc\n1.2\n1.10\nbeta-1\n", out.toString());
+    assertEquals(0, tempFiles().length);
+  }
+
+  @Test
+  public void testSortBinary() throws Exception {
+    final List<Version> source = randomVersions(5000, 4L);
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final VersionWriter writer = new VersionWriter(buffer)) {
+      for (final Version version : source) {
+        writer.write(version);
+      }
+    }
+
+    final ByteArrayOutputStream sortedBuffer = new ByteArrayOutputStream();
+    final VersionSorter sorter = new VersionSorter(32L * 1024L, new ForkJoinPool(2), this.folder.getRoot().toPath(), false, 8);
+    try (final VersionReader reader = new VersionReader(new ByteArrayInputStream(buffer.toByteArray()));
+         final VersionWriter writer = new VersionWriter(sortedBuffer)) {
+      assertEquals(5000L, sorter.sort(reader, writer));
+    }
+
+    final List<Version> result = new ArrayList<>();
+    try (final VersionReader reader = new VersionReader(new ByteArrayInputStream(sortedBuffer.toByteArray()))) {
+      Version version;
+      while ((version = reader.readVersion()) != null) {
+        result.add(version);
+      }
+    }
+    assertSorted(result);
+    final List<Version> expected = new ArrayList<>(source);
+    Collections.sort(expected);
+    assertEquals(new LinkedHashSet<>(expected), new LinkedHashSet<>(result));
+    assertEquals(0, tempFiles().length);
+  }
+
+  @Test
+  public void testFailureRemovesFiles() throws Exception {
+    final List<Version> source = new ArrayList<>(randomVersions(3000, 5L));
+    source.add(null);
+    try {
+      new VersionSorter(8L * 1024L, new ForkJoinPool(2), this.folder.getRoot().toPath(), false, 2).sort(source.iterator());
+      fail("Must throw NPE");
+    } catch (NullPointerException ex) {
+      assertEquals(0, tempFiles().length);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongBudget() {
+    new VersionSorter(0L, ForkJoinPool.commonPool(), null, false, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongMergeWidth() {
+    new VersionSorter(1L, ForkJoinPool.commonPool(), null, false, 1);
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    try (final VersionSorter.SortedVersions sorted = new VersionSorter().sort(Arrays.<Version>asList().iterator())) {
+      assertEquals(0, sorted.getRunCount());
+      assertNull(sorted.readVersion());
+    }
+  }
+}
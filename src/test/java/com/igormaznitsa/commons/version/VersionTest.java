@@ -2,12 +2,27 @@ package com.igormaznitsa.commons.version;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
 
 public class VersionTest {
 
+  private static final Pattern REFERENCE_EXTRACTOR = Pattern.compile("^([^\\d.]+)-|\\.?([\\d]+)|-?(.*)$");
+
   private static String[] toStrArray(final Version[] versions) {
     final String[] result = new String[versions.length];
     for (int i = 0; i < versions.length; i++) {
@@ -16,6 +31,39 @@ public class VersionTest {
     return result;
   }
 
+  private static void assertSameAsReference(final String text) {
+    final List<Long> detectedDigits = new ArrayList<>();
+    final Matcher matcher = REFERENCE_EXTRACTOR.matcher(text.trim());
+    String tail = "";
+    String start = "";
+    while (matcher.find()) {
+      if (matcher.group(1) != null) {
+        start = matcher.group(1);
+      } else if (matcher.group(2) != null) {
+        detectedDigits.add(Long.parseLong(matcher.group(2)));
+      } else if (matcher.group(3) != null) {
+        tail = matcher.group(3);
+        break;
+      }
+    }
+
+    final Version parsed = new Version(text);
+    assertEquals(text, start, parsed.getPrefix());
+    assertEquals(text, tail, parsed.getPostfix());
+    assertEquals(text, !detectedDigits.isEmpty(), parsed.isNumericPartPresented());
+    for (int i = 0; i <= detectedDigits.size(); i++) {
+      assertEquals(text, i < detectedDigits.size() ? detectedDigits.get(i) : 0L, parsed.getNumericPartAtPosition(i));
+    }
+    final StringBuilder expectedText = new StringBuilder(start);
+    for (int i = 0; i < detectedDigits.size(); i++) {
+      expectedText.append(i == 0 ? (expectedText.length() > 0 ? "-" : "") : ".").append(detectedDigits.get(i));
+    }
+    if (!tail.isEmpty()) {
+      expectedText.append(expectedText.length() > 0 && expectedText.charAt(expectedText.length() - 1) != '-' ? "-" : "").append(tail);
+    }
+    assertEquals(text, expectedText.toString(), parsed.toString());
+  }
+
   @Test
   public void testConstructor_Str() {
     assertEquals("idea-1.4.15-alpha", new Version("  idea-1.04.0015-alpha  ").toString());
@@ -35,6 +83,14 @@ public class VersionTest {
     assertEquals(a, a);
     assertNotEquals(a, b.changePrefix("idal"));
     assertNotEquals(a, new Version((String) null));
+    assertEquals(new Version("idea", new long[]{1, 2, 3}, "dev").hashCode(), a.hashCode());
+    assertEquals(new Version((String) null).hashCode(), new Version("").hashCode());
+  }
+
+  @Test
+  public void testToString_Cached() {
+    final Version version = new Version("idea-1.2.3-dev");
+    assertSame(version.toString(), version.toString());
   }
 
   @Test
@@ -84,4 +140,141 @@ public class VersionTest {
     assertEquals(0L, version.getMicro());
     assertEquals("(Build 201310111528) (#623423d2342)", version.getPostfix().replace('-', ' '));
   }
+
+  @Test
+  public void testScannerAgainstRegexCorpus() {
+    final String[] corpus = {
+        "", " ", "1", "1.2.3", "0001.2.3.004.00005", ".1", "..1", "1..2", "1.", "1.2.", "1.2-", "1.2--x", "-1.2", "--1", "a-", "a--", "a--1",
+        "-", "a-b-c", "a-b-1.2", "a.b-1", "a b-1.2", "idea-1.04.0015-alpha", "idea-alpha", "world11", "v1.2.3", "v-1.2.3-beta", "1.2.3-SNAPSHOT",
+        "2.3.1.Final", "1.0.0-rc.1+build.5", "1:2.30-1ubuntu0.1", "NetBeans-IDE-7.4-(Build-201310111528)-(#623423d2342)", "x-.1", "x-.-1",
+        "  x - 1 . 2 ", "1.2\n3", "a\n-1.2", "1.2-x\ny", "1.2\u2028-x", "a\u0085b-1", "1\r\n2", "a-1.2\u2029", "\u2029\u2028", "9223372036854775807",
+        "a-9223372036854775807.1-z"
+    };
+    for (final String text : corpus) {
+      assertSameAsReference(text);
+    }
+  }
+
+  @Test
+  public void testScannerAgainstRegexRandom() {
+    final char[] alphabet = "0123456789..--abZ _+~\n\u2028".toCharArray();
+    final Random rnd = new Random(12345L);
+    for (int i = 0; i < 50000; i++) {
+      final char[] text = new char[rnd.nextInt(16)];
+      for (int j = 0; j < text.length; j++) {
+        text[j] = alphabet[rnd.nextInt(alphabet.length)];
+      }
+      assertSameAsReference(new String(text));
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testConstructor_Str_TooBigNumber() {
+    new Version("1.9223372036854775808");
+  }
+
+  @Test
+  public void testParse_Ranges() {
+    final String text = "dep:idea-1.04.0015-alpha;next";
+    final Version expected = new Version("idea-1.04.0015-alpha");
+    assertEquals(expected, Version.parse(text, 4, 24));
+    assertEquals(expected, Version.parse(new StringBuilder(text), 4, 24));
+    assertEquals(expected, Version.parse(text.toCharArray(), 4, 20));
+    assertEquals(expected, Version.parse(text.getBytes(StandardCharsets.US_ASCII), 4, 20));
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(64);
+    direct.put(text.getBytes(StandardCharsets.US_ASCII)).flip();
+    assertEquals(expected, Version.parse(direct, 4, 20));
+    assertEquals(0, direct.position());
+
+    final ByteBuffer limited = ByteBuffer.wrap(("    " + text + " ид-3.4").getBytes(StandardCharsets.UTF_8));
+    limited.limit(6);
+    assertEquals(expected, Version.parse(limited, 8, 20));
+    assertEquals(new Version("ид-3.4"), Version.parse(limited, 33, limited.capacity() - 33));
+    assertEquals(6, limited.limit());
+    assertEquals(0, limited.position());
+
+    final byte[] utf8 = "  ид-1.2-βeta ".getBytes(StandardCharsets.UTF_8);
+    assertEquals(new Version("ид-1.2-βeta"), Version.parse(utf8, 0, utf8.length));
+    assertEquals(new Version(" "), Version.parse(utf8, 0, 1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testParse_WrongRange() {
+    Version.parse(new byte[4], 2, 3);
+  }
+
+  private static int referenceCompare(final Version a, final Version b) {
+    int result = a.getPrefix().compareTo(b.getPrefix());
+    for (int i = 0; result == 0 && i < 8; i++) {
+      result = Long.compare(a.getNumericPartAtPosition(i), b.getNumericPartAtPosition(i));
+    }
+    return result == 0 ? a.getPostfix().compareTo(b.getPostfix()) : result;
+  }
+
+  @Test
+  public void testPackedForm_SameOrderAsGeneral() {
+    final long[] values = {0L, 1L, 2L, 0x7FFFL, 0xFFFFL, 0x10000L, Long.MAX_VALUE};
+    final Random rnd = new Random(777L);
+    final Version[] versions = new Version[3000];
+    for (int i = 0; i < versions.length; i++) {
+      final long[] parts = new long[rnd.nextInt(6)];
+      for (int j = 0; j < parts.length; j++) {
+        parts[j] = values[rnd.nextInt(values.length)];
+      }
+      final int kind = rnd.nextInt(8);
+      versions[i] = new Version(kind == 0 ? "a" : null, parts, kind == 1 ? "b" : null);
+    }
+    assertTrue(new Version(1, 2, 3, 4).isPacked());
+    assertFalse(new Version(1, 2, 3, 4, 5).isPacked());
+    assertFalse(new Version(0x10000L).isPacked());
+    assertFalse(new Version("a-1").isPacked());
+
+    for (int i = 0; i < versions.length; i++) {
+      for (int j = i; j < Math.min(versions.length, i + 200); j++) {
+        final Version a = versions[i];
+        final Version b = versions[j];
+        assertEquals(a + " vs " + b, Integer.signum(referenceCompare(a, b)), Integer.signum(a.compareTo(b)));
+        assertEquals(a + " vs " + b, Integer.signum(referenceCompare(b, a)), Integer.signum(b.compareTo(a)));
+        assertEquals(a + " vs " + b, a.toString().equals(b.toString()), a.equals(b));
+      }
+    }
+    assertNotEquals(new Version(1, 0), new Version(1));
+    assertEquals(0, new Version(1, 0).compareTo(new Version(1)));
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+      out.writeObject(new Version("1.2.3"));
+    }
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+      final Version restored = (Version) in.readObject();
+      assertTrue(restored.isPacked());
+      assertEquals(new Version(1, 2, 3), restored);
+      assertEquals(new Version(1, 2, 3).hashCode(), restored.hashCode());
+    }
+  }
+
+  @Test
+  public void testSerialization_ReadableAsOldForm() throws Exception {
+    final Version version = new Version("beta-1.2.3-SNAPSHOT");
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+      out.writeObject(version);
+    }
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray())) {
+      @Override
+      protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        return Version.class.getName().equals(desc.getName()) ? com.igormaznitsa.commons.version.legacy.Version.class : super.resolveClass(desc);
+      }
+    }) {
+      final com.igormaznitsa.commons.version.legacy.Version old = (com.igormaznitsa.commons.version.legacy.Version) in.readObject();
+      assertEquals("beta", old.getPrefix());
+      assertArrayEquals(new long[]{1L, 2L, 3L}, old.getNumericParts());
+      assertEquals("SNAPSHOT", old.getPostfix());
+      assertEquals(version.toString().hashCode(), old.hashCode());
+    }
+  }
 }
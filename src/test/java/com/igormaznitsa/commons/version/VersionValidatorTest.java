@@ -3,7 +3,16 @@ package com.igormaznitsa.commons.version;
 import com.igormaznitsa.commons.version.operators.*;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -125,4 +134,76 @@ public class VersionValidatorTest {
     assertTrue(new VersionValidator(">some-1.2.3;<=some-1.2.5;some-1.2.10").isValid(new Version("some-1.2.10")));
   }
 
+  @Test
+  public void testBatchValidation() {
+    final Version[] versions = {new Version("1.0"), null, new Version("1.5"), new Version("2.0"), new Version("3.1"), new Version("4.0")};
+    for (final VersionValidator validator : new VersionValidator[]{new VersionValidator(">=1.0,<2.0;>=3.0,<4.0"), new VersionValidator(">=1.0,<2.0;>=3.0,<4.0").compile()}) {
+      final boolean[] result = new boolean[versions.length];
+      validator.validateAll(versions, result);
+      assertArrayEquals(new boolean[]{true, false, true, false, true, false}, result);
+
+      final BitSet bits = validator.validateAll(Arrays.asList(versions));
+      assertEquals(3, bits.cardinality());
+      assertTrue(bits.get(0) && bits.get(2) && bits.get(4));
+
+      assertEquals(Arrays.asList(versions[0], versions[2], versions[4]), validator.filter(Arrays.asList(versions)));
+      assertEquals(Arrays.asList(versions[0], versions[2], versions[4]), validator.filter(Arrays.asList(versions)));
+    }
+
+    final VersionValidator notCompiled = new VersionValidator(">=1.0,<2.0");
+    notCompiled.validateAll(versions, new boolean[versions.length]);
+    assertSame(notCompiled.getExpressionRoot(), notCompiled.getEvaluator());
+    assertTrue(notCompiled.isValid(new Version("1.1")));
+
+    final boolean[] nullResult = new boolean[]{true};
+    new VersionValidator((String) null).validateAll(new Version[]{new Version(1)}, nullResult);
+    assertFalse(nullResult[0]);
+    assertTrue(new VersionValidator((String) null).filter(Arrays.asList(versions)).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchValidation_ShortResult() {
+    new VersionValidator("1.0").validateAll(new Version[2], new boolean[1]);
+  }
+
+  private static VersionValidator serializeAndRead(final VersionValidator validator, final List<String> classNames) throws Exception {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+      out.writeObject(validator);
+    }
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray())) {
+      @Override
+      protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+        final ObjectStreamClass result = super.readClassDescriptor();
+        classNames.add(result.getName());
+        return result;
+      }
+    }) {
+      return (VersionValidator) in.readObject();
+    }
+  }
+
+  @Test
+  public void testSerialization_EvaluatorIsNotWritten() throws Exception {
+    final List<String> classNames = new ArrayList<>();
+    final VersionValidator compiled = serializeAndRead(new VersionValidator(">=1.0,<2.0;>3").compile(), classNames);
+    assertTrue(compiled.getEvaluator() instanceof OperatorIntervals);
+    assertTrue(compiled.isValid(new Version("1.5")));
+    assertFalse(compiled.isValid(new Version("2.5")));
+    assertFalse(classNames.contains(OperatorIntervals.class.getName()));
+    assertFalse(classNames.contains(VersionInterval.class.getName()));
+
+    final VersionValidator tree = serializeAndRead(new VersionValidator(">=1.0,<2.0"), classNames);
+    assertSame(tree.getExpressionRoot(), tree.getEvaluator());
+    assertTrue(tree.isValid(new Version("1.5")));
+
+    final VersionValidator empty = serializeAndRead(new VersionValidator((Operator) null), classNames);
+    assertNull(empty.getEvaluator());
+
+    final List<String> fields = new ArrayList<>();
+    for (final ObjectStreamField field : ObjectStreamClass.lookup(VersionValidator.class).getFields()) {
+      fields.add(field.getName());
+    }
+    assertEquals(Arrays.asList("compiled", "expressionRoot"), fields);
+  }
 }
@@ -0,0 +1,135 @@
+package com.igormaznitsa.commons.version;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VersionsTest {
+
+  private static Version[] makeVersions(final Random rnd, final int number) {
+    final String[] prefixes = {null, "jdk", "beta", "a"};
+    final String[] postfixes = {null, "rc1", "SNAPSHOT", "M2"};
+    final Version[] result = new Version[number];
+    for (int i = 0; i < number; i++) {
+      final long[] parts = new long[rnd.nextInt(5)];
+      for (int p = 0; p < parts.length; p++) {
+        switch (rnd.nextInt(4)) {
+          case 0:
+            parts[p] = 0L;
+            break;
+          case 1:
+            parts[p] = rnd.nextInt(3);
+            break;
+          case 2:
+            parts[p] = rnd.nextInt(100000);
+            break;
+          default:
+            parts[p] = rnd.nextLong() & Long.MAX_VALUE;
+            break;
+        }
+      }
+      result[i] = new Version(prefixes[rnd.nextInt(prefixes.length)], parts, postfixes[rnd.nextInt(postfixes.length)]);
+    }
+    return result;
+  }
+
+  private static void assertSameOrder(final Version[] expected, final Version[] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertSame("Index " + i, expected[i], actual[i]);
+    }
+  }
+
+  @Test
+  public void testSort_SameAsArraysSort() {
+    final Random rnd = new Random(1234L);
+    for (final int size : new int[]{0, 1, 2, 31, 32, 100, 1000, 20000}) {
+      final Version[] versions = makeVersions(rnd, size);
+      final Version[] expected = versions.clone();
+      Arrays.sort(expected);
+      final Version[] sorted = versions.clone();
+      Versions.sort(sorted);
+      assertSameOrder(expected, sorted);
+    }
+  }
+
+  @Test
+  public void testSort_NegativeParts() {
+    final Version[] versions = new Version[200];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = i % 2 == 0 ? new Version(Long.MIN_VALUE, i) : new Version(i % 3, i);
+    }
+    final Version[] expected = versions.clone();
+    Arrays.sort(expected);
+    final Version[] sorted = versions.clone();
+    Versions.sort(sorted);
+    assertSameOrder(expected, sorted);
+    assertEquals(Long.MIN_VALUE, sorted[0].getNumericParts()[0]);
+
+    final Random rnd = new Random(77L);
+    final long[] values = {0L, 1L, -1L, 2L, -2L, Long.MIN_VALUE, Long.MAX_VALUE, 100000L, -100000L};
+    final Version[] raw = new Version[5000];
+    for (int i = 0; i < raw.length; i++) {
+      final long[] parts = new long[rnd.nextInt(4)];
+      for (int p = 0; p < parts.length; p++) {
+        parts[p] = values[rnd.nextInt(values.length)];
+      }
+      raw[i] = Version.makeRaw(rnd.nextBoolean() ? "" : "a", parts, rnd.nextBoolean() ? "" : "b");
+    }
+    final Version[] rawExpected = raw.clone();
+    Arrays.sort(rawExpected);
+    Versions.sort(raw);
+    assertSameOrder(rawExpected, raw);
+  }
+
+  @Test
+  public void testSort_TrailingZeros() {
+    final Version[] versions = new Version[200];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = new Version(new long[(i * 7) % 5]);
+    }
+    versions[100] = new Version(0, 0, 1);
+    final Version[] expected = versions.clone();
+    Arrays.sort(expected);
+    Versions.sort(versions);
+    assertSameOrder(expected, versions);
+    assertEquals(new Version(0, 0, 1), versions[versions.length - 1]);
+  }
+
+  @Test
+  public void testSort_Range() {
+    final Version[] versions = makeVersions(new Random(7L), 500);
+    final Version[] expected = versions.clone();
+    Arrays.sort(expected, 100, 400);
+    Versions.sort(versions, 100, 400);
+    assertSameOrder(expected, versions);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSort_WrongRange() {
+    Versions.sort(new Version[3], 2, 4);
+  }
+
+  @Test
+  public void testSort_List() {
+    final List<Version> versions = new ArrayList<>(Arrays.asList(makeVersions(new Random(3L), 300)));
+    final List<Version> expected = new ArrayList<>(versions);
+    expected.sort(null);
+    Versions.sort(versions);
+    assertSameOrder(expected.toArray(new Version[0]), versions.toArray(new Version[0]));
+  }
+
+  @Test
+  public void testParallelSort() {
+    final Version[] versions = makeVersions(new Random(99L), Versions.PARALLEL_THRESHOLD * 8);
+    final Version[] expected = versions.clone();
+    Arrays.sort(expected);
+    Versions.parallelSort(versions);
+    assertSameOrder(expected, versions);
+  }
+}
@@ -0,0 +1,40 @@
+package com.igormaznitsa.commons.version.legacy;
+
+import java.io.Serializable;
+
+/**
+ * Serialized shape of 1.0.0 version, it is used to check that new streams can be read by old readers.
+ */
+public final class Version implements Serializable {
+
+  private static final long serialVersionUID = -4409642391893263592L;
+
+  private final long[] numericParts;
+  private final String prefix;
+  private final String postfix;
+  private final int hash;
+
+  private Version() {
+    this.numericParts = null;
+    this.prefix = null;
+    this.postfix = null;
+    this.hash = 0;
+  }
+
+  public long[] getNumericParts() {
+    return this.numericParts;
+  }
+
+  public String getPrefix() {
+    return this.prefix;
+  }
+
+  public String getPostfix() {
+    return this.postfix;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hash;
+  }
+}
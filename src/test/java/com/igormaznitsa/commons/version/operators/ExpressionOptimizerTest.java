@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionValidator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ExpressionOptimizerTest {
+
+  private static final Condition[] CONDITIONS = {Condition.EQU, Condition.NOT_EQU, Condition.LESS, Condition.GREAT, Condition.LESS_OR_EQU, Condition.GREAT_OR_EQU};
+  private static final String[] BASES = {"0", "1", "1.0", "1.0-rc", "1.1", "1.5", "2", "2.0.1", "3", "a-1", "a-2.1"};
+
+  private static Operator makeRandomTree(final Random rnd, final int depth) {
+    final Operator result;
+    if (depth == 0 || rnd.nextInt(4) == 0) {
+      result = rnd.nextInt(30) == 0 ? (Operator) version -> version != null && version.getMajor() == 1
+          : new OperatorLeaf(CONDITIONS[rnd.nextInt(CONDITIONS.length)], new Version(BASES[rnd.nextInt(BASES.length)]));
+    } else if (rnd.nextBoolean()) {
+      result = new OperatorAnd(makeRandomTree(rnd, depth - 1), makeRandomTree(rnd, depth - 1));
+    } else {
+      result = new OperatorOr(makeRandomTree(rnd, depth - 1), makeRandomTree(rnd, depth - 1));
+    }
+    return result;
+  }
+
+  private static List<Version> makeProbes() {
+    final List<Version> result = new ArrayList<>();
+    for (final String base : BASES) {
+      result.add(new Version(base));
+    }
+    for (final String text : new String[]{"", "0.5", "1.0.0", "1.0.1", "1.0-beta", "1.2", "2.0", "2.0.0.1", "2.5", "3.0-rc", "4", "a-", "a-1.5", "a-9", "b-1", "z"}) {
+      result.add(new Version(text));
+    }
+    return result;
+  }
+
+  private static int countLeaves(final Operator operator) {
+    int result = 1;
+    if (operator instanceof OperatorAnd || operator instanceof OperatorOr) {
+      result = 0;
+      for (final Operator operand : operator instanceof OperatorAnd ? ((OperatorAnd) operator).getOperands() : ((OperatorOr) operator).getOperands()) {
+        result += countLeaves(operand);
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testOptimize_Examples() {
+    assertEquals(">=1.2,<2.5", ExpressionOptimizer.optimize(new VersionValidator(">=1.0,>=1.2,<3.0,<2.5").getExpressionRoot()).toString());
+    assertSame(OperatorConstant.FALSE, ExpressionOptimizer.optimize(new VersionValidator(">2.0,<1.0").getExpressionRoot()));
+    assertSame(OperatorConstant.TRUE, ExpressionOptimizer.optimize(new VersionValidator("<1.0;>=1.0").getExpressionRoot()));
+    assertSame(OperatorConstant.TRUE, ExpressionOptimizer.optimize(new VersionValidator("!=1.0;!=2.0").getExpressionRoot()));
+    assertEquals("!=1.0", ExpressionOptimizer.optimize(new VersionValidator("<1.0;>1.0").getExpressionRoot()).toString());
+    assertEquals(">=1.0,<3.0,!=2.0", ExpressionOptimizer.optimize(new VersionValidator(">=1.0,<2.0;>2.0,<3.0;>=1.5,<1.7").getExpressionRoot()).toString());
+    assertEquals("=1.5;>=2.0", ExpressionOptimizer.optimize(new VersionValidator(">=1.5,<=1.5;>=3;>=2.0,<4").getExpressionRoot()).toString());
+    assertNull(ExpressionOptimizer.optimize(null));
+    assertFalse(new VersionValidator(">2.0,<1.0").optimize().isValid(new Version("1.5")));
+  }
+
+  @Test
+  public void testOptimize_NotConvertiblePartsKept() {
+    final Operator custom = version -> true;
+    final Operator optimized = ExpressionOptimizer.optimize(new OperatorAnd(custom, new VersionValidator(">=1.0,>=2.0").getExpressionRoot()));
+    assertTrue(optimized instanceof OperatorAnd);
+    assertSame(custom, ((OperatorAnd) optimized).getOperands().get(0));
+    assertEquals(">=2.0", ((OperatorAnd) optimized).getOperands().get(1).toString());
+    assertSame(OperatorConstant.FALSE, ExpressionOptimizer.optimize(new OperatorAnd(custom, new VersionValidator(">2,<1").getExpressionRoot())));
+  }
+
+  @Test
+  public void testOptimize_RandomTreesEquivalent() {
+    final Random rnd = new Random(18L);
+    final List<Version> probes = makeProbes();
+    for (int i = 0; i < 5000; i++) {
+      final Operator tree = makeRandomTree(rnd, 1 + rnd.nextInt(5));
+      final Operator optimized = ExpressionOptimizer.optimize(tree);
+      for (final Version probe : probes) {
+        assertEquals(tree + " -> " + optimized + " for " + probe, tree.isValid(probe), optimized.isValid(probe));
+      }
+      assertFalse(optimized.isValid((Version) null));
+      if (OperatorIntervals.toIntervals(tree) != null) {
+        assertTrue(tree + " -> " + optimized, countLeaves(optimized) <= Math.max(countLeaves(tree), 2));
+        final VersionValidator reparsed = new VersionValidator(optimized.toString());
+        for (final Version probe : probes) {
+          assertEquals(tree + " -> " + optimized + " for " + probe, tree.isValid(probe), reparsed.isValid(probe));
+        }
+      }
+    }
+  }
+}
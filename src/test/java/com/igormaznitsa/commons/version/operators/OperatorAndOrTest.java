@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionValidator;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OperatorAndOrTest {
+
+  private static Object serializeAndRestore(final Object obj) throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (final ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+      out.writeObject(obj);
+    }
+    try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+      return in.readObject();
+    }
+  }
+
+  private static OperatorLeaf leaf(final Condition condition, final String version) {
+    return new OperatorLeaf(condition, new Version(version));
+  }
+
+  @Test
+  public void testOperands() {
+    final OperatorAnd and = new OperatorAnd(Arrays.asList(leaf(Condition.GREAT_OR_EQU, "1"), leaf(Condition.LESS, "3"), leaf(Condition.NOT_EQU, "2")));
+    assertEquals(3, and.getOperands().size());
+    assertEquals(">=1,<3,!=2", and.toString());
+    assertTrue(and.isValid(new Version("1.5")));
+    assertFalse(and.isValid(new Version("2")));
+    assertFalse(and.isValid((Version) null));
+
+    final OperatorOr or = new OperatorOr(leaf(Condition.LESS, "1"), leaf(Condition.GREAT, "2"));
+    assertEquals(2, or.getOperands().size());
+    assertEquals("<1;>2", or.toString());
+    assertTrue(or.isValid(new Version("3")));
+    assertFalse(or.isValid(new Version("1.5")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAnd_TooFewOperands() {
+    new OperatorAnd(Collections.singletonList(leaf(Condition.EQU, "1")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOr_TooFewOperands() {
+    new OperatorOr(Collections.<Operator>emptyList());
+  }
+
+  @Test
+  public void testSerialization_OperandsRestored() throws Exception {
+    final OperatorOr or = new OperatorOr(Arrays.asList(leaf(Condition.EQU, "1"), new OperatorAnd(leaf(Condition.GREAT, "2"), leaf(Condition.LESS, "3")), leaf(Condition.EQU, "4"), leaf(Condition.EQU, "5"), leaf(Condition.EQU, "6")));
+    final OperatorOr restored = (OperatorOr) serializeAndRestore(or);
+    assertEquals(or.toString(), restored.toString());
+    assertEquals(5, restored.getOperands().size());
+    assertEquals(2, ((OperatorAnd) restored.getOperands().get(1)).getOperands().size());
+  }
+
+  @Test
+  public void testLongExpression_NoDeepRecursion() throws Exception {
+    final StringBuilder buffer = new StringBuilder();
+    for (int group = 0; group < 100; group++) {
+      if (group > 0) {
+        buffer.append(';');
+      }
+      buffer.append(">=").append(group).append(",<").append(group + 1);
+      for (int i = 1; i < 999; i++) {
+        buffer.append(",!=").append(group).append('.').append(i);
+      }
+    }
+    final VersionValidator validator = new VersionValidator(buffer.toString());
+    assertTrue(validator.getExpressionRoot() instanceof OperatorOr);
+    assertEquals(100, ((OperatorOr) validator.getExpressionRoot()).getOperands().size());
+    assertEquals(buffer.toString(), validator.getExpressionRoot().toString());
+    assertTrue(validator.isValid(new Version("5.999")));
+    assertTrue(validator.isValid(new Version("99.0")));
+    assertFalse(validator.isValid(new Version("5.500")));
+    assertFalse(validator.isValid(new Version("100")));
+
+    final Operator restored = (Operator) serializeAndRestore(validator.getExpressionRoot());
+    assertEquals(buffer.toString(), restored.toString());
+    assertEquals(100, ((OperatorOr) restored).getOperands().size());
+    assertTrue(restored.isValid(new Version("5.999")));
+    assertFalse(restored.isValid(new Version("5.500")));
+  }
+}
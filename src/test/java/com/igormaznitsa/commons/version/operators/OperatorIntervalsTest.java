@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import com.igormaznitsa.commons.version.VersionValidator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OperatorIntervalsTest {
+
+  private static final String[] CONDITIONS = {"", "=", "!=", "<", ">", "<=", ">="};
+
+  private static String makeRandomExpression(final Random rnd) {
+    final StringBuilder result = new StringBuilder();
+    final int clauses = 1 + rnd.nextInt(6);
+    for (int i = 0; i < clauses; i++) {
+      if (i > 0) {
+        result.append(rnd.nextInt(3) == 0 ? ';' : ',');
+      }
+      result.append(CONDITIONS[rnd.nextInt(CONDITIONS.length)]).append(rnd.nextInt(4)).append('.').append(rnd.nextInt(3));
+    }
+    return result.toString();
+  }
+
+  @Test
+  public void testCompile_SameResultAsTree() {
+    final Random rnd = new Random(4242L);
+    for (int i = 0; i < 2000; i++) {
+      final VersionValidator validator = new VersionValidator(makeRandomExpression(rnd));
+      final VersionValidator compiled = validator.compile();
+      assertTrue(compiled.getEvaluator() instanceof OperatorIntervals);
+      assertSame(validator.getExpressionRoot(), compiled.getExpressionRoot());
+      final VersionValidator reparsed = new VersionValidator(compiled.getEvaluator().toString());
+      for (int major = 0; major < 5; major++) {
+        for (int minor = 0; minor < 4; minor++) {
+          final Version version = new Version(major, minor);
+          assertEquals(validator + " for " + version, validator.isValid(version), compiled.isValid(version));
+          assertEquals(compiled.getEvaluator() + " for " + version, validator.isValid(version), reparsed.isValid(version));
+          final Version longer = new Version(major, minor, 1);
+          assertEquals(validator + " for " + longer, validator.isValid(longer), compiled.isValid(longer));
+        }
+      }
+      assertFalse(compiled.isValid(null));
+    }
+  }
+
+  @Test
+  public void testCompile_Intervals() {
+    final OperatorIntervals compiled = (OperatorIntervals) OperatorIntervals.compile(new DefaultExpressionParser().parse(">=1.0,<2.0;>=3.0,<4.0,!=3.5;>=1.5,<2.5"));
+    assertEquals(">=1.0,<2.5;>=3.0,<3.5;>3.5,<4.0", compiled.toString());
+    assertEquals(3, compiled.getIntervals().size());
+    assertEquals("<", OperatorIntervals.compile(new DefaultExpressionParser().parse(">2,<1")).toString());
+    assertEquals(">=", OperatorIntervals.compile(new DefaultExpressionParser().parse(">=2;<3")).toString());
+  }
+
+  @Test
+  public void testCompile_NotReducible() {
+    final Operator unknown = new OperatorAnd(new OperatorLeaf(Condition.UNKNOWN, new Version(1)), new OperatorLeaf(Condition.EQU, new Version(1)));
+    assertSame(unknown, OperatorIntervals.compile(unknown));
+    assertNull(OperatorIntervals.compile(null));
+    assertNull(new VersionValidator((String) null).compile().getEvaluator());
+  }
+
+  @Test
+  public void testToEnclosingIntervals() {
+    final Operator custom = version -> true;
+    final DefaultExpressionParser parser = new DefaultExpressionParser();
+    assertNull(OperatorIntervals.toIntervals(new OperatorAnd(custom, parser.parse(">=1.0,<2.0"))));
+    assertEquals(">=1.0,<2.0", OperatorIntervals.of(OperatorIntervals.toEnclosingIntervals(new OperatorAnd(custom, parser.parse(">=1.0,<2.0")))).toString());
+    assertEquals(">=", OperatorIntervals.of(OperatorIntervals.toEnclosingIntervals(new OperatorOr(custom, parser.parse(">=1.0,<2.0")))).toString());
+    assertEquals("<2.0;>=3.0", OperatorIntervals.of(OperatorIntervals.toEnclosingIntervals(new OperatorOr(new OperatorAnd(custom, parser.parse("<2.0")), parser.parse(">=3.0")))).toString());
+    assertEquals(OperatorIntervals.toIntervals(parser.parse(">1;=0")), OperatorIntervals.toEnclosingIntervals(parser.parse(">1;=0")));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.commons.version.operators;
+
+import com.igormaznitsa.commons.version.Version;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class StrictExpressionParserTest {
+
+  private static final Pattern REFERENCE_LEAF = Pattern.compile("(!=|>=|<=|>|<|=)\\s*(.*)");
+  private static final Pattern REFERENCE_OR = Pattern.compile("(.+);(.+)");
+  private static final Pattern REFERENCE_AND = Pattern.compile("(.+),(.+)");
+
+  private static String parseByReferenceRegex(final String text) {
+    final String trimmed = text.trim();
+    final Matcher orMatcher = REFERENCE_OR.matcher(trimmed);
+    if (orMatcher.matches()) {
+      return "OR(" + parseByReferenceRegex(orMatcher.group(1)) + ' ' + parseByReferenceRegex(orMatcher.group(2)) + ')';
+    }
+    final Matcher andMatcher = REFERENCE_AND.matcher(trimmed);
+    if (andMatcher.matches()) {
+      return "AND(" + parseByReferenceRegex(andMatcher.group(1)) + ' ' + parseByReferenceRegex(andMatcher.group(2)) + ')';
+    }
+    final Matcher leaf = REFERENCE_LEAF.matcher(trimmed);
+    if (leaf.matches()) {
+      return Condition.decode(leaf.group(1)).name() + '[' + new Version(leaf.group(2)) + ']';
+    }
+    return Condition.EQU.name() + '[' + new Version(trimmed) + ']';
+  }
+
+  static String toShape(final Operator operator) {
+    if (operator instanceof OperatorOr) {
+      return toShape("OR", ((OperatorOr) operator).getOperands());
+    } else if (operator instanceof OperatorAnd) {
+      return toShape("AND", ((OperatorAnd) operator).getOperands());
+    } else {
+      final OperatorLeaf leaf = (OperatorLeaf) operator;
+      return leaf.getCondition().name() + '[' + leaf.getBase() + ']';
+    }
+  }
+
+  /**
+   * Operands are shown as left-deep binary tree, in the same manner as they are split by the reference regex.
+   */
+  private static String toShape(final String name, final List<Operator> operands) {
+    String result = toShape(operands.get(0));
+    for (int i = 1; i < operands.size(); i++) {
+      result = name + '(' + result + ' ' + toShape(operands.get(i)) + ')';
+    }
+    return result;
+  }
+
+  private static void assertError(final String expression, final int expectedPosition) {
+    try {
+      new StrictExpressionParser().parse(expression);
+      fail("Expected error for " + expression);
+    } catch (ExpressionParseException ex) {
+      assertEquals(expression, expectedPosition, ex.getPosition());
+    }
+  }
+
+  @Test
+  public void testSameTreeAsRegex() {
+    final String[] corpus = {"", " ", "1", "=1", "  >= 1.2 , < 2.0 ; 3 ", "a;;b", "a;", ";a", "a,,b;c", "=>1", "> =1", "!1", "<", "<=", "a\nb;c", "=\n1",
+        ">idea-1.1.0,<idea-3.0.2;1.1.0,3.0.2;!=0.0.1-dev", "1.2.3,<4.5.6;>=7.8.1,<=1-SNAPSHOT;!=4.4.5", "1<2", ",", ";", ";;", "a;b;"};
+    final DefaultExpressionParser parser = new DefaultExpressionParser();
+    for (final String expression : corpus) {
+      assertEquals(expression, parseByReferenceRegex(expression), toShape(parser.parse(expression)));
+    }
+
+    final char[] alphabet = "0123456789.-a ;;,,=<>!\t".toCharArray();
+    final Random rnd = new Random(31337L);
+    for (int i = 0; i < 20000; i++) {
+      final char[] text = new char[rnd.nextInt(14)];
+      for (int j = 0; j < text.length; j++) {
+        text[j] = alphabet[rnd.nextInt(alphabet.length)];
+      }
+      final String expression = new String(text);
+      assertEquals(expression, parseByReferenceRegex(expression), toShape(parser.parse(expression)));
+    }
+  }
+
+  @Test
+  public void testWellFormed() {
+    final StrictExpressionParser parser = new StrictExpressionParser();
+    assertNull(parser.parse(null));
+    assertEquals("OR(OR(AND(GREAT_OR_EQU[1.2] LESS[2.0]) EQU[3]) NOT_EQU[4])", toShape(parser.parse(" >= 1.2 , < 2.0 ; 3;!=4 ")));
+    assertEquals("LESS[]", toShape(parser.parse("<")));
+  }
+
+  @Test
+  public void testErrorPositions() {
+    assertError("", 0);
+    assertError("  ", 2);
+    assertError("1;;2", 2);
+    assertError("1, ,2", 3);
+    assertError("1,", 2);
+    assertError(">=1;", 4);
+    assertError("=>1", 1);
+    assertError(">= =1", 3);
+    assertError("!1", 0);
+    assertError("1<2", 1);
+  }
+
+  @Test
+  public void testLongExpressionIsLinear() {
+    final StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      if (i > 0) {
+        buffer.append(i % 2 == 0 ? ';' : ',');
+      }
+      buffer.append(">=").append(i).append(".0");
+    }
+    final Operator root = new StrictExpressionParser().parse(buffer.toString());
+    assertEquals(buffer.toString(), root.toString());
+  }
+}